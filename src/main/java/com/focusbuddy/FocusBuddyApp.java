@@ -1,7 +1,14 @@
 package com.focusbuddy;
 
+import com.focusbuddy.database.CircuitBreaker;
+import com.focusbuddy.database.DatabaseManager;
+import com.focusbuddy.database.DbExecutor;
+import com.focusbuddy.database.HealthMonitor;
+import com.focusbuddy.database.WriteJournal;
+import com.focusbuddy.utils.NotificationManager;
 import com.focusbuddy.utils.ThemeManager;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
@@ -58,9 +65,23 @@ public class FocusBuddyApp extends Application {
             primaryStage.toFront();
             primaryStage.requestFocus();
 
+            // Tell the user when the database goes away and comes back
+            DatabaseManager.getInstance().getCircuitBreaker().addListener(
+                    state -> Platform.runLater(() -> showConnectionState(state)));
+
+            // Replays writes left in the offline journal and reports the ones saved since
+            WriteJournal.getInstance().addReplayListener(
+                    count -> Platform.runLater(() -> showJournalReplayed(count)));
+
+            // Keep a rolling picture of pool and query health for JMX and the diagnostics view
+            HealthMonitor.getInstance().start();
+
             // Handle window close request
             primaryStage.setOnCloseRequest(event -> {
                 try {
+                    HealthMonitor.getInstance().stop();
+                    DbExecutor.getInstance().shutdown();
+                    DatabaseManager.getInstance().closeConnections();
                     System.exit(0);
                 } catch (Exception e) {
                     System.err.println("Error during application shutdown: " + e.getMessage());
@@ -75,6 +96,32 @@ public class FocusBuddyApp extends Application {
         }
     }
 
+    private void showConnectionState(CircuitBreaker.State state) {
+        try {
+            if (state == CircuitBreaker.State.CLOSED) {
+                NotificationManager.getInstance().showNotification("Back online",
+                        "The database connection has been restored.",
+                        NotificationManager.NotificationType.SUCCESS);
+            } else {
+                NotificationManager.getInstance().showNotification("Working offline",
+                        "Cannot reach the database. New tasks, note edits and moods are kept on this device and saved when the connection is back.",
+                        NotificationManager.NotificationType.WARNING);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to show connection state: " + e.getMessage());
+        }
+    }
+
+    private void showJournalReplayed(int count) {
+        try {
+            NotificationManager.getInstance().showNotification("Offline changes saved",
+                    count + " change(s) made while offline are now saved to the database.",
+                    NotificationManager.NotificationType.SUCCESS);
+        } catch (Exception e) {
+            System.err.println("Failed to show journal replay: " + e.getMessage());
+        }
+    }
+
     private void showErrorAndExit(String errorMessage) {
         System.err.println("FATAL ERROR: " + errorMessage);
         System.err.println("The application will now exit.");
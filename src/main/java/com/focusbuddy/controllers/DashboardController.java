@@ -1,10 +1,12 @@
 package com.focusbuddy.controllers;
 
+import com.focusbuddy.database.QueryScope;
 import com.focusbuddy.models.Task;
 import com.focusbuddy.services.ActivityService;
 import com.focusbuddy.models.ActivityItem;
 import com.focusbuddy.services.PomodoroTimer;
 import com.focusbuddy.services.TaskService;
+import com.focusbuddy.services.TaskStats;
 import com.focusbuddy.services.MoodService;
 import com.focusbuddy.services.GoalsService;
 import com.focusbuddy.utils.ThemeManager;
@@ -25,9 +27,10 @@ import javafx.stage.Screen;
 import javafx.util.Duration;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 
 public class DashboardController {
 
@@ -46,6 +49,7 @@ public class DashboardController {
     @FXML private Button notesBtn;
     @FXML private Button goalsBtn;
     @FXML private Button exportBtn;
+    @FXML private Button diagnosticsBtn;
 
     @FXML private Button addNewTaskBtn; // Tambahkan tombol add new task di dashboard
 
@@ -84,6 +88,14 @@ public class DashboardController {
     private Node dashboardContent;
     private ActivityService activityService;
 
+    // Async loads for the dashboard content and for the view currently shown instead of it
+    private QueryScope dashboardScope = new QueryScope("dashboard");
+    private ScopedController currentViewController;
+
+    // The user's tasks as of tasksSyncedAt; each refresh only fetches what changed since
+    private final List<Task> dashboardTasks = new ArrayList<>();
+    private LocalDateTime tasksSyncedAt;
+
     private void setupAddNewTaskButton() {
         if (addNewTaskBtn != null) {
             addNewTaskBtn.setOnAction(e -> {
@@ -276,6 +288,7 @@ public class DashboardController {
             if (notesBtn != null) notesBtn.setOnAction(e -> showNotes());
             if (goalsBtn != null) goalsBtn.setOnAction(e -> showGoals());
             if (exportBtn != null) exportBtn.setOnAction(e -> showExport());
+            if (diagnosticsBtn != null) diagnosticsBtn.setOnAction(e -> showDiagnostics());
 
             // Set initial active button
             setActiveButton(dashboardBtn);
@@ -290,7 +303,7 @@ public class DashboardController {
     }
 
     private void addNavigationAnimations() {
-        Button[] navButtons = {dashboardBtn, tasksBtn, pomodoroBtn, moodBtn, notesBtn, goalsBtn, exportBtn};
+        Button[] navButtons = {dashboardBtn, tasksBtn, pomodoroBtn, moodBtn, notesBtn, goalsBtn, exportBtn, diagnosticsBtn};
 
         for (Button button : navButtons) {
             if (button != null) {
@@ -558,21 +571,25 @@ public class DashboardController {
             int userId = UserSession.getInstance().getCurrentUser().getId();
 
             // Load data asynchronously to avoid blocking UI
-            CompletableFuture.supplyAsync(() -> {
-                try {
-                    return taskService.getTasksForUser(userId);
-                } catch (Exception e) {
-                    System.err.println("Error loading tasks: " + e.getMessage());
-                    return List.<Task>of(); // Return empty list as fallback
-                }
-            }).thenAccept(userTasks -> {
-                Platform.runLater(() -> {
+            QueryScope scope = dashboardScope;
+            taskService.getTaskChangesSinceAsync(scope, userId, tasksSyncedAt).thenAccept(delta -> {
+                Platform.runLater(scope.guard(() -> {
+                    if (delta == null) {
+                        // Behind by more than the deletes are remembered for: start over
+                        dashboardTasks.clear();
+                        tasksSyncedAt = null;
+                        loadRealDashboardData();
+                        return;
+                    }
                     try {
+                        delta.mergeInto(dashboardTasks);
+                        tasksSyncedAt = delta.syncedAt();
+
                         // Update tasks list
-                        updateTasksList(userTasks);
+                        updateTasksList(dashboardTasks);
 
                         // Update all statistics with REAL data
-                        updateRealStatistics(userId, userTasks);
+                        updateRealStatistics(userId);
 
                         // Load recent activity
                         updateRecentActivity(userId);
@@ -582,7 +599,7 @@ public class DashboardController {
                         System.err.println("Error updating dashboard data: " + e.getMessage());
                         clearDashboardStats(); // Fallback to clean state
                     }
-                });
+                }));
             });
         } catch (Exception e) {
             ErrorHandler.handleError("Dashboard Data", "Failed to load dashboard data", e);
@@ -591,28 +608,17 @@ public class DashboardController {
     }
 
     // ✅ UPDATE STATISTICS WITH REAL DATA FROM DATABASE
-    private void updateRealStatistics(int userId, List<Task> userTasks) {
+    private void updateRealStatistics(int userId) {
         try {
-            // Tasks Statistics
-            long completedToday = userTasks.stream()
-                    .filter(task -> task.getStatus() == Task.Status.COMPLETED &&
-                            task.getCreatedAt() != null &&
-                            task.getCreatedAt().toLocalDate().equals(LocalDate.now()))
-                    .count();
-
-            long totalTasks = userTasks.size();
-            double taskProgress = totalTasks > 0 ? (double) completedToday / totalTasks : 0.0;
-
-            if (tasksCompletedLabel != null) {
-                if (completedToday > 0) {
-                    tasksCompletedLabel.setText(completedToday + " completed");
-                } else {
-                    tasksCompletedLabel.setText("No tasks completed");
-                }
-            }
-            if (tasksProgress != null) {
-                tasksProgress.setProgress(taskProgress);
-            }
+            // Tasks Statistics, Productivity Insights and Today's Progress all come from one query
+            QueryScope scope = dashboardScope;
+            taskService.getTaskStatsAsync(scope, userId).thenAccept(stats -> {
+                Platform.runLater(scope.guard(() -> {
+                    updateTaskStatistics(stats);
+                    updateProductivityInsights(stats);
+                    updateTodayProgress(stats);
+                }));
+            });
 
             // Focus Time - Load from database (placeholder for now)
             if (focusTimeLabel != null) {
@@ -628,22 +634,34 @@ public class DashboardController {
             // Mood Average - Load from database
             loadMoodAverage(userId);
 
-            // Productivity Insights
-            updateProductivityInsights(userId, userTasks);
-
-            // Today's Progress
-            updateTodayProgress(userTasks);
-
         } catch (Exception e) {
             System.err.println("Error updating real statistics: " + e.getMessage());
             clearDashboardStats();
         }
     }
 
+    private void updateTaskStatistics(TaskStats stats) {
+        try {
+            if (tasksCompletedLabel != null) {
+                if (stats.todayCompleted() > 0) {
+                    tasksCompletedLabel.setText(stats.todayCompleted() + " completed");
+                } else {
+                    tasksCompletedLabel.setText("No tasks completed");
+                }
+            }
+            if (tasksProgress != null) {
+                tasksProgress.setProgress(stats.total() > 0 ? (double) stats.todayCompleted() / stats.total() : 0.0);
+            }
+        } catch (Exception e) {
+            System.err.println("Error updating task statistics: " + e.getMessage());
+        }
+    }
+
     private void loadGoalsProgress(int userId) {
         try {
             if (goalsService != null) {
-                CompletableFuture.supplyAsync(() -> {
+                QueryScope scope = dashboardScope;
+                scope.supply(() -> {
                     try {
                         int totalGoals = goalsService.getTotalGoalsCount(userId);
                         int completedGoals = goalsService.getCompletedGoalsCount(userId);
@@ -652,7 +670,7 @@ public class DashboardController {
                         return new int[]{0, 0};
                     }
                 }).thenAccept(goalsData -> {
-                    Platform.runLater(() -> {
+                    Platform.runLater(scope.guard(() -> {
                         int totalGoals = goalsData[0];
                         int completedGoals = goalsData[1];
 
@@ -668,7 +686,7 @@ public class DashboardController {
                             double progress = totalGoals > 0 ? (double) completedGoals / totalGoals : 0.0;
                             goalsProgress.setProgress(progress);
                         }
-                    });
+                    }));
                 });
             }
         } catch (Exception e) {
@@ -679,7 +697,8 @@ public class DashboardController {
     private void loadMoodAverage(int userId) {
         try {
             if (moodService != null) {
-                CompletableFuture.supplyAsync(() -> {
+                QueryScope scope = dashboardScope;
+                scope.supply(() -> {
                     try {
                         var recentMoods = moodService.getRecentMoodEntries(userId, 7);
                         if (!recentMoods.isEmpty()) {
@@ -694,7 +713,7 @@ public class DashboardController {
                         return 0.0;
                     }
                 }).thenAccept(average -> {
-                    Platform.runLater(() -> {
+                    Platform.runLater(scope.guard(() -> {
                         if (moodAverageLabel != null) {
                             if (average > 0) {
                                 moodAverageLabel.setText(String.format("%.1f/5", average));
@@ -706,7 +725,7 @@ public class DashboardController {
                         if (moodProgress != null) {
                             moodProgress.setProgress(average / 5.0);
                         }
-                    });
+                    }));
                 });
             }
         } catch (Exception e) {
@@ -714,14 +733,10 @@ public class DashboardController {
         }
     }
 
-    private void updateProductivityInsights(int userId, List<Task> userTasks) {
+    private void updateProductivityInsights(TaskStats stats) {
         try {
             // Streak calculation (simplified)
-            long streak = userTasks.stream()
-                    .filter(task -> task.getStatus() == Task.Status.COMPLETED &&
-                            task.getCreatedAt() != null &&
-                            task.getCreatedAt().toLocalDate().equals(LocalDate.now()))
-                    .count();
+            int streak = stats.todayCompleted();
 
             if (streakLabel != null) {
                 if (streak > 0) {
@@ -732,14 +747,9 @@ public class DashboardController {
             }
 
             // Efficiency (completion rate)
-            long totalTasks = userTasks.size();
-            long completedTasks = userTasks.stream()
-                    .filter(task -> task.getStatus() == Task.Status.COMPLETED)
-                    .count();
-
             if (efficiencyLabel != null) {
-                if (totalTasks > 0) {
-                    double efficiency = (double) completedTasks / totalTasks * 100;
+                if (stats.total() > 0) {
+                    double efficiency = stats.completionRate() * 100;
                     efficiencyLabel.setText(String.format("%.0f%%", efficiency));
                 } else {
                     efficiencyLabel.setText("--");
@@ -751,31 +761,19 @@ public class DashboardController {
         }
     }
 
-    private void updateTodayProgress(List<Task> userTasks) {
+    private void updateTodayProgress(TaskStats stats) {
         try {
             // Today's tasks progress
-            long todayTasks = userTasks.stream()
-                    .filter(task -> task.getCreatedAt() != null &&
-                            task.getCreatedAt().toLocalDate().equals(LocalDate.now()))
-                    .count();
-
-            long todayCompleted = userTasks.stream()
-                    .filter(task -> task.getStatus() == Task.Status.COMPLETED &&
-                            task.getCreatedAt() != null &&
-                            task.getCreatedAt().toLocalDate().equals(LocalDate.now()))
-                    .count();
-
             if (todayProgressLabel != null) {
-                if (todayTasks > 0) {
-                    todayProgressLabel.setText(todayCompleted + "/" + todayTasks);
+                if (stats.today() > 0) {
+                    todayProgressLabel.setText(stats.todayCompleted() + "/" + stats.today());
                 } else {
                     todayProgressLabel.setText("No progress yet");
                 }
             }
 
             if (todayTasksProgress != null) {
-                double progress = todayTasks > 0 ? (double) todayCompleted / todayTasks : 0.0;
-                todayTasksProgress.setProgress(progress);
+                todayTasksProgress.setProgress(stats.todayCompletionRate());
             }
 
             // Today's focus progress (placeholder)
@@ -795,23 +793,17 @@ public class DashboardController {
                 return;
             }
 
-            // Load recent activities asynchronously
-            CompletableFuture.supplyAsync(() -> {
-                try {
-                    return activityService.getRecentActivities(userId, 8); // Get max 8 activities
-                } catch (Exception e) {
-                    System.err.println("Error loading recent activities: " + e.getMessage());
-                    return List.<ActivityItem>of();
-                }
-            }).thenAccept(activities -> {
-                Platform.runLater(() -> {
+            // Load recent activities asynchronously (max 8)
+            QueryScope scope = dashboardScope;
+            activityService.getRecentActivitiesAsync(scope, userId, 8).thenAccept(activities -> {
+                Platform.runLater(scope.guard(() -> {
                     try {
                         displayRecentActivities(activities);
                     } catch (Exception e) {
                         System.err.println("Error displaying recent activities: " + e.getMessage());
                         showEmptyActivity();
                     }
-                });
+                }));
             });
 
         } catch (Exception e) {
@@ -1212,7 +1204,7 @@ public class DashboardController {
             if (activeBtn == null) return;
 
             // Remove active class from all buttons
-            Button[] buttons = {dashboardBtn, tasksBtn, pomodoroBtn, moodBtn, notesBtn, goalsBtn, exportBtn};
+            Button[] buttons = {dashboardBtn, tasksBtn, pomodoroBtn, moodBtn, notesBtn, goalsBtn, exportBtn, diagnosticsBtn};
             for (Button btn : buttons) {
                 if (btn != null) {
                     btn.getStyleClass().remove("active");
@@ -1233,6 +1225,8 @@ public class DashboardController {
                 currentView = "dashboard";
 
                 // Restore original dashboard content
+                closeCurrentView();
+                dashboardScope = new QueryScope("dashboard");
                 contentArea.getChildren().clear();
                 if (dashboardContent != null) {
                     contentArea.getChildren().add(dashboardContent);
@@ -1283,10 +1277,23 @@ public class DashboardController {
         loadView("/fxml/export.fxml");
     }
 
+    private void showDiagnostics() {
+        setActiveButton(diagnosticsBtn);
+        currentView = "diagnostics";
+        loadView("/fxml/diagnostics.fxml");
+    }
+
     private void loadView(String fxmlPath) {
         try {
+            // Stop loads for the view being replaced before the new one starts its own
+            closeCurrentView();
+            dashboardScope.cancel();
+
             FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
             Node view = loader.load();
+            if (loader.getController() instanceof ScopedController controller) {
+                currentViewController = controller;
+            }
 
             // Add loading animation
             view.setOpacity(0);
@@ -1319,6 +1326,16 @@ public class DashboardController {
         }
     }
 
+    /**
+     * Cancel the queries still running for the view in the content area.
+     */
+    private void closeCurrentView() {
+        if (currentViewController != null) {
+            currentViewController.getQueryScope().cancel();
+            currentViewController = null;
+        }
+    }
+
     private void handleLogout() {
         try {
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
@@ -1332,6 +1349,8 @@ public class DashboardController {
                         // Show logout animation
                         showLogoutAnimation();
 
+                        closeCurrentView();
+                        dashboardScope.cancel();
                         UserSession.getInstance().logout();
                         navigateToLogin();
                     } catch (Exception e) {
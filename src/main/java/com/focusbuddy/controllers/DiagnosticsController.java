@@ -0,0 +1,129 @@
+package com.focusbuddy.controllers;
+
+import com.focusbuddy.database.HealthMonitor;
+import com.focusbuddy.database.HealthSample;
+import com.focusbuddy.database.QueryMetrics;
+import com.focusbuddy.database.QueryScope;
+import com.focusbuddy.database.QueryStats;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.fxml.FXML;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TextArea;
+import javafx.util.Duration;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Live view of the {@link HealthMonitor} samples: current pool usage and
+ * query rates plus their recent history. Refreshes itself until the
+ * dashboard replaces the view.
+ */
+public class DiagnosticsController implements ScopedController {
+    // Samples shown in the charts; with the default interval about two minutes
+    private static final int CHART_SAMPLES = 120;
+    private static final int SLOW_QUERIES_SHOWN = 5;
+
+    @FXML private Label breakerLabel;
+    @FXML private Label poolLabel;
+    @FXML private Label waitingLabel;
+    @FXML private Label borrowWaitLabel;
+    @FXML private Label throughputLabel;
+    @FXML private Label errorRateLabel;
+    @FXML private Label failuresLabel;
+    @FXML private ProgressBar utilizationBar;
+    @FXML private LineChart<Number, Number> poolChart;
+    @FXML private LineChart<Number, Number> queryChart;
+    @FXML private TextArea slowQueriesArea;
+
+    private final QueryScope queryScope = new QueryScope("diagnostics view");
+    private final HealthMonitor monitor = HealthMonitor.getInstance();
+    private final XYChart.Series<Number, Number> activeSeries = new XYChart.Series<>();
+    private final XYChart.Series<Number, Number> waitingSeries = new XYChart.Series<>();
+    private final XYChart.Series<Number, Number> queriesSeries = new XYChart.Series<>();
+    private final XYChart.Series<Number, Number> errorsSeries = new XYChart.Series<>();
+    private Timeline refresher;
+
+    @FXML
+    private void initialize() {
+        activeSeries.setName("Active connections");
+        waitingSeries.setName("Waiting threads");
+        queriesSeries.setName("Queries");
+        errorsSeries.setName("Errors");
+        poolChart.getData().add(activeSeries);
+        poolChart.getData().add(waitingSeries);
+        queryChart.getData().add(queriesSeries);
+        queryChart.getData().add(errorsSeries);
+
+        monitor.start(); // already running unless disabled with db.health.enabled
+        refresh();
+        refresher = new Timeline(new KeyFrame(Duration.millis(monitor.getSampleIntervalMs()), e -> refresh()));
+        refresher.setCycleCount(Timeline.INDEFINITE);
+        refresher.play();
+    }
+
+    @Override
+    public QueryScope getQueryScope() {
+        return queryScope;
+    }
+
+    private void refresh() {
+        if (queryScope.isCancelled()) {
+            refresher.stop();
+            return;
+        }
+        try {
+            List<HealthSample> samples = monitor.getSamples();
+            if (samples.isEmpty()) {
+                return;
+            }
+            showLatest(samples.get(samples.size() - 1));
+            showHistory(samples.subList(Math.max(0, samples.size() - CHART_SAMPLES), samples.size()));
+            showSlowQueries();
+        } catch (Exception e) {
+            System.err.println("Error refreshing diagnostics: " + e.getMessage());
+        }
+    }
+
+    private void showLatest(HealthSample sample) {
+        breakerLabel.setText("Connection: " + sample.circuitState());
+        poolLabel.setText(String.format("Pool: %d active / %d max (%d idle)",
+                sample.activeConnections(), sample.maxConnections(), sample.idleConnections()));
+        waitingLabel.setText("Waiting: " + sample.waitingThreads());
+        borrowWaitLabel.setText(String.format("Borrow wait: %.2f ms", sample.borrowWaitMs()));
+        throughputLabel.setText(String.format("Queries: %.1f/s", sample.queriesPerSecond()));
+        errorRateLabel.setText(String.format("Errors: %.1f%%", sample.errorRate() * 100));
+        failuresLabel.setText(String.format("Timeouts: %d, validation failures: %d",
+                sample.borrowTimeouts(), sample.validationFailures()));
+        utilizationBar.setProgress(sample.poolUtilization());
+    }
+
+    private void showHistory(List<HealthSample> samples) {
+        long now = samples.get(samples.size() - 1).timestampMillis();
+        activeSeries.getData().clear();
+        waitingSeries.getData().clear();
+        queriesSeries.getData().clear();
+        errorsSeries.getData().clear();
+        for (HealthSample sample : samples) {
+            double secondsAgo = (sample.timestampMillis() - now) / 1000.0;
+            double seconds = sample.intervalSeconds();
+            activeSeries.getData().add(new XYChart.Data<>(secondsAgo, sample.activeConnections()));
+            waitingSeries.getData().add(new XYChart.Data<>(secondsAgo, sample.waitingThreads()));
+            queriesSeries.getData().add(new XYChart.Data<>(secondsAgo, sample.queriesPerSecond()));
+            errorsSeries.getData().add(new XYChart.Data<>(secondsAgo, seconds > 0 ? sample.queryErrors() / seconds : 0));
+        }
+    }
+
+    private void showSlowQueries() {
+        List<QueryStats> stats = QueryMetrics.getInstance().getStats();
+        String text = stats.stream()
+                .limit(SLOW_QUERIES_SHOWN)
+                .map(QueryStats::toString)
+                .collect(Collectors.joining("\n"));
+        slowQueriesArea.setText(text.isEmpty() ? "No queries recorded yet" : text);
+    }
+}
@@ -1,6 +1,7 @@
 package com.focusbuddy.controllers;
 
 import com.focusbuddy.database.DatabaseManager;
+import com.focusbuddy.database.UnitOfWork;
 import com.focusbuddy.models.Mahasiswa;
 import com.focusbuddy.utils.ThemeManager;
 import com.focusbuddy.utils.UserSession;
@@ -19,10 +20,10 @@ import javafx.geometry.Rectangle2D;
 import javafx.stage.Screen;
 import javafx.util.Duration;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 import com.focusbuddy.utils.PasswordUtils;
 import com.focusbuddy.utils.ValidationUtils;
@@ -314,80 +315,37 @@ public class LoginController {
             return false;
         }
 
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
-            String query = "SELECT * FROM users WHERE username = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, username);
-
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                String storedPassword = rs.getString("password");
-                String salt = rs.getString("salt");
-
-                // For backward compatibility, check if salt exists
-                boolean passwordValid;
-                if (salt != null) {
-                    passwordValid = PasswordUtils.verifyPassword(password, storedPassword, salt);
-                } else {
-                    // Legacy plain text password check
-                    passwordValid = password.equals(storedPassword);
-
-                    // Upgrade to hashed password
-                    if (passwordValid) {
-                        String newSalt = PasswordUtils.generateSalt();
-                        String hashedPassword = PasswordUtils.hashPassword(password, newSalt);
-
-                        String updateQuery = "UPDATE users SET password = ?, salt = ? WHERE id = ?";
-                        PreparedStatement updateStmt = conn.prepareStatement(updateQuery);
-                        updateStmt.setString(1, hashedPassword);
-                        updateStmt.setString(2, newSalt);
-                        updateStmt.setInt(3, rs.getInt("id"));
-                        updateStmt.executeUpdate();
-                    }
-                }
-
-                if (passwordValid) {
-                    // Create user object
-                    Mahasiswa user = new Mahasiswa();
-                    user.setId(rs.getInt("id"));
-                    user.setUsername(rs.getString("username"));
-                    user.setEmail(rs.getString("email"));
-                    user.setFullName(rs.getString("full_name"));
+        try {
+            // Read and, for legacy accounts, re-hash the password in one transaction
+            Mahasiswa user = DatabaseManager.getInstance().inDirectoryTransaction(tx -> authenticate(tx, username, password));
 
-                    // Set current user session
-                    UserSession.getInstance().setCurrentUser(user);
+            if (user != null) {
+                // Set current user session
+                UserSession.getInstance().setCurrentUser(user);
 
-                    // ✅ HAPUS LOGIC PEMBERSIHAN DATA - BIARKAN DATA USER TETAP ADA
-                    // Data user seharusnya tersimpan dan tidak dihapus setiap login
+                // ✅ HAPUS LOGIC PEMBERSIHAN DATA - BIARKAN DATA USER TETAP ADA
+                // Data user seharusnya tersimpan dan tidak dihapus setiap login
 
-                    Platform.runLater(() -> {
-                        String welcomeMessage = "Welcome back, " + user.getFullName() + "! 🎉";
-                        showStatusWithAnimation(welcomeMessage, true);
-
-                        // Show success notification
-                        NotificationManager.getInstance().showNotification(
-                                "Login Successful",
-                                "Welcome to FocusBuddy!",
-                                NotificationManager.NotificationType.SUCCESS
-                        );
-                    });
+                Platform.runLater(() -> {
+                    String welcomeMessage = "Welcome back, " + user.getFullName() + "! 🎉";
+                    showStatusWithAnimation(welcomeMessage, true);
+
+                    // Show success notification
+                    NotificationManager.getInstance().showNotification(
+                            "Login Successful",
+                            "Welcome to FocusBuddy!",
+                            NotificationManager.NotificationType.SUCCESS
+                    );
+                });
 
-                    // Navigate to dashboard with delay for user to see success message
-                    Platform.runLater(() -> {
-                        Timeline delay = new Timeline(new KeyFrame(Duration.seconds(1.5),
-                                e -> navigateToMainDashboard()));
-                        delay.play();
-                    });
+                // Navigate to dashboard with delay for user to see success message
+                Platform.runLater(() -> {
+                    Timeline delay = new Timeline(new KeyFrame(Duration.seconds(1.5),
+                            e -> navigateToMainDashboard()));
+                    delay.play();
+                });
 
-                    return true;
-                } else {
-                    Platform.runLater(() -> {
-                        showStatusWithAnimation("Invalid username or password", false);
-                        shakeForm();
-                    });
-                    return false;
-                }
+                return true;
             } else {
                 Platform.runLater(() -> {
                     showStatusWithAnimation("Invalid username or password", false);
@@ -405,6 +363,59 @@ public class LoginController {
         }
     }
 
+    /**
+     * Check the credentials and load the user.
+     * Legacy plain-text passwords are upgraded to a salted hash in the same transaction.
+     * @return the user, or null if the username or password is wrong
+     */
+    private Mahasiswa authenticate(UnitOfWork tx, String username, String password) throws SQLException {
+        String query = "SELECT * FROM users WHERE username = ?";
+        PreparedStatement stmt = tx.prepare(query);
+        stmt.setString(1, username);
+
+        ResultSet rs = stmt.executeQuery();
+        if (!rs.next()) {
+            return null;
+        }
+
+        int userId = rs.getInt("id");
+        String storedPassword = rs.getString("password");
+        String salt = rs.getString("salt");
+
+        // For backward compatibility, check if salt exists
+        boolean passwordValid;
+        if (salt != null) {
+            passwordValid = PasswordUtils.verifyPassword(password, storedPassword, salt);
+        } else {
+            // Legacy plain text password check
+            passwordValid = password.equals(storedPassword);
+
+            // Upgrade to hashed password (sent with the commit)
+            if (passwordValid) {
+                String newSalt = PasswordUtils.generateSalt();
+                String hashedPassword = PasswordUtils.hashPassword(password, newSalt);
+                String updateQuery = "UPDATE users SET password = ?, salt = ? WHERE id = ?";
+                tx.batch(updateQuery, updateStmt -> {
+                    updateStmt.setString(1, hashedPassword);
+                    updateStmt.setString(2, newSalt);
+                    updateStmt.setInt(3, userId);
+                });
+            }
+        }
+
+        if (!passwordValid) {
+            return null;
+        }
+
+        // Create user object
+        Mahasiswa user = new Mahasiswa();
+        user.setId(userId);
+        user.setUsername(rs.getString("username"));
+        user.setEmail(rs.getString("email"));
+        user.setFullName(rs.getString("full_name"));
+        return user;
+    }
+
     private void showSuccessAnimation() {
         try {
             if (loginContainer != null) {
@@ -618,34 +629,45 @@ public class LoginController {
             Task<Boolean> registrationTask = new Task<Boolean>() {
                 @Override
                 protected Boolean call() throws Exception {
-                    try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+                    // Generate salt and hash password
+                    String salt = PasswordUtils.generateSalt();
+                    String hashedPassword = PasswordUtils.hashPassword(finalPassword, salt);
+
+                    // The users row and its shard placement commit together
+                    boolean created = DatabaseManager.getInstance().inDirectoryTransaction(tx -> {
                         // Check if username already exists
-                        String checkQuery = "SELECT COUNT(*) FROM users WHERE username = ?";
-                        PreparedStatement checkStmt = conn.prepareStatement(checkQuery);
+                        PreparedStatement checkStmt = tx.prepare("SELECT COUNT(*) FROM users WHERE username = ?");
                         checkStmt.setString(1, finalUsername);
                         ResultSet checkRs = checkStmt.executeQuery();
-
                         if (checkRs.next() && checkRs.getInt(1) > 0) {
-                            Platform.runLater(() ->
-                                    showStatusWithAnimation("Username already exists. Please choose a different username.", false));
                             return false;
                         }
 
-                        // Generate salt and hash password
-                        String salt = PasswordUtils.generateSalt();
-                        String hashedPassword = PasswordUtils.hashPassword(finalPassword, salt);
-
                         String query = "INSERT INTO users (username, password, salt, email, full_name) VALUES (?, ?, ?, ?, ?)";
-                        PreparedStatement stmt = conn.prepareStatement(query);
+                        PreparedStatement stmt = tx.getConnection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
                         stmt.setString(1, finalUsername);
                         stmt.setString(2, hashedPassword);
                         stmt.setString(3, salt);
                         stmt.setString(4, finalEmail);
                         stmt.setString(5, finalFullName);
 
-                        int result = stmt.executeUpdate();
-                        return result > 0;
+                        if (stmt.executeUpdate() == 0) {
+                            return false;
+                        }
+                        // Pick the shard that will hold the new user's data
+                        try (ResultSet keys = stmt.getGeneratedKeys()) {
+                            if (keys.next()) {
+                                DatabaseManager.getInstance().getShardRouter().assignNewUser(tx, keys.getInt(1), finalUsername);
+                            }
+                        }
+                        return true;
+                    });
+
+                    if (!created) {
+                        Platform.runLater(() ->
+                                showStatusWithAnimation("Username already exists. Please choose a different username.", false));
                     }
+                    return created;
                 }
 
                 @Override
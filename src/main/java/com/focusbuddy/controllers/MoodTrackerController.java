@@ -1,9 +1,11 @@
 package com.focusbuddy.controllers;
 
+import com.focusbuddy.database.DbExecutor;
 import com.focusbuddy.models.MoodEntry;
 import com.focusbuddy.services.MoodService;
 import com.focusbuddy.utils.NotificationManager;
 import com.focusbuddy.utils.UserSession;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.XYChart;
@@ -80,23 +82,27 @@ public class MoodTrackerController {
             description
         );
         
-        if (moodService.saveMoodEntry(entry)) {
-            NotificationManager.getInstance().showNotification(
-                "Mood Saved", 
-                "Your mood has been recorded successfully!", 
-                NotificationManager.NotificationType.SUCCESS
-            );
-            
-            moodDescription.clear();
-            loadMoodData();
-            loadMoodChart();
-        } else {
-            NotificationManager.getInstance().showNotification(
-                "Error", 
-                "Failed to save mood entry", 
-                NotificationManager.NotificationType.ERROR
-            );
-        }
+        // Save in background so the UI never waits on the database
+        DbExecutor.getInstance().supply(() -> moodService.saveMoodEntry(entry))
+                .thenAccept(success -> Platform.runLater(() -> {
+            if (success) {
+                NotificationManager.getInstance().showNotification(
+                    "Mood Saved", 
+                    "Your mood has been recorded successfully!", 
+                    NotificationManager.NotificationType.SUCCESS
+                );
+                
+                moodDescription.clear();
+                loadMoodData();
+                loadMoodChart();
+            } else {
+                NotificationManager.getInstance().showNotification(
+                    "Error", 
+                    "Failed to save mood entry", 
+                    NotificationManager.NotificationType.ERROR
+                );
+            }
+        }));
     }
 
     // ✅ UBAH NAMA dari clearMoodStats() ke showEmptyState()
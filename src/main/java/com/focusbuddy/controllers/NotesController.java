@@ -1,8 +1,11 @@
 package com.focusbuddy.controllers;
 
+import com.focusbuddy.database.DbExecutor;
+import com.focusbuddy.database.QueryScope;
 import com.focusbuddy.models.Note;
 import com.focusbuddy.models.notes.*;
 import com.focusbuddy.services.NotesService;
+import com.focusbuddy.services.PageCursor;
 import com.focusbuddy.utils.NotificationManager;
 import com.focusbuddy.utils.UserSession;
 import com.focusbuddy.utils.ErrorHandler;
@@ -24,10 +27,9 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
-public class NotesController {
+public class NotesController implements ScopedController {
 
     @FXML private VBox notesContainer;
     @FXML private ListView<Note> notesList;
@@ -47,7 +49,16 @@ public class NotesController {
     @FXML private Button exportButton;
     @FXML private Button importButton;
 
+    // Notes are loaded a page at a time as the list is scrolled
+    private static final int PAGE_SIZE = 30;
+    private static final int PREFETCH_ROWS = 5;
+
     private NotesService notesService;
+    private final QueryScope queryScope = new QueryScope("notes view");
+    private PageCursor nextPage;     // null once every page is loaded, or while showing search results
+    private boolean loadingPage;
+    private int loadGeneration;      // pages from before a reload or search are dropped
+    private boolean restoringSelection; // re-selecting after the list is rebuilt
     private Note currentNote;
     private Timeline autoSaveTimeline;
     private Timeline wordCountTimeline;
@@ -79,6 +90,11 @@ public class NotesController {
         }
     }
 
+    @Override
+    public QueryScope getQueryScope() {
+        return queryScope;
+    }
+
     private void setupComboBoxes() {
         try {
             // Setup sort combo
@@ -120,35 +136,7 @@ public class NotesController {
             if (sortCombo != null && notesList != null) {
                 String sortBy = sortCombo.getValue();
                 List<Note> notes = new ArrayList<>(notesList.getItems());
-
-                switch (sortBy) {
-                    case "Recent":
-                        notes.sort((a, b) -> {
-                            LocalDateTime aTime = a.getUpdatedAt() != null ? a.getUpdatedAt() : a.getCreatedAt();
-                            LocalDateTime bTime = b.getUpdatedAt() != null ? b.getUpdatedAt() : b.getCreatedAt();
-                            return bTime != null && aTime != null ? bTime.compareTo(aTime) : 0;
-                        });
-                        break;
-                    case "Alphabetical":
-                        notes.sort((a, b) -> a.getTitle().compareToIgnoreCase(b.getTitle()));
-                        break;
-                    case "Created Date":
-                        notes.sort((a, b) -> {
-                            if (a.getCreatedAt() != null && b.getCreatedAt() != null) {
-                                return b.getCreatedAt().compareTo(a.getCreatedAt());
-                            }
-                            return 0;
-                        });
-                        break;
-                    case "Modified Date":
-                        notes.sort((a, b) -> {
-                            LocalDateTime aTime = a.getUpdatedAt() != null ? a.getUpdatedAt() : a.getCreatedAt();
-                            LocalDateTime bTime = b.getUpdatedAt() != null ? b.getUpdatedAt() : b.getCreatedAt();
-                            return bTime != null && aTime != null ? bTime.compareTo(aTime) : 0;
-                        });
-                        break;
-                }
-
+                sortLoadedNotes(notes, sortBy);
                 notesList.getItems().setAll(notes);
 
                 // Show feedback
@@ -163,6 +151,39 @@ public class NotesController {
         }
     }
 
+    private void sortLoadedNotes(List<Note> notes, String sortBy) {
+        if (sortBy == null) {
+            return;
+        }
+        switch (sortBy) {
+            case "Recent":
+                notes.sort((a, b) -> {
+                    LocalDateTime aTime = a.getUpdatedAt() != null ? a.getUpdatedAt() : a.getCreatedAt();
+                    LocalDateTime bTime = b.getUpdatedAt() != null ? b.getUpdatedAt() : b.getCreatedAt();
+                    return bTime != null && aTime != null ? bTime.compareTo(aTime) : 0;
+                });
+                break;
+            case "Alphabetical":
+                notes.sort((a, b) -> a.getTitle().compareToIgnoreCase(b.getTitle()));
+                break;
+            case "Created Date":
+                notes.sort((a, b) -> {
+                    if (a.getCreatedAt() != null && b.getCreatedAt() != null) {
+                        return b.getCreatedAt().compareTo(a.getCreatedAt());
+                    }
+                    return 0;
+                });
+                break;
+            case "Modified Date":
+                notes.sort((a, b) -> {
+                    LocalDateTime aTime = a.getUpdatedAt() != null ? a.getUpdatedAt() : a.getCreatedAt();
+                    LocalDateTime bTime = b.getUpdatedAt() != null ? b.getUpdatedAt() : b.getCreatedAt();
+                    return bTime != null && aTime != null ? bTime.compareTo(aTime) : 0;
+                });
+                break;
+        }
+    }
+
     private void setupNotesList() {
         try {
             notesList.setCellFactory(listView -> new ListCell<Note>() {
@@ -177,6 +198,11 @@ public class NotesController {
                         setGraphic(createNoteListItem(note));
                         setStyle(getNoteItemStyle(note));
 
+                        // Fetch the next page before the user reaches the end of the list
+                        if (getIndex() >= getListView().getItems().size() - PREFETCH_ROWS) {
+                            loadNextNotesPage();
+                        }
+
                         // Add hover effect
                         setOnMouseEntered(e -> {
                             if (!isEmpty()) {
@@ -200,7 +226,7 @@ public class NotesController {
             });
 
             notesList.getSelectionModel().selectedItemProperty().addListener((obs, oldNote, newNote) -> {
-                if (newNote != null) {
+                if (newNote != null && !restoringSelection) {
                     // Check for unsaved changes before switching
                     if (hasUnsavedChanges) {
                         showUnsavedChangesDialog(() -> loadNoteContent(newNote));
@@ -609,21 +635,24 @@ public class NotesController {
         }
 
         try {
-            CompletableFuture.supplyAsync(() -> {
-                try {
-                    int userId = UserSession.getInstance().getCurrentUser().getId();
-                    return notesService.getNotesForUser(userId);
-                } catch (Exception e) {
-                    System.err.println("Error loading notes: " + e.getMessage());
-                    return List.<Note>of();
-                }
-            }).thenAccept(notes -> {
-                Platform.runLater(() -> {
+            int userId = UserSession.getInstance().getCurrentUser().getId();
+            int generation = ++loadGeneration;
+            loadingPage = true;
+            notesService.getNotesPageAsync(queryScope, userId, null, PAGE_SIZE).thenAccept(page -> {
+                Platform.runLater(queryScope.guard(() -> {
+                    if (generation != loadGeneration) {
+                        return;
+                    }
                     try {
+                        loadingPage = false;
+                        nextPage = page.next();
                         if (notesList != null) {
-                            if (!notes.isEmpty()) {
+                            if (!page.items().isEmpty()) {
+                                List<Note> notes = new ArrayList<>(page.items());
+                                sortLoadedNotes(notes, sortCombo != null ? sortCombo.getValue() : null);
                                 notesList.getItems().setAll(notes);
-                                System.out.println("✅ Notes loaded successfully: " + notes.size() + " notes");
+                                System.out.println("✅ Notes loaded successfully: " + notes.size() + " notes"
+                                        + (page.hasMore() ? " (more on scroll)" : ""));
                             } else {
                                 // ✅ TAMBAH: Show empty state untuk user baru
                                 showEmptyState();
@@ -633,14 +662,45 @@ public class NotesController {
                         ErrorHandler.handleError("Notes Loading", "Failed to display loaded notes", e);
                         showEmptyState(); // ✅ TAMBAH
                     }
-                });
+                }));
             });
         } catch (Exception e) {
+            loadingPage = false;
             ErrorHandler.handleError("Notes Loading", "Failed to load notes", e);
             showEmptyState(); // ✅ TAMBAH
         }
     }
 
+    private void loadNextNotesPage() {
+        if (loadingPage || nextPage == null || notesList == null) {
+            return;
+        }
+
+        int userId = UserSession.getInstance().getCurrentUser().getId();
+        int generation = loadGeneration;
+        loadingPage = true;
+        notesService.getNotesPageAsync(queryScope, userId, nextPage, PAGE_SIZE).thenAccept(page -> {
+            Platform.runLater(queryScope.guard(() -> {
+                if (generation != loadGeneration) {
+                    return;
+                }
+                loadingPage = false;
+                nextPage = page.next();
+
+                Note selected = notesList.getSelectionModel().getSelectedItem();
+                List<Note> notes = new ArrayList<>(notesList.getItems());
+                notes.addAll(page.items());
+                sortLoadedNotes(notes, sortCombo != null ? sortCombo.getValue() : null);
+                notesList.getItems().setAll(notes);
+                if (selected != null) {
+                    restoringSelection = true;
+                    notesList.getSelectionModel().select(selected);
+                    restoringSelection = false;
+                }
+            }));
+        });
+    }
+
     private void loadNoteContent(Note note) {
         try {
             currentNote = note;
@@ -758,7 +818,7 @@ public class NotesController {
             currentNote.setCategory(category);
 
             // Save in background
-            CompletableFuture.supplyAsync(() -> {
+            DbExecutor.getInstance().supply(() -> {
                 if (currentNote.getId() == 0) {
                     return notesService.createNote(currentNote);
                 } else {
@@ -806,7 +866,7 @@ public class NotesController {
                 currentNote.setCategory(category);
 
                 // Save silently in background
-                CompletableFuture.runAsync(() -> {
+                DbExecutor.getInstance().run(() -> {
                     if (currentNote.getId() == 0) {
                         notesService.createNote(currentNote);
                     } else {
@@ -851,7 +911,7 @@ public class NotesController {
             Note noteToDelete = currentNote;
 
             // Delete in background
-            CompletableFuture.supplyAsync(() -> notesService.deleteNote(noteToDelete.getId()))
+            DbExecutor.getInstance().supply(() -> notesService.deleteNote(noteToDelete.getId()))
                     .thenAccept(success -> Platform.runLater(() -> {
                         if (success) {
                             NotificationManager.getInstance().showNotification(
@@ -886,21 +946,19 @@ public class NotesController {
                 return;
             }
 
+            // Search results are complete, so stop paging the full listing
+            loadGeneration++;
+            loadingPage = false;
+            nextPage = null;
+
             // Search in background
-            CompletableFuture.supplyAsync(() -> {
-                try {
-                    int userId = UserSession.getInstance().getCurrentUser().getId();
-                    return notesService.searchNotes(userId, searchText);
-                } catch (Exception e) {
-                    System.err.println("Error searching notes: " + e.getMessage());
-                    return List.<Note>of();
-                }
-            }).thenAccept(searchResults -> {
-                Platform.runLater(() -> {
+            int userId = UserSession.getInstance().getCurrentUser().getId();
+            notesService.searchNotesAsync(queryScope, userId, searchText).thenAccept(searchResults -> {
+                Platform.runLater(queryScope.guard(() -> {
                     if (notesList != null) {
                         notesList.getItems().setAll(searchResults);
                     }
-                });
+                }));
             });
 
         } catch (Exception e) {
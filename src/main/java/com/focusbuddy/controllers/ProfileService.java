@@ -1,7 +1,9 @@
 // =============== ProfileService.java ===============
 package com.focusbuddy.services;
 
+import com.focusbuddy.database.AccessMode;
 import com.focusbuddy.database.DatabaseManager;
+import com.focusbuddy.database.PartitionMaintenance;
 import com.focusbuddy.models.Mahasiswa;
 import com.focusbuddy.utils.PasswordUtils;
 
@@ -13,6 +15,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 public class ProfileService {
 
@@ -31,7 +35,8 @@ public class ProfileService {
     }
 
     public ProfileData getProfileData(int userId) {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        // Users and profiles live on the primary database, not on the user's shard
+        try (Connection conn = DatabaseManager.getInstance().getDirectoryConnection()) {
             String query = """
                 SELECT u.*, p.student_id, p.major, p.bio, p.profile_image_path 
                 FROM users u 
@@ -61,37 +66,36 @@ public class ProfileService {
     }
 
     public boolean updateProfile(Mahasiswa user, String bio) {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
-            conn.setAutoCommit(false);
-
-            // Update users table
-            String updateUserQuery = "UPDATE users SET full_name = ?, email = ? WHERE id = ?";
-            PreparedStatement userStmt = conn.prepareStatement(updateUserQuery);
-            userStmt.setString(1, user.getFullName());
-            userStmt.setString(2, user.getEmail());
-            userStmt.setInt(3, user.getId());
-            userStmt.executeUpdate();
-
-            // Update or insert profile data
-            String upsertProfileQuery = """
-                INSERT INTO user_profiles (user_id, student_id, major, bio, updated_at) 
-                VALUES (?, ?, ?, ?, ?) 
-                ON DUPLICATE KEY UPDATE 
-                student_id = VALUES(student_id), 
-                major = VALUES(major), 
-                bio = VALUES(bio), 
-                updated_at = VALUES(updated_at)
-                """;
-
-            PreparedStatement profileStmt = conn.prepareStatement(upsertProfileQuery);
-            profileStmt.setInt(1, user.getId());
-            profileStmt.setString(2, user.getStudentId());
-            profileStmt.setString(3, user.getMajor());
-            profileStmt.setString(4, bio);
-            profileStmt.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
-            profileStmt.executeUpdate();
-
-            conn.commit();
+        try {
+            // Both writes are sent together and committed once
+            DatabaseManager.getInstance().inDirectoryTransaction(tx -> {
+                // Update users table
+                String updateUserQuery = "UPDATE users SET full_name = ?, email = ? WHERE id = ?";
+                tx.batch(updateUserQuery, userStmt -> {
+                    userStmt.setString(1, user.getFullName());
+                    userStmt.setString(2, user.getEmail());
+                    userStmt.setInt(3, user.getId());
+                });
+
+                // Update or insert profile data
+                String upsertProfileQuery = """
+                    INSERT INTO user_profiles (user_id, student_id, major, bio, updated_at) 
+                    VALUES (?, ?, ?, ?, ?) 
+                    ON DUPLICATE KEY UPDATE 
+                    student_id = VALUES(student_id), 
+                    major = VALUES(major), 
+                    bio = VALUES(bio), 
+                    updated_at = VALUES(updated_at)
+                    """;
+                tx.batch(upsertProfileQuery, profileStmt -> {
+                    profileStmt.setInt(1, user.getId());
+                    profileStmt.setString(2, user.getStudentId());
+                    profileStmt.setString(3, user.getMajor());
+                    profileStmt.setString(4, bio);
+                    profileStmt.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+                });
+                return null;
+            });
             return true;
 
         } catch (SQLException e) {
@@ -123,7 +127,7 @@ public class ProfileService {
     }
 
     private void updateProfileImagePath(int userId, String imagePath) throws SQLException {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try (Connection conn = DatabaseManager.getInstance().getDirectoryConnection()) {
             String query = """
                 INSERT INTO user_profiles (user_id, profile_image_path, updated_at) 
                 VALUES (?, ?, ?) 
@@ -148,7 +152,7 @@ public class ProfileService {
     public ProfileStatistics getProfileStatistics(int userId) {
         ProfileStatistics stats = new ProfileStatistics();
 
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try (Connection conn = DatabaseManager.getInstance().getConnection(AccessMode.READ_ONLY)) {
             // Get completed tasks count
             String tasksQuery = "SELECT COUNT(*) FROM tasks WHERE user_id = ? AND status = 'COMPLETED'";
             PreparedStatement tasksStmt = conn.prepareStatement(tasksQuery);
@@ -194,7 +198,7 @@ public class ProfileService {
     }
 
     public boolean changePassword(int userId, String currentPassword, String newPassword) {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try (Connection conn = DatabaseManager.getInstance().getDirectoryConnection()) {
             // Verify current password
             String getPasswordQuery = "SELECT password, salt FROM users WHERE id = ?";
             PreparedStatement getStmt = conn.prepareStatement(getPasswordQuery);
@@ -237,7 +241,7 @@ public class ProfileService {
     }
 
     public boolean deleteAccount(int userId, String password) {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try (Connection conn = DatabaseManager.getInstance().getDirectoryConnection()) {
             // First verify password
             String getPasswordQuery = "SELECT password, salt FROM users WHERE id = ?";
             PreparedStatement getStmt = conn.prepareStatement(getPasswordQuery);
@@ -256,7 +260,16 @@ public class ProfileService {
                 }
 
                 if (passwordValid) {
-                    // Delete user (cascade will handle related data)
+                    // Data on another shard first, then the user (cascade will handle related data)
+                    DatabaseManager.getInstance().getShardRouter().removeUser(userId);
+                    // Partitioned tables and their archives have no foreign keys on MySQL, so no cascade for rows on primary
+                    List<String> tables = new ArrayList<>(List.of("mood_entries", "focus_sessions"));
+                    tables.addAll(PartitionMaintenance.archiveTables(conn));
+                    for (String table : tables) {
+                        PreparedStatement cleanup = conn.prepareStatement("DELETE FROM " + table + " WHERE user_id = ?");
+                        cleanup.setInt(1, userId);
+                        cleanup.executeUpdate();
+                    }
                     String deleteQuery = "DELETE FROM users WHERE id = ?";
                     PreparedStatement deleteStmt = conn.prepareStatement(deleteQuery);
                     deleteStmt.setInt(1, userId);
@@ -0,0 +1,13 @@
+package com.focusbuddy.controllers;
+
+import com.focusbuddy.database.QueryScope;
+
+/**
+ * A controller for a view shown in the dashboard content area that loads
+ * data asynchronously. The dashboard cancels the controller's scope when the
+ * view is replaced, so its in-flight queries stop and their results are dropped.
+ */
+public interface ScopedController {
+
+    QueryScope getQueryScope();
+}
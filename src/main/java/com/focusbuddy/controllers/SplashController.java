@@ -1,10 +1,13 @@
 package com.focusbuddy.controllers;
 
 import com.focusbuddy.database.DatabaseManager;
+import com.focusbuddy.database.DbExecutor;
+import com.focusbuddy.database.PartitionMaintenance;
+import com.focusbuddy.database.WriteJournal;
+import com.focusbuddy.utils.ConfigManager;
 import com.focusbuddy.utils.ThemeManager;
 import javafx.animation.*;
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -12,11 +15,19 @@ import javafx.scene.control.Label;
 import javafx.scene.layout.StackPane;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Rectangle;
+import javafx.scene.web.WebView;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import javafx.geometry.Rectangle2D;
 import javafx.stage.Screen;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
 public class SplashController {
 
     @FXML private StackPane splashContainer;
@@ -35,6 +46,12 @@ public class SplashController {
     private Timeline dotsAnimation;
     private Timeline progressAnimation;
 
+    // Startup progress, only touched on the FX thread
+    private long startedAt;
+    private double completedWeight;
+    private int failedSteps;
+    private Scene preparedLoginScene;
+
     @FXML
     private void initialize() {
         setupAnimations();
@@ -94,88 +111,156 @@ public class SplashController {
         return timeline;
     }
 
+    /**
+     * Run the startup work in parallel and move the progress bar as each piece
+     * finishes. Database and FXML work runs on virtual threads; building the
+     * login scene and the WebView must happen on the FX thread.
+     */
     private void startLoadingProcess() {
-        Task<Void> loadingTask = new Task<Void>() {
-            @Override
-            protected Void call() throws Exception {
-                // Step 1: Initialize Database
-                updateProgress(0.1, 1.0);
-                Platform.runLater(() -> loadingText.setText("Connecting to database..."));
-                Thread.sleep(800);
-
-                try {
-                    DatabaseManager.getInstance().initializeDatabase();
-                    updateProgress(0.3, 1.0);
-                    Platform.runLater(() -> loadingText.setText("Database connected ✓"));
-                } catch (Exception e) {
-                    Platform.runLater(() -> loadingText.setText("Database connection failed"));
-                    Thread.sleep(1000);
-                }
-                Thread.sleep(500);
-
-                // Step 2: Load Configuration
-                updateProgress(0.5, 1.0);
-                Platform.runLater(() -> loadingText.setText("Loading configuration..."));
-                Thread.sleep(600);
-
-                // Step 3: Initialize Services
-                updateProgress(0.7, 1.0);
-                Platform.runLater(() -> loadingText.setText("Starting services..."));
-                Thread.sleep(700);
-
-                // Step 4: Preparing UI
-                updateProgress(0.9, 1.0);
-                Platform.runLater(() -> loadingText.setText("Preparing interface..."));
-                Thread.sleep(500);
-
-                // Step 5: Complete
-                updateProgress(1.0, 1.0);
-                Platform.runLater(() -> loadingText.setText("Ready to focus! 🚀"));
-                Thread.sleep(800);
-
-                return null;
-            }
+        loadingText.setText("Starting up...");
+        startedAt = System.nanoTime();
+
+        ExecutorService startup = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("focusbuddy-startup-", 0).factory());
+        DatabaseManager database = DatabaseManager.getInstance();
+
+        CompletableFuture<?>[] steps = {
+                step("Configuration loaded", 0.10,
+                        CompletableFuture.runAsync(this::loadConfiguration, startup)),
+                step("Database connected", 0.25,
+                        CompletableFuture.supplyAsync(database::warmUpPool, startup)
+                                .thenAccept(orFail("no connection could be opened"))),
+                step("Database schema checked", 0.25,
+                        CompletableFuture.supplyAsync(database::initializeDatabase, startup)
+                                .thenAccept(orFail("schema could not be checked"))
+                                .thenRun(() -> WriteJournal.getInstance().startReplayer())
+                                .thenRun(() -> PartitionMaintenance.getInstance().start())),
+                step("Dashboard prepared", 0.10,
+                        CompletableFuture.runAsync(() -> preloadView("/fxml/dashboard.fxml"), startup)),
+                step("Login screen ready", 0.20, onFxThread(this::prepareLoginScene)),
+                step("Editor ready", 0.10, onFxThread(this::warmUpWebEngine))
+        };
 
-            @Override
-            protected void succeeded() {
-                Platform.runLater(() -> {
-                    // Smooth transition to login
-                    FadeTransition fadeOut = new FadeTransition(Duration.seconds(0.5), splashContainer);
-                    fadeOut.setFromValue(1.0);
-                    fadeOut.setToValue(0.0);
-                    fadeOut.setOnFinished(e -> showLoginScreen());
-                    fadeOut.play();
-                });
+        CompletableFuture.allOf(steps).whenComplete((ignored, error) -> {
+            startup.shutdown();
+            Platform.runLater(this::finishLoading);
+        });
+    }
+
+    /**
+     * Report a step on the splash once its work completes. Failures are shown
+     * but never stop startup: the app can still open without a database.
+     */
+    private CompletableFuture<Void> step(String label, double weight, CompletableFuture<?> work) {
+        long stepStartedAt = System.nanoTime();
+        return work.handle((result, error) -> {
+            long elapsedMs = (System.nanoTime() - stepStartedAt) / 1_000_000;
+            if (error != null) {
+                System.err.println("⚠️ Startup step failed (" + label + ", " + elapsedMs + " ms): "
+                        + (error.getCause() != null ? error.getCause().getMessage() : error.getMessage()));
+            } else {
+                System.out.println("✅ " + label + " in " + elapsedMs + " ms");
             }
+            Platform.runLater(() -> advanceProgress(label, weight, error == null));
+            return null;
+        });
+    }
 
-            @Override
-            protected void failed() {
-                Platform.runLater(() -> {
-                    loadingText.setText("Loading failed. Please restart the application.");
-                    loadingText.setStyle("-fx-text-fill: #ff6b6b;");
-                });
+    private static Consumer<Boolean> orFail(String message) {
+        return succeeded -> {
+            if (!succeeded) {
+                throw new IllegalStateException(message);
             }
         };
+    }
 
-        // Bind progress bar to task progress
-        progressAnimation = new Timeline();
-        loadingTask.progressProperty().addListener((obs, oldProgress, newProgress) -> {
-            Platform.runLater(() -> {
-                double targetWidth = 300.0 * newProgress.doubleValue();
-
-                // Smooth progress bar animation
-                Timeline progressTimeline = new Timeline(
-                        new KeyFrame(Duration.seconds(0.3),
-                                new KeyValue(progressBar.widthProperty(), targetWidth, Interpolator.EASE_OUT)
-                        )
-                );
-                progressTimeline.play();
-            });
+    private CompletableFuture<Void> onFxThread(Runnable work) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                work.run();
+                done.complete(null);
+            } catch (Exception e) {
+                done.completeExceptionally(e);
+            }
         });
+        return done;
+    }
+
+    private void advanceProgress(String label, double weight, boolean succeeded) {
+        completedWeight = Math.min(1.0, completedWeight + weight);
+        if (!succeeded) {
+            failedSteps++;
+        }
+        loadingText.setText(label + (succeeded ? " ✓" : " ✗"));
+
+        if (progressAnimation != null) {
+            progressAnimation.stop();
+        }
+        progressAnimation = new Timeline(
+                new KeyFrame(Duration.seconds(0.3),
+                        new KeyValue(progressBar.widthProperty(), 300.0 * completedWeight, Interpolator.EASE_OUT)
+                )
+        );
+        progressAnimation.play();
+    }
+
+    private void finishLoading() {
+        System.out.println("✅ Startup finished in " + (System.nanoTime() - startedAt) / 1_000_000 + " ms");
+        if (DatabaseManager.getInstance().isOnline() && failedSteps == 0) {
+            loadingText.setText("Ready to focus! 🚀");
+        } else {
+            loadingText.setText(DatabaseManager.getInstance().isOnline()
+                    ? "Ready, with some features unavailable" : "Database unavailable, starting offline");
+        }
+
+        // Smooth transition to login
+        FadeTransition fadeOut = new FadeTransition(Duration.seconds(0.5), splashContainer);
+        fadeOut.setFromValue(1.0);
+        fadeOut.setToValue(0.0);
+        fadeOut.setOnFinished(e -> showLoginScreen());
+        fadeOut.play();
+    }
+
+    private void loadConfiguration() {
+        ConfigManager.getInstance();
+        ThemeManager.getInstance();
+        DbExecutor.getInstance();
+    }
+
+    /**
+     * Load a view once so its classes, FXML and controller are ready when the
+     * user opens it. The result is discarded.
+     */
+    private void preloadView(String fxmlPath) {
+        try {
+            new FXMLLoader(getClass().getResource(fxmlPath)).load();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        Thread loadingThread = new Thread(loadingTask);
-        loadingThread.setDaemon(true);
-        loadingThread.start();
+    /**
+     * Build the login scene with the theme applied and CSS resolved, so
+     * showLoginScreen() only has to swap it in.
+     */
+    private void prepareLoginScene() {
+        try {
+            Scene scene = new Scene(new FXMLLoader(getClass().getResource("/fxml/login.fxml")).load());
+            ThemeManager.getInstance().applyTheme(scene, ThemeManager.getInstance().getCurrentTheme());
+            scene.getRoot().applyCss();
+            preparedLoginScene = scene;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The first WebView loads the WebKit engine, which otherwise stalls the
+     * first visit to the notes editor (HTMLEditor).
+     */
+    private void warmUpWebEngine() {
+        new WebView().getEngine().loadContent("");
     }
 
     private void showLoginScreen() {
@@ -188,18 +273,16 @@ public class SplashController {
             // Get current stage (reuse the same stage - no style conflicts now)
             Stage currentStage = (Stage) splashContainer.getScene().getWindow();
 
-            // Load login screen
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/login.fxml"));
+            // Use the scene built during startup, or build it now if that failed
+            if (preparedLoginScene == null) {
+                prepareLoginScene();
+            }
+            Scene loginScene = preparedLoginScene;
+            preparedLoginScene = null;
 
             // Get screen dimensions for responsive design
             Rectangle2D screenBounds = Screen.getPrimary().getVisualBounds();
 
-            // Create login scene
-            Scene loginScene = new Scene(loader.load());
-
-            // Apply theme
-            ThemeManager.getInstance().applyTheme(loginScene, ThemeManager.getInstance().getCurrentTheme());
-
             // Configure current stage for login (NO style changes needed)
             currentStage.setScene(loginScene);
             currentStage.setTitle("FocusBuddy - Login");
@@ -1,6 +1,11 @@
 package com.focusbuddy.controllers;
 
+import com.focusbuddy.database.DbExecutor;
+import com.focusbuddy.database.QueryScope;
+import com.focusbuddy.database.WriteJournal;
+import com.focusbuddy.database.WriteResult;
 import com.focusbuddy.models.Task;
+import com.focusbuddy.services.PageCursor;
 import com.focusbuddy.services.TaskService;
 import com.focusbuddy.utils.NotificationManager;
 import com.focusbuddy.utils.UserSession;
@@ -20,12 +25,15 @@ import javafx.application.Platform;
 import javafx.util.Duration;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
-import java.util.concurrent.CompletableFuture;
 
-public class TasksController {
+public class TasksController implements ScopedController {
 
     @FXML private VBox tasksContainer;
     @FXML private ListView<Task> tasksList;
@@ -51,9 +59,22 @@ public class TasksController {
     @FXML private Label completedTasksLabel;
     @FXML private Label overdueTasksLabel;
 
+    // Tasks are loaded a page at a time as the list is scrolled
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_ROWS = 10;
+
     private TaskService taskService;
+    private final QueryScope queryScope = new QueryScope("tasks view");
     private Task currentTask;
     private ObservableList<Task> allTasks;
+    private PageCursor nextPage;     // null once every page is loaded
+    private boolean loadingPage;
+    private int loadGeneration;      // pages from before a reload are dropped
+    private LocalDateTime syncedAt;  // allTasks holds every change up to here
+    // Created offline and waiting in the write journal; shown with id 0 until replayed
+    private final List<Task> queuedTasks = new ArrayList<>();
+    private final IntConsumer replayListener = applied -> Platform.runLater(this::onJournalReplayed);
+    private boolean restoringSelection; // re-selecting after the list is rebuilt
     private Timeline autoSaveTimeline;
 
     @FXML
@@ -71,7 +92,7 @@ public class TasksController {
 
             // ✅ UBAH: Jangan clear, load data real
             loadTasksSafely();
-            updateStatistics();
+            WriteJournal.getInstance().addReplayListener(replayListener);
 
             addEntranceAnimation();
 
@@ -82,6 +103,11 @@ public class TasksController {
         }
     }
 
+    @Override
+    public QueryScope getQueryScope() {
+        return queryScope;
+    }
+
     private void setupTasksList() {
         try {
             tasksList.setCellFactory(listView -> new ListCell<Task>() {
@@ -96,6 +122,11 @@ public class TasksController {
                         setGraphic(createTaskListItem(task));
                         setStyle(getTaskItemStyle(task));
 
+                        // Fetch the next page before the user reaches the end of the list
+                        if (getIndex() >= getListView().getItems().size() - PREFETCH_ROWS) {
+                            loadNextTasksPage();
+                        }
+
                         // Add hover effect
                         setOnMouseEntered(e -> {
                             if (!isEmpty()) {
@@ -119,7 +150,7 @@ public class TasksController {
             });
 
             tasksList.getSelectionModel().selectedItemProperty().addListener((obs, oldTask, newTask) -> {
-                if (newTask != null) {
+                if (newTask != null && !restoringSelection) {
                     loadTaskDetails(newTask);
                 }
             });
@@ -180,6 +211,12 @@ public class TasksController {
                 bottomRow.getChildren().add(dueDateLabel);
             }
 
+            if (isQueued(task)) {
+                Label queuedLabel = new Label("⏳ Waiting to sync");
+                queuedLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #6b7280;");
+                bottomRow.getChildren().add(queuedLabel);
+            }
+
             // Quick action buttons
             HBox quickActions = new HBox(5);
 
@@ -241,6 +278,10 @@ public class TasksController {
     }
 
     private void toggleTaskCompletion(Task task) {
+        if (isQueued(task)) {
+            showQueuedNotice();
+            return;
+        }
         try {
             Task.Status newStatus = task.getStatus() == Task.Status.COMPLETED ?
                     Task.Status.PENDING : Task.Status.COMPLETED;
@@ -248,7 +289,7 @@ public class TasksController {
             task.setStatus(newStatus);
 
             // Update in background using JavaFX Task
-            CompletableFuture.supplyAsync(() -> taskService.updateTask(task))
+            DbExecutor.getInstance().supply(() -> taskService.updateTask(task))
                     .thenAccept(success -> Platform.runLater(() -> {
                         if (success) {
                             String message = newStatus == Task.Status.COMPLETED ?
@@ -259,7 +300,6 @@ public class TasksController {
                             );
 
                             refreshTasksList();
-                            updateStatistics();
                         } else {
                             // Revert the change
                             task.setStatus(newStatus == Task.Status.COMPLETED ?
@@ -499,40 +539,102 @@ public class TasksController {
         }
 
         try {
-            CompletableFuture.supplyAsync(() -> {
-                try {
-                    int userId = UserSession.getInstance().getCurrentUser().getId();
-                    return taskService.getTasksForUser(userId);
-                } catch (Exception e) {
-                    System.err.println("Error loading tasks: " + e.getMessage());
-                    return List.<Task>of();
-                }
-            }).thenAccept(tasks -> {
-                Platform.runLater(() -> {
+            int userId = UserSession.getInstance().getCurrentUser().getId();
+            int generation = ++loadGeneration;
+            loadingPage = true;
+            // Taken before the read, so anything written while it runs is picked up by the next sync
+            LocalDateTime requestedAt = LocalDateTime.now();
+            taskService.getTasksPageAsync(queryScope, userId, null, PAGE_SIZE).thenAccept(page -> {
+                Platform.runLater(queryScope.guard(() -> {
+                    if (generation != loadGeneration) {
+                        return;
+                    }
                     try {
-                        allTasks.setAll(tasks);
+                        loadingPage = false;
+                        nextPage = page.next();
+                        allTasks.setAll(page.items());
+                        syncedAt = requestedAt;
                         applyFilters();
                         updateStatistics();
 
-                        if (tasks.isEmpty()) {
+                        if (page.items().isEmpty()) {
                             showEmptyState(); // ✅ TAMBAH
                         }
 
-                        System.out.println("✅ Tasks loaded successfully: " + tasks.size() + " tasks");
+                        System.out.println("✅ Tasks loaded successfully: " + page.items().size() + " tasks"
+                                + (page.hasMore() ? " (more on scroll)" : ""));
                     } catch (Exception e) {
                         ErrorHandler.handleError("Tasks Loading", "Failed to display loaded tasks", e);
                         showEmptyState(); // ✅ TAMBAH
                     }
-                });
+                }));
             });
         } catch (Exception e) {
+            loadingPage = false;
             ErrorHandler.handleError("Tasks Loading", "Failed to load tasks", e);
             showEmptyState(); // ✅ TAMBAH
         }
     }
 
+    private void loadNextTasksPage() {
+        if (loadingPage || nextPage == null) {
+            return;
+        }
+
+        int userId = UserSession.getInstance().getCurrentUser().getId();
+        int generation = loadGeneration;
+        loadingPage = true;
+        taskService.getTasksPageAsync(queryScope, userId, nextPage, PAGE_SIZE).thenAccept(page -> {
+            Platform.runLater(queryScope.guard(() -> {
+                if (generation != loadGeneration) {
+                    return;
+                }
+                loadingPage = false;
+                nextPage = page.next();
+                // A sync may already have brought in some of these
+                Set<Integer> loaded = allTasks.stream().map(Task::getId).collect(Collectors.toSet());
+                allTasks.addAll(page.items().stream()
+                        .filter(task -> !loaded.contains(task.getId()))
+                        .collect(Collectors.toList()));
+                applyFilters();
+            }));
+        });
+    }
+
+    /**
+     * Merge in what changed since the last load or sync instead of
+     * reloading; falls back to a full load when too far behind.
+     */
     private void refreshTasksList() {
-        loadTasksSafely();
+        if (taskService == null) {
+            return;
+        }
+
+        try {
+            int userId = UserSession.getInstance().getCurrentUser().getId();
+            int generation = loadGeneration;
+            taskService.getTaskChangesSinceAsync(queryScope, userId, syncedAt).thenAccept(delta -> {
+                Platform.runLater(queryScope.guard(() -> {
+                    if (generation != loadGeneration) {
+                        return;
+                    }
+                    if (delta == null) {
+                        loadTasksSafely();
+                        return;
+                    }
+                    try {
+                        delta.mergeInto(allTasks);
+                        syncedAt = delta.syncedAt();
+                        applyFilters();
+                        updateStatistics();
+                    } catch (Exception e) {
+                        ErrorHandler.handleError("Tasks Loading", "Failed to display task changes", e);
+                    }
+                }));
+            });
+        } catch (Exception e) {
+            ErrorHandler.handleError("Tasks Loading", "Failed to sync tasks", e);
+        }
     }
 
     private void applyFilters() {
@@ -608,7 +710,18 @@ public class TasksController {
             }
 
             if (tasksList != null) {
+                Task selected = tasksList.getSelectionModel().getSelectedItem();
                 tasksList.getItems().setAll(filteredTasks);
+                if (selected != null && filteredTasks.contains(selected)) {
+                    restoringSelection = true;
+                    tasksList.getSelectionModel().select(selected);
+                    restoringSelection = false;
+                }
+            }
+
+            // Filters may hide most of a page; keep reading until the list has something to scroll
+            if (filteredTasks.size() < PREFETCH_ROWS) {
+                loadNextTasksPage();
             }
 
         } catch (Exception e) {
@@ -617,6 +730,10 @@ public class TasksController {
     }
 
     private void loadTaskDetails(Task task) {
+        if (isQueued(task)) {
+            showQueuedNotice();
+            return;
+        }
         try {
             currentTask = task;
 
@@ -729,15 +846,28 @@ public class TasksController {
             task.setStatus(status);
 
             // Save in background
-            CompletableFuture.supplyAsync(() -> {
-                if (currentTask == null) {
+            boolean creating = currentTask == null;
+            DbExecutor.getInstance().supply(() -> {
+                if (creating) {
                     return taskService.addTask(task);
                 } else {
-                    return taskService.updateTask(task);
+                    return taskService.updateTask(task) ? WriteResult.SAVED : WriteResult.FAILED;
                 }
-            }).thenAccept(success -> Platform.runLater(() -> {
-                if (success) {
-                    String action = currentTask == null ? "created" : "updated";
+            }).thenAccept(result -> Platform.runLater(() -> {
+                if (result == WriteResult.QUEUED) {
+                    NotificationManager.getInstance().showNotification(
+                            "Task Saved Offline",
+                            "Your task will be added once the database is back.",
+                            NotificationManager.NotificationType.INFO
+                    );
+
+                    // No id until replay, so it can't be edited yet; start a fresh form
+                    queuedTasks.add(task);
+                    allTasks.add(0, task);
+                    applyFilters();
+                    createNewTask();
+                } else if (result == WriteResult.SAVED) {
+                    String action = creating ? "created" : "updated";
                     NotificationManager.getInstance().showNotification(
                             "Task Saved",
                             "Your task has been " + action + " successfully! 🎉",
@@ -746,7 +876,6 @@ public class TasksController {
 
                     currentTask = task; // Update current task reference
                     refreshTasksList();
-                    updateStatistics();
 
                     // Add success animation
                     addSuccessAnimation();
@@ -764,6 +893,39 @@ public class TasksController {
         }
     }
 
+    private static boolean isQueued(Task task) {
+        return task.getId() == 0;
+    }
+
+    private void showQueuedNotice() {
+        NotificationManager.getInstance().showNotification(
+                "Waiting to Sync",
+                "This task can be changed once it has been saved to the database.",
+                NotificationManager.NotificationType.INFO
+        );
+    }
+
+    /**
+     * Once the journal is empty every queued task is in the database: drop the
+     * local copies and let a sync bring them in with their ids.
+     */
+    private void onJournalReplayed() {
+        if (queryScope.isCancelled()) {
+            WriteJournal.getInstance().removeReplayListener(replayListener);
+            return;
+        }
+        if (queuedTasks.isEmpty() || WriteJournal.getInstance().hasPending()) {
+            return;
+        }
+        allTasks.removeIf(this::isQueuedCopy);
+        queuedTasks.clear();
+        refreshTasksList();
+    }
+
+    private boolean isQueuedCopy(Task task) {
+        return queuedTasks.stream().anyMatch(queued -> queued == task);
+    }
+
     private void saveCurrentTaskSilently() {
         try {
             if (currentTask != null && taskTitleField != null && !taskTitleField.getText().trim().isEmpty()) {
@@ -774,7 +936,7 @@ public class TasksController {
                 currentTask.setDescription(description);
 
                 // Save silently in background
-                CompletableFuture.runAsync(() -> taskService.updateTask(currentTask));
+                DbExecutor.getInstance().run(() -> taskService.updateTask(currentTask));
             }
         } catch (Exception e) {
             System.err.println("Silent save failed: " + e.getMessage());
@@ -813,7 +975,7 @@ public class TasksController {
             Task taskToDelete = currentTask;
 
             // Delete in background
-            CompletableFuture.supplyAsync(() -> taskService.deleteTask(taskToDelete.getId()))
+            DbExecutor.getInstance().supply(() -> taskService.deleteTask(taskToDelete.getId()))
                     .thenAccept(success -> Platform.runLater(() -> {
                         if (success) {
                             NotificationManager.getInstance().showNotification(
@@ -823,7 +985,6 @@ public class TasksController {
                             );
 
                             refreshTasksList();
-                            updateStatistics();
                             createNewTask();
 
                             // Add deletion animation
@@ -842,23 +1003,19 @@ public class TasksController {
         }
     }
 
+    /**
+     * Counts come from the database, since only the first pages of tasks may be loaded.
+     */
     private void updateStatistics() {
         try {
-            if (allTasks.isEmpty()) {
+            if (taskService == null || !UserSession.getInstance().isLoggedIn()) {
                 updateStatisticsLabels(0, 0, 0, 0);
                 return;
             }
 
-            int total = allTasks.size();
-            int pending = (int) allTasks.stream().filter(t -> t.getStatus() == Task.Status.PENDING).count();
-            int completed = (int) allTasks.stream().filter(t -> t.getStatus() == Task.Status.COMPLETED).count();
-            int overdue = (int) allTasks.stream()
-                    .filter(t -> t.getDueDate() != null &&
-                            t.getDueDate().isBefore(LocalDate.now()) &&
-                            t.getStatus() != Task.Status.COMPLETED)
-                    .count();
-
-            updateStatisticsLabels(total, pending, completed, overdue);
+            int userId = UserSession.getInstance().getCurrentUser().getId();
+            taskService.getTaskStatsAsync(queryScope, userId).thenAccept(stats -> Platform.runLater(queryScope.guard(
+                    () -> updateStatisticsLabels(stats.total(), stats.pending(), stats.completed(), stats.overdue()))));
 
         } catch (Exception e) {
             System.err.println("Error updating statistics: " + e.getMessage());
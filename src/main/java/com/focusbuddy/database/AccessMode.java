@@ -0,0 +1,13 @@
+package com.focusbuddy.database;
+
+/**
+ * What a piece of database work does with the data. Read-only work may be
+ * served by a read replica (see {@link ReplicaRouter}); read-write work
+ * always goes to the primary.
+ */
+public enum AccessMode {
+    READ_ONLY,
+    /** Reads that must see the primary's latest data; unlike writes they do not start a read-your-writes window. */
+    READ_PRIMARY,
+    READ_WRITE
+}
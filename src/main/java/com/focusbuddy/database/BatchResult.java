@@ -0,0 +1,27 @@
+package com.focusbuddy.database;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of a {@link BatchWriter} run.
+ *
+ * @param rowsPerTable rows sent per table name, in the order the tables were used
+ */
+public record BatchResult(long rows, long batches, long elapsedMs, Map<String, Long> rowsPerTable) {
+
+    public BatchResult {
+        rowsPerTable = Collections.unmodifiableMap(new LinkedHashMap<>(rowsPerTable));
+    }
+
+    public double rowsPerSecond() {
+        return elapsedMs > 0 ? rows * 1000.0 / elapsedMs : rows;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows in %d batches, %d ms (%.0f rows/sec) %s",
+                rows, batches, elapsedMs, rowsPerSecond(), rowsPerTable);
+    }
+}
@@ -0,0 +1,177 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.utils.ConfigManager;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk insert helper for seeding and imports.
+ *
+ * Rows are accumulated per table and sent with addBatch/executeBatch every
+ * "db.batch.size" rows, inside the caller's transaction:
+ * <pre>
+ * BatchResult result = DatabaseManager.getInstance().inTransaction(tx -> {
+ *     BatchWriter writer = new BatchWriter(tx);
+ *     BatchWriter.Table tasks = writer.insert("tasks", "user_id", "title", "priority");
+ *     for (...) tasks.add(userId, title, Task.Priority.HIGH);
+ *     return writer.finish();
+ * });
+ * </pre>
+ * On MySQL the driver rewrites each batch into multi-row INSERTs
+ * (rewriteBatchedStatements, see {@link MySqlDialect}).
+ *
+ * Tables are flushed in the order they were first used, so rows of a parent
+ * table always reach the database before rows that reference them.
+ */
+public class BatchWriter {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final UnitOfWork tx;
+    private final int batchSize;
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+    private final long startedAt = System.nanoTime();
+    private long rows;
+    private long batches;
+
+    public BatchWriter(UnitOfWork tx) {
+        this(tx, ConfigManager.getInstance().getIntProperty("db.batch.size", DEFAULT_BATCH_SIZE));
+    }
+
+    public BatchWriter(UnitOfWork tx, int batchSize) {
+        this.tx = tx;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Rows for a plain INSERT into the given columns.
+     */
+    public Table insert(String table, String... columns) throws SQLException {
+        return table("INSERT INTO", table, columns);
+    }
+
+    /**
+     * Rows for an INSERT IGNORE (rows that hit a unique key are skipped).
+     */
+    public Table insertIgnore(String table, String... columns) throws SQLException {
+        return table("INSERT IGNORE INTO", table, columns);
+    }
+
+    private Table table(String verb, String table, String... columns) throws SQLException {
+        String sql = verb + " " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+        Table batch = tables.get(sql);
+        if (batch == null) {
+            batch = new Table(table, sql, columns.length, tx.prepare(sql));
+            tables.put(sql, batch);
+        }
+        return batch;
+    }
+
+    /**
+     * Send every pending row. The caller's transaction commits them.
+     * @return totals and throughput for everything written by this writer
+     */
+    public BatchResult finish() throws SQLException {
+        flushThrough(null);
+        for (Table table : tables.values()) {
+            table.stmt.close();
+            // Bulk loads are not tied to one user
+            tx.afterCommit(() -> QueryCache.getInstance().invalidateTable(table.name));
+        }
+
+        long elapsedNanos = System.nanoTime() - startedAt;
+        Map<String, Long> perTable = new LinkedHashMap<>();
+        for (Table table : tables.values()) {
+            perTable.merge(table.name, table.written, Long::sum);
+        }
+        tables.clear();
+        return new BatchResult(rows, batches, elapsedNanos / 1_000_000, perTable);
+    }
+
+    /**
+     * Flush tables in registration order, stopping after {@code last} (null = all).
+     */
+    private void flushThrough(Table last) throws SQLException {
+        List<Table> ordered = new ArrayList<>(tables.values());
+        for (Table table : ordered) {
+            table.flush();
+            if (table == last) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Pending rows for one INSERT statement.
+     */
+    public class Table {
+        private final String name;
+        private final String sql;
+        private final int columnCount;
+        private final PreparedStatement stmt;
+        private int pending;
+        private long written;
+
+        private Table(String name, String sql, int columnCount, PreparedStatement stmt) {
+            this.name = name;
+            this.sql = sql;
+            this.columnCount = columnCount;
+            this.stmt = stmt;
+        }
+
+        /**
+         * Queue one row; values are given in column order. LocalDate, LocalDateTime
+         * and enums are converted to their JDBC equivalents.
+         */
+        public Table add(Object... values) throws SQLException {
+            if (values.length != columnCount) {
+                throw new IllegalArgumentException("Expected " + columnCount + " values for " + sql
+                        + " but got " + values.length);
+            }
+            for (int i = 0; i < values.length; i++) {
+                stmt.setObject(i + 1, toJdbc(values[i]));
+            }
+            stmt.addBatch();
+            pending++;
+            rows++;
+
+            if (pending >= batchSize) {
+                flushThrough(this);
+            }
+            return this;
+        }
+
+        private void flush() throws SQLException {
+            if (pending == 0) {
+                return;
+            }
+            stmt.executeBatch();
+            written += pending;
+            pending = 0;
+            batches++;
+        }
+    }
+
+    private static Object toJdbc(Object value) {
+        if (value instanceof LocalDate date) {
+            return Date.valueOf(date);
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return Timestamp.valueOf(dateTime);
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        return value;
+    }
+}
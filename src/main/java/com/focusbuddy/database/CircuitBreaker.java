@@ -0,0 +1,221 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.utils.ConfigManager;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the application responsive while the database server is unreachable.
+ *
+ * After "db.breaker.failureThreshold" consecutive connection failures the
+ * breaker opens and {@link DatabaseManager#getConnection()} fails at once with
+ * {@link DatabaseUnavailableException}, instead of every caller waiting for its
+ * own connect timeout. While open, a background probe tries to connect every
+ * "db.breaker.probeIntervalMs"; the first probe that succeeds closes the breaker.
+ *
+ * Only connection errors count (SQLState class 08, or a driver connection
+ * exception). A failing query or an exhausted pool says nothing about whether
+ * the server can be reached.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        /** Calls go through */
+        CLOSED,
+        /** Calls fail fast; waiting for the next probe */
+        OPEN,
+        /** A probe is running; calls still fail fast */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long probeIntervalMs;
+    private final BooleanSupplier probe;
+    private final List<Consumer<State>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile State state = State.CLOSED;
+    private volatile int consecutiveFailures;
+    private volatile String lastError;
+    private long openedAt;
+    private ScheduledExecutorService prober; // started on the first trip
+    private ScheduledFuture<?> probeTask;
+
+    // Statistics
+    private final AtomicLong trips = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param probe tries to reach the server and returns whether it answered;
+     *              runs on the breaker's own thread
+     */
+    CircuitBreaker(BooleanSupplier probe) {
+        this(ConfigManager.getInstance().getIntProperty("db.breaker.failureThreshold", 3),
+                ConfigManager.getInstance().getLongProperty("db.breaker.probeIntervalMs", 5000),
+                probe);
+    }
+
+    CircuitBreaker(int failureThreshold, long probeIntervalMs, BooleanSupplier probe) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.probeIntervalMs = Math.max(10, probeIntervalMs);
+        this.probe = probe;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isOpen() {
+        return state != State.CLOSED;
+    }
+
+    /**
+     * Be told when the breaker trips (OPEN) and when the database is back (CLOSED).
+     * Listeners run on whichever thread saw the change, not the FX thread.
+     */
+    public void addListener(Consumer<State> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<State> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Fail fast if the breaker is open.
+     */
+    void checkAllowed() throws DatabaseUnavailableException {
+        if (state != State.CLOSED) {
+            rejected.incrementAndGet();
+            throw new DatabaseUnavailableException("Database is unreachable, retrying in the background"
+                    + (lastError != null ? " (last error: " + lastError + ")" : ""));
+        }
+    }
+
+    void recordSuccess() {
+        if (consecutiveFailures > 0) {
+            synchronized (this) {
+                consecutiveFailures = 0;
+            }
+        }
+    }
+
+    void recordFailure(SQLException e) {
+        if (!isConnectionFailure(e)) {
+            return;
+        }
+        boolean tripped = false;
+        synchronized (this) {
+            consecutiveFailures++;
+            lastError = e.getMessage();
+            if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+                open();
+                tripped = true;
+            }
+        }
+        if (tripped) {
+            System.err.println("⚠️ Database unreachable after " + consecutiveFailures
+                    + " attempts, failing fast and probing every " + probeIntervalMs + " ms: " + lastError);
+            notifyListeners(State.OPEN);
+        }
+    }
+
+    static boolean isConnectionFailure(SQLException e) {
+        String sqlState = e.getSQLState();
+        return (sqlState != null && sqlState.startsWith("08")) || e instanceof SQLNonTransientConnectionException;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        trips.incrementAndGet();
+        if (prober == null) {
+            prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "focusbuddy-db-probe");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        probeTask = prober.scheduleWithFixedDelay(this::runProbe, probeIntervalMs, probeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void runProbe() {
+        synchronized (this) {
+            if (state != State.OPEN) {
+                return;
+            }
+            state = State.HALF_OPEN;
+        }
+
+        boolean reachable;
+        try {
+            reachable = probe.getAsBoolean();
+        } catch (RuntimeException e) {
+            reachable = false;
+        }
+
+        long downMs;
+        synchronized (this) {
+            if (state != State.HALF_OPEN) {
+                return; // reset() while probing
+            }
+            if (!reachable) {
+                state = State.OPEN;
+                return;
+            }
+            downMs = System.currentTimeMillis() - openedAt;
+            close();
+        }
+        System.out.println("✅ Database reachable again after " + downMs / 1000 + " s");
+        notifyListeners(State.CLOSED);
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        lastError = null;
+        if (probeTask != null) {
+            probeTask.cancel(false);
+            probeTask = null;
+        }
+    }
+
+    /**
+     * Close the breaker without probing, e.g. after switching to another backend.
+     */
+    void reset() {
+        boolean wasOpen;
+        synchronized (this) {
+            wasOpen = state != State.CLOSED;
+            close();
+        }
+        if (wasOpen) {
+            notifyListeners(State.CLOSED);
+        }
+    }
+
+    private void notifyListeners(State newState) {
+        for (Consumer<State> listener : listeners) {
+            try {
+                listener.accept(newState);
+            } catch (RuntimeException e) {
+                System.err.println("Circuit breaker listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Breaker: %s (%d consecutive failures, %d trips, %d calls rejected)",
+                state, consecutiveFailures, trips.get(), rejected.get());
+    }
+}
@@ -0,0 +1,75 @@
+package com.focusbuddy.database;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column positions of one result set shape, looked up by label once instead
+ * of on every getXxx("name") call.
+ *
+ * Index 0 means the query did not select that column; the static getters
+ * return null for it, so one mapper serves both SELECT * and narrower column lists.
+ */
+public final class ColumnIndex {
+    private final Map<String, Integer> positions;
+    private final String shape;
+
+    private ColumnIndex(Map<String, Integer> positions, String shape) {
+        this.positions = positions;
+        this.shape = shape;
+    }
+
+    static ColumnIndex of(ResultSetMetaData metaData) throws SQLException {
+        int count = metaData.getColumnCount();
+        Map<String, Integer> positions = new HashMap<>();
+        StringBuilder shape = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            String label = metaData.getColumnLabel(i).toLowerCase(Locale.ROOT);
+            positions.putIfAbsent(label, i); // first one wins, like ResultSet.findColumn
+            shape.append(label).append(',');
+        }
+        return new ColumnIndex(positions, shape.toString());
+    }
+
+    /**
+     * Column labels in order; result sets with the same shape share a compiled mapper.
+     */
+    String shape() {
+        return shape;
+    }
+
+    /**
+     * @return the 1-based position of the column, or 0 if it is not in the result
+     */
+    public int of(String label) {
+        return positions.getOrDefault(label.toLowerCase(Locale.ROOT), 0);
+    }
+
+    public static String getString(ResultSet rs, int index) throws SQLException {
+        return index > 0 ? rs.getString(index) : null;
+    }
+
+    public static LocalDate getLocalDate(ResultSet rs, int index) throws SQLException {
+        if (index == 0) {
+            return null;
+        }
+        Date date = rs.getDate(index);
+        return date != null ? date.toLocalDate() : null;
+    }
+
+    public static LocalDateTime getLocalDateTime(ResultSet rs, int index) throws SQLException {
+        if (index == 0) {
+            return null;
+        }
+        Timestamp timestamp = rs.getTimestamp(index);
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.focusbuddy.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A row mapper that resolves its column positions once per result set shape.
+ *
+ * The compiler receives the {@link ColumnIndex} of a shape and returns a
+ * mapper that reads by position. Compiled mappers are cached by shape, so a
+ * service's queries each pay for the label lookups once per application run:
+ * <pre>
+ * static final CompiledRowMapper&lt;Note&gt; NOTE = new CompiledRowMapper&lt;&gt;(columns -&gt; {
+ *     int id = columns.of("id");
+ *     int title = columns.of("title");
+ *     return rs -&gt; new Note(rs.getInt(id), rs.getString(title));
+ * });
+ * </pre>
+ */
+public final class CompiledRowMapper<T> implements RowMapper<T> {
+    private static final int MAX_SHAPES = 64;
+
+    private final Function<ColumnIndex, RowMapper<T>> compiler;
+    private final Map<String, RowMapper<T>> compiledByShape = new ConcurrentHashMap<>();
+
+    public CompiledRowMapper(Function<ColumnIndex, RowMapper<T>> compiler) {
+        this.compiler = compiler;
+    }
+
+    /**
+     * The mapper compiled for this result set's columns.
+     */
+    @Override
+    public RowMapper<T> bind(ResultSet rs) throws SQLException {
+        ColumnIndex columns = ColumnIndex.of(rs.getMetaData());
+        RowMapper<T> compiled = compiledByShape.get(columns.shape());
+        if (compiled == null) {
+            compiled = compiler.apply(columns);
+            if (compiledByShape.size() < MAX_SHAPES) {
+                compiledByShape.put(columns.shape(), compiled);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Map a single row. Prefer {@link #mapAll} or {@link #bind} for loops,
+     * which resolve the columns once for the whole result set.
+     */
+    @Override
+    public T map(ResultSet rs) throws SQLException {
+        return bind(rs).map(rs);
+    }
+
+    /**
+     * Map every remaining row of the result set.
+     */
+    public List<T> mapAll(ResultSet rs) throws SQLException {
+        RowMapper<T> compiled = bind(rs);
+        List<T> rows = new ArrayList<>();
+        while (rs.next()) {
+            rows.add(compiled.map(rs));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,463 @@
+package com.focusbuddy.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded pool of physical JDBC connections.
+ *
+ * - At most maxSize physical connections exist at any time; borrowers wait up to
+ *   borrowTimeoutMs for one to be returned before failing.
+ * - A background housekeeper closes connections idle longer than idleTimeoutMs
+ *   (never going below minSize), refills the pool to minSize and reports
+ *   connections held longer than leakDetectionMs.
+ * - Closing a borrowed connection returns it to the pool.
+ * - Each physical connection keeps an LRU cache of prepared statements.
+ * - Connections are validated according to the configured
+ *   {@link PoolConfig.ValidationMode}; by default only connections idle longer
+ *   than validationIdleMs pay an isValid() round trip on borrow, and a
+ *   keepalive task pings idle connections in the background.
+ */
+public class ConnectionPool {
+    private final DatabaseSettings settings;
+    private final PoolConfig config;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition connectionReturned = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private int totalConnections; // guarded by lock, includes connections being opened
+    private int waitingThreads;   // guarded by lock
+    private volatile boolean shutdown;
+
+    private final ScheduledExecutorService housekeeper;
+
+    // Statistics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+    private final AtomicLong totalBorrowWaitNanos = new AtomicLong();
+    private final AtomicLong validations = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final StatementCache.Counters statementCacheCounters = new StatementCache.Counters();
+
+    public ConnectionPool(DatabaseSettings settings, PoolConfig config) {
+        this.settings = settings;
+        this.config = config;
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "focusbuddy-db-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1_000, config.getHousekeepingIntervalMs());
+        housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.MILLISECONDS);
+        if (config.getKeepaliveMs() > 0) {
+            housekeeper.scheduleWithFixedDelay(this::keepAlive,
+                    config.getKeepaliveMs(), config.getKeepaliveMs(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    public DatabaseSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Borrow a connection, waiting up to the configured borrow timeout.
+     * The returned connection must be closed to give it back to the pool.
+     */
+    public Connection getConnection() throws SQLException {
+        return getConnection(null);
+    }
+
+    /**
+     * Like {@link #getConnection()}; onReturn runs once the borrower has closed
+     * the connection, i.e. after everything it executed or committed.
+     */
+    Connection getConnection(Runnable onReturn) throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(config.getBorrowTimeoutMs());
+
+        PooledConnection pooled = acquire(deadline);
+
+        totalBorrowWaitNanos.addAndGet(System.nanoTime() - start);
+        borrowCount.incrementAndGet();
+        borrowed.add(pooled);
+        return pooled.lease(config.getLeakDetectionMs() > 0, onReturn);
+    }
+
+    private PooledConnection acquire(long deadline) throws SQLException {
+        while (true) {
+            PooledConnection candidate = null;
+            boolean openNew = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (shutdown) {
+                        throw new SQLException("Connection pool has been shut down");
+                    }
+                    candidate = idle.pollFirst();
+                    if (candidate != null) {
+                        break;
+                    }
+                    if (totalConnections < config.getMaxSize()) {
+                        totalConnections++; // reserve the slot before connecting outside the lock
+                        openNew = true;
+                        break;
+                    }
+
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        borrowTimeouts.incrementAndGet();
+                        throw new SQLTransientConnectionException(
+                                "Timed out after " + config.getBorrowTimeoutMs()
+                                        + " ms waiting for a database connection (" + getStatsLocked() + ")");
+                    }
+
+                    waitingThreads++;
+                    try {
+                        connectionReturned.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    } finally {
+                        waitingThreads--;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (openNew) {
+                return openConnection();
+            }
+            if (isUsable(candidate)) {
+                return candidate;
+            }
+            destroy(candidate);
+        }
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        try {
+            Connection physical = DriverManager.getConnection(
+                    settings.getUrl(), settings.getUsername(), settings.getPassword());
+            createdCount.incrementAndGet();
+            StatementCache cache = config.getStatementCacheSize() > 0
+                    ? new StatementCache(config.getStatementCacheSize(), statementCacheCounters)
+                    : null;
+            return new PooledConnection(this, physical, settings.getDialect(), cache);
+        } catch (SQLException | RuntimeException e) {
+            lock.lock();
+            try {
+                totalConnections--;
+                connectionReturned.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Open and close one physical connection outside the pool, to see whether
+     * the server accepts connections (used by the {@link CircuitBreaker} probe).
+     */
+    boolean canConnect(int timeoutSeconds) {
+        try (Connection physical = DriverManager.getConnection(
+                settings.getUrl(), settings.getUsername(), settings.getPassword())) {
+            return physical.isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Decide whether an idle connection can be handed out, validating it only
+     * when the configured policy asks for it.
+     */
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            if (pooled.getPhysical().isClosed()) {
+                return false;
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+
+        boolean needsValidation = switch (config.getValidationMode()) {
+            case ALWAYS -> true;
+            case IDLE -> System.currentTimeMillis() - pooled.getLastActivityAt() > config.getValidationIdleMs();
+            case NEVER -> false;
+        };
+        return !needsValidation || validate(pooled);
+    }
+
+    private boolean validate(PooledConnection pooled) {
+        validations.incrementAndGet();
+        boolean valid;
+        try {
+            valid = pooled.getPhysical().isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            valid = false;
+        }
+
+        if (valid) {
+            pooled.markValidated();
+        } else {
+            validationFailures.incrementAndGet();
+        }
+        return valid;
+    }
+
+    /**
+     * Called by a lease when the borrower closes its connection.
+     */
+    void release(PooledConnection pooled) {
+        borrowed.remove(pooled);
+        boolean reusable = !shutdown && pooled.resetForReuse();
+
+        if (!reusable) {
+            destroy(pooled);
+            return;
+        }
+
+        lock.lock();
+        try {
+            idle.addFirst(pooled); // LIFO keeps the warmest connections in use
+            connectionReturned.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        pooled.closePhysical();
+        destroyedCount.incrementAndGet();
+
+        lock.lock();
+        try {
+            totalConnections--;
+            connectionReturned.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // =============== HOUSEKEEPING ===============
+
+    private void housekeep() {
+        try {
+            evictIdleConnections();
+            reportLeaks();
+            fillToMinimum();
+        } catch (Exception e) {
+            System.err.println("Connection pool housekeeping failed: " + e.getMessage());
+        }
+    }
+
+    private void evictIdleConnections() {
+        if (config.getIdleTimeoutMs() <= 0) {
+            return;
+        }
+
+        List<PooledConnection> expired = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        lock.lock();
+        try {
+            // Oldest returned connections sit at the tail of the deque
+            Iterator<PooledConnection> iterator = idle.descendingIterator();
+            while (iterator.hasNext() && totalConnections - expired.size() > config.getMinSize()) {
+                PooledConnection pooled = iterator.next();
+                if (now - pooled.getLastReturnedAt() > config.getIdleTimeoutMs()) {
+                    iterator.remove();
+                    expired.add(pooled);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        expired.forEach(this::destroy);
+    }
+
+    /**
+     * Ping connections that have sat idle for a full keepalive interval so that
+     * server-side timeouts (wait_timeout) and dropped sockets are found here
+     * rather than by the next borrower.
+     */
+    private void keepAlive() {
+        try {
+            List<PooledConnection> due = new ArrayList<>();
+            long now = System.currentTimeMillis();
+
+            lock.lock();
+            try {
+                Iterator<PooledConnection> iterator = idle.iterator();
+                while (iterator.hasNext()) {
+                    PooledConnection pooled = iterator.next();
+                    if (now - pooled.getLastActivityAt() >= config.getKeepaliveMs()) {
+                        iterator.remove();
+                        due.add(pooled);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            for (PooledConnection pooled : due) {
+                if (!shutdown && validate(pooled)) {
+                    lock.lock();
+                    try {
+                        idle.addLast(pooled);
+                        connectionReturned.signal();
+                    } finally {
+                        lock.unlock();
+                    }
+                } else {
+                    destroy(pooled);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Connection pool keepalive failed: " + e.getMessage());
+        }
+    }
+
+    private void reportLeaks() {
+        long threshold = config.getLeakDetectionMs();
+        if (threshold <= 0) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : borrowed) {
+            if (!pooled.isLeakReported() && now - pooled.getBorrowedAt() > threshold) {
+                pooled.markLeakReported();
+                leaksDetected.incrementAndGet();
+                System.err.println("⚠️ Possible connection leak: connection held for "
+                        + (now - pooled.getBorrowedAt()) + " ms");
+                if (pooled.getBorrowTrace() != null) {
+                    pooled.getBorrowTrace().printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Open connections until the pool holds its minimum size. Runs on every
+     * housekeeping pass, and once at startup to warm the pool.
+     */
+    void fillToMinimum() {
+        while (!shutdown) {
+            lock.lock();
+            try {
+                if (totalConnections >= config.getMinSize()) {
+                    return;
+                }
+                totalConnections++;
+            } finally {
+                lock.unlock();
+            }
+
+            PooledConnection pooled;
+            try {
+                pooled = openConnection();
+            } catch (SQLException e) {
+                // Database unreachable right now, try again on the next run
+                return;
+            }
+
+            lock.lock();
+            try {
+                idle.addLast(pooled);
+                connectionReturned.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // =============== LIFECYCLE & STATISTICS ===============
+
+    /**
+     * Close every idle connection and stop housekeeping.
+     * Borrowed connections are closed when their borrowers return them.
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            connectionReturned.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        toClose.forEach(this::destroy);
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    public PoolStats getStats() {
+        lock.lock();
+        try {
+            return getStatsLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PoolStats getStatsLocked() {
+        long borrows = borrowCount.get();
+        double averageWaitMs = borrows > 0
+                ? totalBorrowWaitNanos.get() / 1_000_000.0 / borrows
+                : 0.0;
+
+        return new PoolStats(
+                totalConnections,
+                borrowed.size(),
+                idle.size(),
+                waitingThreads,
+                config.getMaxSize(),
+                borrows,
+                createdCount.get(),
+                destroyedCount.get(),
+                borrowTimeouts.get(),
+                leaksDetected.get(),
+                averageWaitMs,
+                statementCacheCounters.hits.get(),
+                statementCacheCounters.misses.get(),
+                statementCacheCounters.evictions.get(),
+                validations.get(),
+                validationFailures.get());
+    }
+}
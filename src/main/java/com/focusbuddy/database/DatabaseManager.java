@@ -1,17 +1,41 @@
 package com.focusbuddy.database;
 
+import com.focusbuddy.utils.ConfigManager;
+
 import java.sql.*;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class DatabaseManager {
     private static DatabaseManager instance;
-    private static final String URL = "jdbc:mysql://localhost:3306/focusbuddy?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC";
-    private static final String USERNAME = "root";
-    private static final String PASSWORD = "";
+    private static final int PROBE_TIMEOUT_SECONDS = 2;
+    // Metrics key that transaction retries are counted under
+    private static final String TRANSACTIONS = "(transactions)";
+
+    // Backend (MySQL or embedded H2) chosen from ConfigManager unless set explicitly
+    private volatile DatabaseSettings settings;
+
+    // Bounded connection pool, created on first use
+    private volatile ConnectionPool pool;
+
+    // Transaction running on the current thread, joined by nested inTransaction() calls
+    private final ThreadLocal<UnitOfWork> currentTransaction = new ThreadLocal<>();
 
-    // Connection pool or single connection for tracking
-    private Connection currentConnection;
+    // Picks the database holding the session user's rows; the pool above is its primary shard
+    private final ShardRouter shardRouter = new ShardRouter(this::getPool);
+
+    // Serves read-only work from replicas of the primary shard
+    private final ReplicaRouter replicaRouter = new ReplicaRouter();
+
+    // Fails calls fast while the server is unreachable, probing it in the background
+    private final CircuitBreaker breaker = new CircuitBreaker(() -> getPool().canConnect(PROBE_TIMEOUT_SECONDS)
+            && shardRouter.canConnectShards(PROBE_TIMEOUT_SECONDS));
+
+    // Reruns reads and rolled-back transactions after transient failures
+    private final RetryPolicy retryPolicy = new RetryPolicy();
 
     private DatabaseManager() {}
 
@@ -22,216 +46,278 @@ public class DatabaseManager {
         return instance;
     }
 
+    /**
+     * Borrow a connection from the pool of the shard holding the session
+     * user's rows (see {@link ShardRouter}); without shards, the one database.
+     * Closing the returned connection gives it back to the pool.
+     * @throws DatabaseUnavailableException at once while the circuit breaker is open
+     */
     public Connection getConnection() throws SQLException {
-        try {
-            // Test if current connection is valid
-            if (currentConnection != null && !currentConnection.isClosed() && currentConnection.isValid(5)) {
-                return currentConnection;
+        return getConnection(AccessMode.READ_WRITE);
+    }
+
+    /**
+     * Like {@link #getConnection()}. A {@link AccessMode#READ_ONLY} connection
+     * may come from a read replica (see {@link ReplicaRouter}) and must not be
+     * used to write; closing a read-write connection starts the user's
+     * read-your-writes window, so it runs from the end of the write.
+     * {@link AccessMode#READ_PRIMARY} reads from the primary without starting it.
+     */
+    public Connection getConnection(AccessMode mode) throws SQLException {
+        if (mode == AccessMode.READ_ONLY && replicaRouter.hasReplicas()) {
+            breaker.checkAllowed();
+            if (ShardRouter.PRIMARY.equals(shardRouter.currentShard())) {
+                Connection replica = replicaRouter.borrowForRead();
+                if (replica != null) {
+                    return replica;
+                }
             }
-        } catch (SQLException e) {
-            // Connection is not valid, create new one
         }
-
-        // Create new connection
-        currentConnection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
-        return currentConnection;
+        return borrow(null, mode == AccessMode.READ_WRITE ? replicaRouter::recordWrite : null);
     }
 
-    // ✅ HAPUS METHOD cleanupAllData() - JANGAN BERSIHKAN DATA USER
-    // Data user seharusnya tetap tersimpan di database
+    /**
+     * Borrow a connection to the primary database, which holds the users table
+     * and logins whichever shard the session user's rows live on.
+     */
+    public Connection getDirectoryConnection() throws SQLException {
+        return borrow(ShardRouter.PRIMARY, null);
+    }
 
-    public void initializeDatabase() {
-        try (Connection conn = getConnection()) {
-            createDatabase(conn);
-            createTables(conn);
-            runMigrations(conn);
-            // ✅ TIDAK LAGI MEMANGGIL cleanupAllData() - BIARKAN DATA USER TETAP ADA
-            System.out.println("Database initialized successfully!");
+    private Connection borrow(String shard, Runnable onReturn) throws SQLException {
+        breaker.checkAllowed();
+        try {
+            String target = shard != null ? shard : shardRouter.currentShard();
+            Connection conn = shardRouter.getPool(target).getConnection(onReturn);
+            breaker.recordSuccess();
+            return conn;
         } catch (SQLException e) {
-            System.err.println("Database initialization failed: " + e.getMessage());
-            e.printStackTrace();
+            breaker.recordFailure(e);
+            throw e;
         }
     }
 
-    private void createDatabase(Connection conn) throws SQLException {
-        String createDbQuery = "CREATE DATABASE IF NOT EXISTS focusbuddy";
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute(createDbQuery);
-        }
+    public ShardRouter getShardRouter() {
+        return shardRouter;
+    }
 
-        // Switch to the focusbuddy database
-        String useDbQuery = "USE focusbuddy";
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute(useDbQuery);
+    public ReplicaRouter getReplicaRouter() {
+        return replicaRouter;
+    }
+
+    /**
+     * The breaker guarding getConnection(); add a listener to follow online/offline changes.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    /**
+     * Whether calls currently reach the database (false while the breaker is open).
+     */
+    public boolean isOnline() {
+        return !breaker.isOpen();
+    }
+
+    /**
+     * Run a logical operation as one transaction: queued writes are flushed as
+     * batches and committed once, or everything is rolled back on failure.
+     * Calls nested inside another inTransaction() on the same thread join the
+     * outer transaction instead of committing separately.
+     *
+     * After a deadlock, lock wait timeout or dropped connection the whole
+     * callback runs again on a new connection (see {@link RetryPolicy}), so it
+     * should only touch the database; side effects belong in
+     * {@link UnitOfWork#afterCommit}. A failure once the commit was sent is
+     * never retried, since the transaction may have committed.
+     */
+    public <T> T inTransaction(TransactionCallback<T> callback) throws SQLException {
+        UnitOfWork outer = currentTransaction.get();
+        if (outer != null) {
+            return callback.execute(outer);
         }
+
+        AtomicBoolean commitSent = new AtomicBoolean();
+        return retryPolicy.execute(TRANSACTIONS, () -> runTransaction(callback, commitSent), () -> !commitSent.get());
+    }
+
+    /**
+     * Like {@link #inTransaction}, on the primary database (users and profiles).
+     */
+    public <T> T inDirectoryTransaction(TransactionCallback<T> callback) throws SQLException {
+        return shardRouter.onShard(ShardRouter.PRIMARY, () -> inTransaction(callback));
     }
 
-    private void createTables(Connection conn) throws SQLException {
-        String[] createTableQueries = {
-                // Users table
-                """
-            CREATE TABLE IF NOT EXISTS users (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                username VARCHAR(50) UNIQUE NOT NULL,
-                password VARCHAR(255) NOT NULL,
-                salt VARCHAR(255),
-                email VARCHAR(100),
-                full_name VARCHAR(100),
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                INDEX idx_username (username)
-            )
-            """,
-
-                // Tasks table
-                """
-            CREATE TABLE IF NOT EXISTS tasks (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                user_id INT NOT NULL,
-                title VARCHAR(200) NOT NULL,
-                description TEXT,
-                priority ENUM('LOW', 'MEDIUM', 'HIGH') DEFAULT 'MEDIUM',
-                status ENUM('PENDING', 'IN_PROGRESS', 'COMPLETED') DEFAULT 'PENDING',
-                due_date DATE,
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-                FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
-                INDEX idx_user_id (user_id),
-                INDEX idx_status (status),
-                INDEX idx_due_date (due_date)
-            )
-            """,
-
-                // Mood entries table
-                """
-            CREATE TABLE IF NOT EXISTS mood_entries (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                user_id INT NOT NULL,
-                mood_level INT CHECK (mood_level BETWEEN 1 AND 5),
-                mood_description VARCHAR(500),
-                entry_date DATE NOT NULL,
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
-                UNIQUE KEY unique_user_date (user_id, entry_date),
-                INDEX idx_user_date (user_id, entry_date)
-            )
-            """,
-
-                // Focus sessions table
-                """
-            CREATE TABLE IF NOT EXISTS focus_sessions (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                user_id INT NOT NULL,
-                task_id INT,
-                duration_minutes INT NOT NULL,
-                session_date DATE NOT NULL,
-                session_type ENUM('FOCUS', 'BREAK') DEFAULT 'FOCUS',
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
-                FOREIGN KEY (task_id) REFERENCES tasks(id) ON DELETE SET NULL,
-                INDEX idx_user_date (user_id, session_date)
-            )
-            """,
-
-                // Notes table
-                """
-            CREATE TABLE IF NOT EXISTS notes (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                user_id INT NOT NULL,
-                title VARCHAR(200) NOT NULL,
-                content LONGTEXT,
-                tags VARCHAR(500),
-                category VARCHAR(100) DEFAULT 'General',
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-                FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
-                INDEX idx_user_id (user_id),
-                FULLTEXT KEY ft_title_content (title, content)
-            )
-            """,
-
-                // Goals table
-                """
-            CREATE TABLE IF NOT EXISTS goals (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                user_id INT NOT NULL,
-                title VARCHAR(200) NOT NULL,
-                description TEXT,
-                target_value INT NOT NULL,
-                current_value INT DEFAULT 0,
-                goal_type ENUM('STUDY_HOURS', 'TASKS_COMPLETED', 'FOCUS_SESSIONS') DEFAULT 'STUDY_HOURS',
-                target_date DATE,
-                status ENUM('ACTIVE', 'COMPLETED', 'PAUSED') DEFAULT 'ACTIVE',
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-                FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
-                INDEX idx_user_status (user_id, status)
-            )
-            """,
-
-                // Database migrations table
-                """
-            CREATE TABLE IF NOT EXISTS migrations (
-                id INT AUTO_INCREMENT PRIMARY KEY,
-                migration_name VARCHAR(255) NOT NULL,
-                executed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                UNIQUE KEY unique_migration (migration_name)
-            )
-            """
-        };
-
-        for (String query : createTableQueries) {
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                stmt.execute();
+    private <T> T runTransaction(TransactionCallback<T> callback, AtomicBoolean commitSent) throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            UnitOfWork tx = new UnitOfWork(conn);
+            currentTransaction.set(tx);
+            try {
+                T result = callback.execute(tx);
+                tx.flush();
+                commitSent.set(true);
+                conn.commit();
+                replicaRouter.recordWrite(); // the window runs from the commit
+                tx.runAfterCommit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                tx.discard();
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackError) {
+                    e.addSuppressed(rollbackError);
+                }
+                throw e;
+            } finally {
+                // The pool restores autocommit when the connection is returned
+                currentTransaction.remove();
             }
         }
     }
 
-    private void runMigrations(Connection conn) throws SQLException {
-        // Migration 1: Add salt column to existing users table
-        if (!migrationExists(conn, "add_salt_column")) {
-            String addSaltColumn = "ALTER TABLE users ADD COLUMN IF NOT EXISTS salt VARCHAR(255)";
-            try (PreparedStatement stmt = conn.prepareStatement(addSaltColumn)) {
-                stmt.execute();
-                recordMigration(conn, "add_salt_column");
+    /**
+     * Read a query's rows one at a time through a forward-only cursor and pass
+     * each to the consumer. Rows are fetched from the server in chunks of
+     * "db.stream.fetchSize", and the next chunk is only read once the consumer
+     * has handled the previous rows, so memory use does not grow with the
+     * number of rows.
+     * @return the number of rows read
+     */
+    public <T> long forEachRow(String sql, UnitOfWork.Binder binder, RowMapper<T> mapper,
+                               Consumer<? super T> consumer) throws SQLException {
+        // Retried only until the first row has reached the consumer
+        long[] rows = new long[1];
+        return retryPolicy.execute(sql, () -> {
+            try (ResultStream<T> results = ResultStream.open(getConnection(AccessMode.READ_ONLY),
+                    sql, binder, mapper, getStreamFetchSize())) {
+                while (results.next(consumer)) {
+                    rows[0]++;
+                }
             }
-        }
+            return rows[0];
+        }, () -> rows[0] == 0);
+    }
 
-        // Migration 2: Add updated_at to tasks table
-        if (!migrationExists(conn, "add_updated_at_tasks")) {
-            String addUpdatedAt = "ALTER TABLE tasks ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP";
-            try (PreparedStatement stmt = conn.prepareStatement(addUpdatedAt)) {
-                stmt.execute();
-                recordMigration(conn, "add_updated_at_tasks");
+    /**
+     * Like {@link #forEachRow}, as a lazy Stream. The stream holds a pooled
+     * connection until it is closed, so use it in try-with-resources.
+     * SQL errors while reading are thrown as {@link UncheckedSQLException}.
+     */
+    public <T> Stream<T> stream(String sql, UnitOfWork.Binder binder, RowMapper<T> mapper) throws SQLException {
+        return ResultStream.open(getConnection(AccessMode.READ_ONLY), sql, binder, mapper, getStreamFetchSize()).stream();
+    }
+
+    /**
+     * Run a read-only query and turn its result into a value. It may be served
+     * by a read replica. Transient failures are retried on a fresh connection
+     * (see {@link RetryPolicy}).
+     */
+    public <T> T query(String sql, UnitOfWork.Binder binder, ResultHandler<T> handler) throws SQLException {
+        return retryPolicy.execute(sql, () -> {
+            try (Connection conn = getConnection(AccessMode.READ_ONLY)) {
+                PreparedStatement stmt = conn.prepareStatement(sql);
+                binder.bind(stmt);
+                return handler.handle(stmt.executeQuery());
             }
-        }
+        });
+    }
+
+    /**
+     * Run a small read through the {@link QueryCache}: the result is served from
+     * the cache until the table is invalidated for this user or the entry expires.
+     * @param table  the table the query reads
+     * @param userId the user whose rows are read
+     * @param params bound in order with setObject
+     */
+    public <T> T cachedQuery(String table, int userId, String sql, ResultHandler<T> handler,
+                             Object... params) throws SQLException {
+        return QueryCache.getInstance().getOrLoad(table, userId, sql, Arrays.asList(params), () ->
+                query(sql, stmt -> {
+                    for (int i = 0; i < params.length; i++) {
+                        stmt.setObject(i + 1, params[i]);
+                    }
+                }, handler));
+    }
+
+    private int getStreamFetchSize() {
+        return Math.max(1, ConfigManager.getInstance().getIntProperty("db.stream.fetchSize", 500));
+    }
 
-        // Migration 3: Add category to notes table
-        if (!migrationExists(conn, "add_category_notes")) {
-            String addCategory = "ALTER TABLE notes ADD COLUMN IF NOT EXISTS category VARCHAR(100) DEFAULT 'General'";
-            try (PreparedStatement stmt = conn.prepareStatement(addCategory)) {
-                stmt.execute();
-                recordMigration(conn, "add_category_notes");
+    private ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (this) {
+                current = pool;
+                if (current == null) {
+                    current = new ConnectionPool(getSettings(), PoolConfig.fromConfig());
+                    pool = current;
+                }
             }
         }
+        return current;
     }
 
-    private boolean migrationExists(Connection conn, String migrationName) throws SQLException {
-        String query = "SELECT COUNT(*) FROM migrations WHERE migration_name = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, migrationName);
-            ResultSet rs = stmt.executeQuery();
-            return rs.next() && rs.getInt(1) > 0;
+    public synchronized DatabaseSettings getSettings() {
+        if (settings == null) {
+            settings = DatabaseSettings.fromConfig();
         }
+        return settings;
+    }
+
+    public SqlDialect getDialect() {
+        return getSettings().getDialect();
+    }
+
+    /**
+     * Switch to another backend, e.g. an in-memory H2 database in tests.
+     * Closes the current pool; the next getConnection() opens a new one.
+     */
+    public synchronized void useSettings(DatabaseSettings newSettings) {
+        closeConnections();
+        QueryCache.getInstance().clear();
+        shardRouter.reset();
+        replicaRouter.reset();
+        breaker.reset();
+        settings = newSettings;
     }
 
-    private void recordMigration(Connection conn, String migrationName) throws SQLException {
-        String query = "INSERT INTO migrations (migration_name) VALUES (?)";
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, migrationName);
-            stmt.executeUpdate();
+    // ✅ HAPUS METHOD cleanupAllData() - JANGAN BERSIHKAN DATA USER
+    // Data user seharusnya tetap tersimpan di database
+
+    /**
+     * Bring the schema up to date.
+     * @return false if the database could not be reached or a migration failed
+     */
+    public boolean initializeDatabase() {
+        try (Connection conn = getDirectoryConnection()) {
+            long start = System.currentTimeMillis();
+            int applied = new MigrationRunner(getDialect()).migrate(conn);
+            if (applied > 0) {
+                System.out.println("Applied " + applied + " schema migration(s) in "
+                        + (System.currentTimeMillis() - start) + " ms");
+            }
+            shardRouter.migrateShards();
+            // ✅ TIDAK LAGI MEMANGGIL cleanupAllData() - BIARKAN DATA USER TETAP ADA
+            System.out.println("Database initialized successfully!");
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Database initialization failed: " + e.getMessage());
+            e.printStackTrace();
+            return false;
         }
     }
 
+    /**
+     * Open the pool's minimum number of connections now rather than on first use.
+     * @return false if the database could not be reached
+     */
+    public boolean warmUpPool() {
+        ConnectionPool current = getPool();
+        current.fillToMinimum();
+        return current.getStats().totalConnections() >= current.getConfig().getMinSize();
+    }
+
     public boolean testConnection() {
         try (Connection conn = getConnection()) {
             return conn != null && !conn.isClosed();
@@ -285,21 +371,23 @@ public class DatabaseManager {
                 // Disable foreign key checks
                 conn.createStatement().execute("SET FOREIGN_KEY_CHECKS = 0");
 
-                // Delete only demo user data
-                String[] tables = {"tasks", "mood_entries", "focus_sessions", "notes", "goals"};
-
-                for (String table : tables) {
-                    String deleteQuery = "DELETE FROM " + table + " WHERE user_id = ?";
-                    PreparedStatement deleteStmt = conn.prepareStatement(deleteQuery);
-                    deleteStmt.setInt(1, demoUserId);
-                    int deleted = deleteStmt.executeUpdate();
-                    System.out.println("✅ Deleted " + deleted + " records from " + table + " for demo user");
-                    deleteStmt.close();
+                try {
+                    // Delete only demo user data
+                    String[] tables = {"tasks", "mood_entries", "focus_sessions", "notes", "goals"};
+
+                    for (String table : tables) {
+                        String deleteQuery = "DELETE FROM " + table + " WHERE user_id = ?";
+                        PreparedStatement deleteStmt = conn.prepareStatement(deleteQuery);
+                        deleteStmt.setInt(1, demoUserId);
+                        int deleted = deleteStmt.executeUpdate();
+                        System.out.println("✅ Deleted " + deleted + " records from " + table + " for demo user");
+                        deleteStmt.close();
+                    }
+                } finally {
+                    // Re-enable foreign key checks (the connection goes back to the pool)
+                    conn.createStatement().execute("SET FOREIGN_KEY_CHECKS = 1");
                 }
 
-                // Re-enable foreign key checks
-                conn.createStatement().execute("SET FOREIGN_KEY_CHECKS = 1");
-
                 System.out.println("✅ Demo data reset completed!");
             } else {
                 System.out.println("ℹ️ Demo user not found, no data to reset");
@@ -319,27 +407,26 @@ public class DatabaseManager {
      * Called during application shutdown
      */
     public void closeConnections() {
-        try {
-            if (currentConnection != null && !currentConnection.isClosed()) {
-                currentConnection.close();
-                currentConnection = null;
-                System.out.println("Database connection closed successfully.");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error closing database connection: " + e.getMessage());
-            e.printStackTrace();
+        ConnectionPool current;
+        synchronized (this) {
+            current = pool;
+            pool = null;
+        }
+        if (current != null) {
+            current.shutdown();
+            System.out.println("Database connection pool closed successfully.");
         }
+        shardRouter.closeShards();
+        replicaRouter.closeReplicas();
     }
 
     /**
-     * Check if the current connection is valid
+     * Check if the database can hand out a working connection
      * @return true if connection is valid, false otherwise
      */
     public boolean isConnectionValid() {
-        try {
-            return currentConnection != null &&
-                    !currentConnection.isClosed() &&
-                    currentConnection.isValid(5);
+        try (Connection conn = getConnection()) {
+            return conn.isValid(5);
         } catch (SQLException e) {
             return false;
         }
@@ -365,16 +452,21 @@ public class DatabaseManager {
      * @return String with connection info
      */
     public String getConnectionInfo() {
-        try {
-            if (currentConnection != null && !currentConnection.isClosed()) {
-                DatabaseMetaData metaData = currentConnection.getMetaData();
-                return String.format("Connected to: %s, Driver: %s, Version: %s",
-                        metaData.getURL(),
-                        metaData.getDriverName(),
-                        metaData.getDriverVersion());
-            } else {
-                return "No active connection";
-            }
+        if (pool == null) {
+            return "No active connection";
+        }
+        try (Connection conn = getConnection()) {
+            DatabaseMetaData metaData = conn.getMetaData();
+            return String.format("Connected to: %s, Driver: %s, Version: %s, Pool: %s, Executor: %s, %s, %s, %s, %s",
+                    metaData.getURL(),
+                    metaData.getDriverName(),
+                    metaData.getDriverVersion(),
+                    getPoolStats(),
+                    DbExecutor.getInstance().getStats(),
+                    QueryCache.getInstance().getStats(),
+                    breaker,
+                    shardRouter,
+                    replicaRouter);
         } catch (SQLException e) {
             return "Error getting connection info: " + e.getMessage();
         }
@@ -397,12 +489,38 @@ public class DatabaseManager {
     }
 
     /**
-     * Get the count of active connections (simplified version)
-     * In a real connection pool, this would return actual pool stats
+     * Get the number of connections currently borrowed from the pool
      * @return number of active connections
      */
     public int getActiveConnectionCount() {
-        return (currentConnection != null && isConnectionValid()) ? 1 : 0;
+        ConnectionPool current = pool;
+        return current != null ? current.getStats().activeConnections() : 0;
+    }
+
+    /**
+     * Get live pool statistics (sizes, waiters, borrow wait time, leaks)
+     * @return snapshot of the pool, or an empty snapshot if the pool is not started
+     */
+    public PoolStats getPoolStats() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            return new PoolStats(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0.0, 0, 0, 0, 0, 0);
+        }
+        return current.getStats();
+    }
+
+    /**
+     * Latency statistics per normalized SQL statement, slowest total time first
+     */
+    public List<QueryStats> getQueryStats() {
+        return QueryMetrics.getInstance().getStats();
+    }
+
+    /**
+     * Hit rate and size of the query result cache
+     */
+    public QueryCacheStats getQueryCacheStats() {
+        return QueryCache.getInstance().getStats();
     }
 
     /**
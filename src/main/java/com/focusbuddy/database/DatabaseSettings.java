@@ -0,0 +1,104 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.utils.ConfigManager;
+
+/**
+ * Where the application's data lives: JDBC URL, credentials and the SQL dialect.
+ *
+ * The backend is chosen with "db.backend" in {@link ConfigManager}:
+ * <ul>
+ *   <li>mysql (default) - MySQL server at "db.url"</li>
+ *   <li>h2 - embedded database file at "db.h2.path", no server needed</li>
+ * </ul>
+ */
+public class DatabaseSettings {
+    private final String url;
+    private final String username;
+    private final String password;
+    private final SqlDialect dialect;
+
+    public DatabaseSettings(String url, String username, String password, SqlDialect dialect) {
+        this.dialect = dialect;
+        this.url = dialect.decorateUrl(url);
+        this.username = username;
+        this.password = password;
+    }
+
+    public static DatabaseSettings fromConfig() {
+        ConfigManager config = ConfigManager.getInstance();
+        String backend = config.getProperty("db.backend", MySqlDialect.NAME).trim().toLowerCase();
+
+        switch (backend) {
+            case H2Dialect.NAME, "embedded" -> {
+                String path = config.getProperty("db.h2.path", H2Dialect.DEFAULT_PATH);
+                return embedded(H2Dialect.fileUrl(path));
+            }
+            case MySqlDialect.NAME -> { }
+            default -> System.err.println("Unknown db.backend '" + backend + "', using " + MySqlDialect.NAME);
+        }
+
+        return new DatabaseSettings(
+                config.getProperty("db.url", MySqlDialect.DEFAULT_URL),
+                config.getProperty("db.username", "root"),
+                config.getProperty("db.password", ""),
+                new MySqlDialect());
+    }
+
+    /**
+     * Settings for the shard named in "db.shards": "db.shard.NAME.url",
+     * ".username" and ".password". Credentials default to the main database's,
+     * and a jdbc:h2: URL selects the embedded dialect (handy as a local stand-in).
+     */
+    public static DatabaseSettings forShard(String name) {
+        return fromKeys("db.shard." + name + ".", "shard '" + name + "'");
+    }
+
+    /**
+     * Settings for the read replica named in "db.replicas", read from
+     * "db.replica.NAME.url" etc. like {@link #forShard}.
+     */
+    public static DatabaseSettings forReplica(String name) {
+        return fromKeys("db.replica." + name + ".", "replica '" + name + "'");
+    }
+
+    private static DatabaseSettings fromKeys(String prefix, String description) {
+        ConfigManager config = ConfigManager.getInstance();
+        String url = config.getProperty(prefix + "url", "");
+        if (url.isBlank()) {
+            throw new IllegalArgumentException("No " + prefix + "url configured for " + description);
+        }
+        if (url.startsWith("jdbc:h2:")) {
+            return new DatabaseSettings(url,
+                    config.getProperty(prefix + "username", config.getProperty("db.h2.username", "sa")),
+                    config.getProperty(prefix + "password", config.getProperty("db.h2.password", "")),
+                    new H2Dialect());
+        }
+        return new DatabaseSettings(url,
+                config.getProperty(prefix + "username", config.getProperty("db.username", "root")),
+                config.getProperty(prefix + "password", config.getProperty("db.password", "")),
+                new MySqlDialect());
+    }
+
+    /**
+     * Settings for an embedded H2 database at the given JDBC URL
+     * (see {@link H2Dialect#fileUrl} and {@link H2Dialect#memoryUrl}).
+     */
+    public static DatabaseSettings embedded(String url) {
+        ConfigManager config = ConfigManager.getInstance();
+        return new DatabaseSettings(
+                url,
+                config.getProperty("db.h2.username", "sa"),
+                config.getProperty("db.h2.password", ""),
+                new H2Dialect());
+    }
+
+    public String getUrl() { return url; }
+    public String getUsername() { return username; }
+    public String getPassword() { return password; }
+    public SqlDialect getDialect() { return dialect; }
+
+    @Override
+    public String toString() {
+        return dialect.getName() + " @ " + url;
+    }
+}
@@ -0,0 +1,23 @@
+package com.focusbuddy.database;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Thrown by {@link DatabaseManager#getConnection()} while the {@link CircuitBreaker}
+ * is open, i.e. without trying to reach the server.
+ *
+ * It is thrown on every call until the server is back and the services print
+ * what they catch, so it carries no stack trace.
+ */
+public class DatabaseUnavailableException extends SQLTransientConnectionException {
+    private static final long serialVersionUID = 1L;
+
+    public DatabaseUnavailableException(String message) {
+        super(message, "08001");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,119 @@
+package com.focusbuddy.database;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking database work off the JavaFX thread.
+ *
+ * Every task gets its own virtual thread, so JDBC calls never occupy the
+ * ForkJoin common pool that CompletableFuture uses by default. A semaphore
+ * sized to the connection pool caps how many tasks touch the database at
+ * once; the rest wait for a permit instead of piling up on getConnection().
+ */
+public class DbExecutor {
+    private static DbExecutor instance;
+
+    private final ExecutorService threads;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    // Statistics
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private DbExecutor(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.threads = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("focusbuddy-db-", 0).factory());
+    }
+
+    public static synchronized DbExecutor getInstance() {
+        if (instance == null) {
+            instance = new DbExecutor(PoolConfig.fromConfig().getMaxSize());
+        }
+        return instance;
+    }
+
+    /**
+     * Run database work asynchronously and complete the future with its result.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        submitted.incrementAndGet();
+        long submittedAt = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> runWithPermit(work, submittedAt), threads);
+    }
+
+    /**
+     * Run database work asynchronously when there is no result to return.
+     */
+    public CompletableFuture<Void> run(Runnable work) {
+        return supply(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private <T> T runWithPermit(Supplier<T> work, long submittedAt) {
+        queued.incrementAndGet();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+            throw new CompletionException(e);
+        } finally {
+            queued.decrementAndGet();
+        }
+
+        long waited = System.nanoTime() - submittedAt;
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        running.incrementAndGet();
+        try {
+            T result = work.get();
+            completed.incrementAndGet();
+            return result;
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            throw e;
+        } finally {
+            running.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    public DbExecutorStats getStats() {
+        long started = completed.get() + failed.get() + running.get();
+        double averageWaitMs = started > 0 ? totalWaitNanos.get() / 1_000_000.0 / started : 0.0;
+        return new DbExecutorStats(
+                maxConcurrency,
+                running.get(),
+                queued.get(),
+                submitted.get(),
+                completed.get(),
+                failed.get(),
+                averageWaitMs,
+                maxWaitNanos.get() / 1_000_000.0);
+    }
+
+    /**
+     * Stop accepting work. Tasks already running are left to finish.
+     */
+    public void shutdown() {
+        threads.shutdown();
+    }
+}
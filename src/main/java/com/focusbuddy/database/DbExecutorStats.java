@@ -0,0 +1,22 @@
+package com.focusbuddy.database;
+
+/**
+ * Point-in-time snapshot of {@link DbExecutor} usage.
+ * queued is the number of tasks waiting for a permit right now (queue depth).
+ */
+public record DbExecutorStats(
+        int maxConcurrency,
+        int running,
+        int queued,
+        long submitted,
+        long completed,
+        long failed,
+        double averageWaitMs,
+        double maxWaitMs) {
+
+    @Override
+    public String toString() {
+        return String.format("running=%d/%d, queued=%d, submitted=%d, completed=%d, failed=%d, avgWait=%.2fms, maxWait=%.2fms",
+                running, maxConcurrency, queued, submitted, completed, failed, averageWaitMs, maxWaitMs);
+    }
+}
@@ -0,0 +1,37 @@
+package com.focusbuddy.database;
+
+/**
+ * String to enum conversion for values read from ENUM/VARCHAR columns.
+ *
+ * Keeps the constants in an array and compares names directly, which for the
+ * handful of constants in our model enums is cheaper per row than
+ * Enum.valueOf's map lookup, and returns null instead of throwing for NULL.
+ */
+public final class EnumLookup<E extends Enum<E>> {
+    private final Class<E> type;
+    private final E[] constants;
+
+    private EnumLookup(Class<E> type) {
+        this.type = type;
+        this.constants = type.getEnumConstants();
+    }
+
+    public static <E extends Enum<E>> EnumLookup<E> of(Class<E> type) {
+        return new EnumLookup<>(type);
+    }
+
+    /**
+     * @throws IllegalArgumentException for a value that is not a constant name
+     */
+    public E get(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (E constant : constants) {
+            if (constant.name().equals(name)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("No " + type.getSimpleName() + " constant " + name);
+    }
+}
@@ -0,0 +1,203 @@
+package com.focusbuddy.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Dialect for the embedded, file-based H2 backend.
+ *
+ * H2 runs in MySQL compatibility mode, which accepts most of the schema and
+ * queries as written. The remaining differences are rewritten here:
+ * <ul>
+ *   <li>DATE_SUB(x, INTERVAL n DAY) becomes DATEADD(DAY, -(n), x)</li>
+ *   <li>FULLTEXT KEY definitions are dropped (searchNotes falls back to LIKE anyway)</li>
+ *   <li>inline index names are prefixed with the table name, since H2 index
+ *       names are unique per schema rather than per table</li>
+ * </ul>
+ */
+public class H2Dialect implements SqlDialect {
+    public static final String NAME = "h2";
+    public static final String DEFAULT_PATH = "./data/focusbuddy";
+
+    private static final String URL_OPTIONS = "MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+    private static final int MAX_CACHED_TRANSLATIONS = 1024;
+
+    private static final Pattern CREATE_TABLE = Pattern.compile(
+            "^\\s*CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?`?(\\w+)`?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern FULLTEXT_KEY = Pattern.compile(
+            ",\\s*FULLTEXT\\s+(?:KEY|INDEX)\\s+\\w+\\s*\\([^)]*\\)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern INLINE_INDEX = Pattern.compile(
+            "\\b((?:UNIQUE\\s+)?(?:KEY|INDEX))\\s+(\\w+)\\s*\\(", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DATE_SUB = Pattern.compile("\\bDATE_SUB\\s*\\(", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DAY_INTERVAL = Pattern.compile(
+            "^\\s*INTERVAL\\s+(.+?)\\s+DAY\\s*$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    // Service SQL is almost entirely constant strings, so translations are reused
+    private final Map<String, String> translations = new ConcurrentHashMap<>();
+
+    /**
+     * JDBC URL for a database file at the given path (without the .mv.db suffix).
+     */
+    public static String fileUrl(String path) {
+        return "jdbc:h2:file:" + path;
+    }
+
+    /**
+     * JDBC URL for a private in-memory database that lives until the JVM exits.
+     */
+    public static String memoryUrl(String name) {
+        return "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1";
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String decorateUrl(String url) {
+        if (url.toUpperCase(Locale.ROOT).contains("MODE=")) {
+            return url;
+        }
+        return url + ";" + URL_OPTIONS;
+    }
+
+    @Override
+    public List<String> getBootstrapStatements() {
+        // The database file is created on first connect
+        return List.of();
+    }
+
+    @Override
+    public String translate(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        String cached = translations.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+
+        String translated = rewriteDateSub(sql);
+        Matcher createTable = CREATE_TABLE.matcher(translated);
+        if (createTable.find()) {
+            translated = rewriteTableDefinition(translated, createTable.group(1).toLowerCase(Locale.ROOT));
+        }
+
+        if (translations.size() >= MAX_CACHED_TRANSLATIONS) {
+            translations.clear();
+        }
+        translations.put(sql, translated);
+        return translated;
+    }
+
+    @Override
+    public boolean isEmbedded() {
+        return true;
+    }
+
+    /**
+     * H2 returns the plan as one rewritten statement, with the access path of
+     * each table in a comment ("tableScan" when there is no index). H2 does not
+     * say when it sorts, so filesort is never reported here.
+     */
+    @Override
+    public QueryPlan readPlan(String sql, ResultSet rs) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        while (rs.next()) {
+            plan.append(rs.getString(1).replaceAll("\\s+", " "));
+        }
+        return new QueryPlan(sql, plan.toString(), plan.indexOf(".tableScan") >= 0, false);
+    }
+
+    private String rewriteTableDefinition(String sql, String table) {
+        String result = FULLTEXT_KEY.matcher(sql).replaceAll("");
+
+        Matcher index = INLINE_INDEX.matcher(result);
+        StringBuilder renamed = new StringBuilder();
+        while (index.find()) {
+            String name = index.group(2);
+            String prefixed = name.toLowerCase(Locale.ROOT).startsWith(table + "_") ? name : table + "_" + name;
+            index.appendReplacement(renamed, Matcher.quoteReplacement(index.group(1) + " " + prefixed + " ("));
+        }
+        index.appendTail(renamed);
+        return renamed.toString();
+    }
+
+    /**
+     * Rewrite every DATE_SUB call, including nested ones and ones whose
+     * interval is an expression (e.g. the window function in getMoodStreak).
+     */
+    private String rewriteDateSub(String sql) {
+        Matcher matcher = DATE_SUB.matcher(sql);
+        if (!matcher.find()) {
+            return sql;
+        }
+
+        int argsStart = matcher.end();
+        int argsEnd = findClosingParen(sql, argsStart);
+        if (argsEnd < 0) {
+            return sql;
+        }
+
+        String args = sql.substring(argsStart, argsEnd);
+        int comma = findTopLevelComma(args);
+        Matcher interval = comma < 0 ? null : DAY_INTERVAL.matcher(args.substring(comma + 1));
+        if (interval == null || !interval.matches()) {
+            // Not a DAY interval; leave it for H2 to report
+            return sql.substring(0, argsEnd) + rewriteDateSub(sql.substring(argsEnd));
+        }
+
+        String date = rewriteDateSub(args.substring(0, comma).trim());
+        String days = rewriteDateSub(interval.group(1).trim());
+        String replacement = "DATEADD(DAY, -(" + days + "), " + date + ")";
+        return sql.substring(0, matcher.start()) + replacement + rewriteDateSub(sql.substring(argsEnd + 1));
+    }
+
+    private static int findClosingParen(String sql, int from) {
+        int depth = 0;
+        boolean quoted = false;
+        for (int i = from; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted) {
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    if (depth == 0) {
+                        return i;
+                    }
+                    depth--;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int findTopLevelComma(String args) {
+        int depth = 0;
+        boolean quoted = false;
+        for (int i = 0; i < args.length(); i++) {
+            char c = args.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted) {
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (c == ',' && depth == 0) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+}
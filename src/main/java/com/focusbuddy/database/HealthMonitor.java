@@ -0,0 +1,265 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.utils.ConfigManager;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the primary pool and query statistics every
+ * "db.health.sampleIntervalMs" into a ring buffer of the last
+ * "db.health.samples" {@link HealthSample}s.
+ *
+ * The latest sample is published over JMX (see {@link HealthMonitorMXBean})
+ * and the whole buffer backs the diagnostics view, so pool saturation,
+ * borrow waits and error bursts show up while they happen rather than only
+ * in cumulative totals.
+ */
+public class HealthMonitor implements HealthMonitorMXBean {
+    public static final String OBJECT_NAME = "com.focusbuddy:type=DatabaseHealth";
+
+    private static HealthMonitor instance;
+
+    private final DatabaseManager manager;
+    private final boolean enabled;
+
+    // Ring buffer, oldest sample at (next - size); guarded by this
+    private final HealthSample[] samples;
+    private int next;
+    private int size;
+
+    // Totals at the previous sample; guarded by this
+    private long lastSampleNanos;
+    private PoolStats lastPool;
+    private long lastQueries;
+    private long lastQueryErrors;
+
+    private ScheduledExecutorService sampler; // guarded by this
+    private ScheduledFuture<?> task;          // guarded by this
+    private volatile long intervalMs;
+    private boolean registered;               // guarded by this
+
+    private HealthMonitor() {
+        this(DatabaseManager.getInstance(),
+                ConfigManager.getInstance().getBooleanProperty("db.health.enabled", true),
+                ConfigManager.getInstance().getIntProperty("db.health.samples", 600),
+                ConfigManager.getInstance().getLongProperty("db.health.sampleIntervalMs", 1000));
+    }
+
+    HealthMonitor(DatabaseManager manager, boolean enabled, int capacity, long intervalMs) {
+        this.manager = manager;
+        this.enabled = enabled;
+        this.samples = new HealthSample[Math.max(2, capacity)];
+        this.intervalMs = Math.max(100, intervalMs);
+    }
+
+    public static synchronized HealthMonitor getInstance() {
+        if (instance == null) {
+            instance = new HealthMonitor();
+        }
+        return instance;
+    }
+
+    /**
+     * Start sampling and register the MXBean.
+     */
+    public synchronized void start() {
+        if (!enabled || sampler != null) {
+            return;
+        }
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "focusbuddy-health-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        schedule();
+        registerMBean();
+        System.out.println("✅ Database health monitor started (every " + intervalMs + " ms)");
+    }
+
+    public synchronized void stop() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+            task = null;
+        }
+    }
+
+    private void schedule() {
+        if (task != null) {
+            task.cancel(false);
+        }
+        task = sampler.scheduleWithFixedDelay(this::sampleQuietly, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void sampleQuietly() {
+        try {
+            sample();
+        } catch (RuntimeException e) {
+            System.err.println("Health sample failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Take one sample now and add it to the buffer.
+     */
+    synchronized HealthSample sample() {
+        long now = System.nanoTime();
+        PoolStats pool = manager.getPoolStats();
+        QueryMetrics metrics = QueryMetrics.getInstance();
+        long queries = metrics.getTotalCount();
+        long queryErrors = metrics.getTotalErrors();
+
+        PoolStats before = lastPool != null ? lastPool : pool;
+        long borrows = delta(pool.borrowCount(), before.borrowCount());
+        double waitMs = delta(pool.averageBorrowWaitMs() * pool.borrowCount(),
+                before.averageBorrowWaitMs() * before.borrowCount());
+        HealthSample sample = new HealthSample(
+                System.currentTimeMillis(),
+                lastPool != null ? (now - lastSampleNanos) / 1_000_000_000.0 : 0.0,
+                pool.activeConnections(),
+                pool.idleConnections(),
+                pool.totalConnections(),
+                pool.maxSize(),
+                pool.waitingThreads(),
+                borrows,
+                borrows > 0 ? waitMs / borrows : 0.0,
+                delta(pool.borrowTimeouts(), before.borrowTimeouts()),
+                delta(pool.validationFailures(), before.validationFailures()),
+                lastPool != null ? delta(queries, lastQueries) : 0,
+                lastPool != null ? delta(queryErrors, lastQueryErrors) : 0,
+                manager.getCircuitBreaker().getState().name());
+
+        lastSampleNanos = now;
+        lastPool = pool;
+        lastQueries = queries;
+        lastQueryErrors = queryErrors;
+
+        samples[next] = sample;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+        return sample;
+    }
+
+    /**
+     * Counters start again from zero when the pool is replaced or the
+     * metrics are reset; count from there instead of going negative.
+     */
+    private static long delta(long now, long before) {
+        return now >= before ? now - before : now;
+    }
+
+    private static double delta(double now, double before) {
+        return now >= before ? now - before : now;
+    }
+
+    /**
+     * The retained samples, oldest first.
+     */
+    public synchronized List<HealthSample> getSamples() {
+        List<HealthSample> result = new ArrayList<>(size);
+        int start = next - size + samples.length;
+        for (int i = 0; i < size; i++) {
+            result.add(samples[(start + i) % samples.length]);
+        }
+        return result;
+    }
+
+    /**
+     * The most recent sample, or null before the first one.
+     */
+    public synchronized HealthSample getLatest() {
+        return size > 0 ? samples[(next - 1 + samples.length) % samples.length] : null;
+    }
+
+    public int getCapacity() {
+        return samples.length;
+    }
+
+    // =============== MXBEAN ===============
+
+    private void registerMBean() {
+        if (registered) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+            registered = true;
+        } catch (InstanceAlreadyExistsException e) {
+            registered = true;
+        } catch (JMException e) {
+            System.err.println("⚠️ Could not register the health MXBean: " + e.getMessage());
+        }
+    }
+
+    private HealthSample latestOrEmpty() {
+        HealthSample latest = getLatest();
+        return latest != null ? latest
+                : new HealthSample(0, 0.0, 0, 0, 0, 0, 0, 0, 0.0, 0, 0, 0, 0, "UNKNOWN");
+    }
+
+    @Override
+    public int getActiveConnections() { return latestOrEmpty().activeConnections(); }
+
+    @Override
+    public int getIdleConnections() { return latestOrEmpty().idleConnections(); }
+
+    @Override
+    public int getMaxConnections() { return latestOrEmpty().maxConnections(); }
+
+    @Override
+    public int getWaitingThreads() { return latestOrEmpty().waitingThreads(); }
+
+    @Override
+    public double getPoolUtilization() { return latestOrEmpty().poolUtilization(); }
+
+    @Override
+    public double getBorrowWaitMs() { return latestOrEmpty().borrowWaitMs(); }
+
+    @Override
+    public long getBorrowTimeouts() { return latestOrEmpty().borrowTimeouts(); }
+
+    @Override
+    public long getValidationFailures() { return latestOrEmpty().validationFailures(); }
+
+    @Override
+    public double getQueriesPerSecond() { return latestOrEmpty().queriesPerSecond(); }
+
+    @Override
+    public double getErrorRate() { return latestOrEmpty().errorRate(); }
+
+    @Override
+    public String getCircuitState() { return latestOrEmpty().circuitState(); }
+
+    @Override
+    public synchronized int getSampleCount() { return size; }
+
+    @Override
+    public long getSampleIntervalMs() { return intervalMs; }
+
+    @Override
+    public synchronized void setSampleIntervalMs(long intervalMs) {
+        this.intervalMs = Math.max(100, intervalMs);
+        if (sampler != null) {
+            schedule();
+        }
+    }
+
+    @Override
+    public String[] getRecentSamples() {
+        return getSamples().stream()
+                .map(sample -> Instant.ofEpochMilli(sample.timestampMillis()) + " " + sample)
+                .toArray(String[]::new);
+    }
+}
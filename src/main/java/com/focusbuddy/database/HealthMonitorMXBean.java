@@ -0,0 +1,41 @@
+package com.focusbuddy.database;
+
+/**
+ * JMX view of the latest {@link HealthMonitor} sample, registered as
+ * {@value HealthMonitor#OBJECT_NAME}. Rates are per sampling interval.
+ */
+public interface HealthMonitorMXBean {
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getMaxConnections();
+
+    int getWaitingThreads();
+
+    double getPoolUtilization();
+
+    double getBorrowWaitMs();
+
+    long getBorrowTimeouts();
+
+    long getValidationFailures();
+
+    double getQueriesPerSecond();
+
+    double getErrorRate();
+
+    String getCircuitState();
+
+    int getSampleCount();
+
+    long getSampleIntervalMs();
+
+    void setSampleIntervalMs(long intervalMs);
+
+    /**
+     * The retained samples, oldest first, one per line.
+     */
+    String[] getRecentSamples();
+}
@@ -0,0 +1,51 @@
+package com.focusbuddy.database;
+
+/**
+ * Database health over one sampling interval of the {@link HealthMonitor}.
+ * Pool sizes are taken at the end of the interval; counts are what happened
+ * during it.
+ *
+ * @param borrowWaitMs average time a borrow waited for a connection
+ * @param circuitState the {@link CircuitBreaker} state at the end of the interval
+ */
+public record HealthSample(
+        long timestampMillis,
+        double intervalSeconds,
+        int activeConnections,
+        int idleConnections,
+        int totalConnections,
+        int maxConnections,
+        int waitingThreads,
+        long borrows,
+        double borrowWaitMs,
+        long borrowTimeouts,
+        long validationFailures,
+        long queries,
+        long queryErrors,
+        String circuitState) {
+
+    /**
+     * Fraction of the pool's maximum size that is borrowed.
+     */
+    public double poolUtilization() {
+        return maxConnections > 0 ? (double) activeConnections / maxConnections : 0.0;
+    }
+
+    public double queriesPerSecond() {
+        return intervalSeconds > 0 ? queries / intervalSeconds : 0.0;
+    }
+
+    /**
+     * Fraction of the interval's statements that failed.
+     */
+    public double errorRate() {
+        return queries > 0 ? (double) queryErrors / queries : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d/%d, idle=%d, waiting=%d, borrows=%d, wait=%.2fms, timeouts=%d, validationFailures=%d, queries=%.1f/s, errors=%.1f%%, breaker=%s",
+                activeConnections, maxConnections, idleConnections, waitingThreads, borrows, borrowWaitMs,
+                borrowTimeouts, validationFailures, queriesPerSecond(), errorRate() * 100, circuitState);
+    }
+}
@@ -0,0 +1,193 @@
+package com.focusbuddy.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Wraps the statements handed out by a pooled connection.
+ *
+ * - Times every execute call and reports it to {@link QueryMetrics}, together
+ *   with the types of the bound parameters.
+ * - Translates SQL passed directly to execute/addBatch through the dialect
+ *   (prepared statements are translated when they are prepared).
+ * - getConnection() returns the lease proxy rather than the physical connection.
+ * - Hands executed SQL and its bound values to an active {@link QueryCapture}.
+ */
+class InstrumentedStatement implements InvocationHandler {
+    // Statement methods whose first argument is SQL text
+    private static final Set<String> SQL_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "addBatch");
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final Statement target;
+    private final Connection owner;
+    private final SqlDialect dialect;
+    private final QueryMetrics metrics; // null when metrics are disabled
+    private final String preparedSql;   // null for plain statements
+
+    // Parameter index -> type, e.g. 1 -> INT, 2 -> STRING(12)
+    private final TreeMap<Integer, String> parameterShapes = new TreeMap<>();
+    // Bound values, only kept while a QueryCapture is active on the thread
+    private final TreeMap<Integer, Object> parameterValues = new TreeMap<>();
+    private String lastBatchSql;
+    private int batchRows;
+
+    private InstrumentedStatement(Statement target, Connection owner, SqlDialect dialect,
+                                  QueryMetrics metrics, String preparedSql) {
+        this.target = target;
+        this.owner = owner;
+        this.dialect = dialect;
+        this.metrics = metrics;
+        this.preparedSql = preparedSql;
+    }
+
+    /**
+     * @param preparedSql the SQL as written by the caller (before translation),
+     *                    or null for a plain Statement
+     */
+    static Statement wrap(Statement target, Connection owner, SqlDialect dialect,
+                          QueryMetrics metrics, String preparedSql) {
+        Class<?> type = target instanceof CallableStatement ? CallableStatement.class
+                : target instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[]{type},
+                new InstrumentedStatement(target, owner, dialect, metrics, preparedSql));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "getConnection" -> {
+                return owner;
+            }
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            case "unwrap" -> {
+                if (((Class<?>) args[0]).isInstance(target)) {
+                    return target;
+                }
+            }
+            default -> { }
+        }
+
+        String sql = preparedSql;
+        if (args != null && args.length > 0 && args[0] instanceof String text && SQL_METHODS.contains(name)) {
+            sql = text;
+            args[0] = dialect.translate(text);
+        }
+
+        QueryCapture capture = QueryCapture.current();
+        if (capture != null) {
+            captureParameters(capture, name, args, sql);
+        }
+
+        if (metrics != null) {
+            trackParameters(name, args, sql);
+            if (EXECUTE_METHODS.contains(name)) {
+                // A plain Statement's batch is reported under the last SQL added to it
+                return timedInvoke(method, args, sql != null ? sql : lastBatchSql);
+            }
+        }
+        return invokeTarget(method, args);
+    }
+
+    private Object timedInvoke(Method method, Object[] args, String sql) throws Throwable {
+        String shapes = describeParameters();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = invokeTarget(method, args);
+            failed = false;
+            return result;
+        } finally {
+            if (sql != null) {
+                metrics.record(sql, System.nanoTime() - start, failed, shapes);
+            }
+            if (method.getName().endsWith("Batch")) {
+                batchRows = 0;
+                lastBatchSql = null;
+            }
+        }
+    }
+
+    private void trackParameters(String name, Object[] args, String sql) {
+        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+            parameterShapes.put(index, shapeOf(name, args[1]));
+        } else if ("clearParameters".equals(name)) {
+            parameterShapes.clear();
+        } else if ("addBatch".equals(name)) {
+            batchRows++;
+            if (sql != null) {
+                lastBatchSql = sql;
+            }
+        } else if ("clearBatch".equals(name)) {
+            batchRows = 0;
+            lastBatchSql = null;
+        }
+    }
+
+    private void captureParameters(QueryCapture capture, String name, Object[] args, String sql) {
+        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+            parameterValues.put(index, "setNull".equals(name) ? null : args[1]);
+        } else if ("clearParameters".equals(name)) {
+            parameterValues.clear();
+        } else if (EXECUTE_METHODS.contains(name) && sql != null) {
+            List<Object> values = new ArrayList<>();
+            int count = parameterValues.isEmpty() ? 0 : parameterValues.lastKey();
+            for (int i = 1; i <= count; i++) {
+                values.add(parameterValues.get(i));
+            }
+            capture.add(sql, values);
+        }
+    }
+
+    private String describeParameters() {
+        if (parameterShapes.isEmpty() && batchRows == 0) {
+            return null;
+        }
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        parameterShapes.values().forEach(joiner::add);
+        return batchRows > 0 ? joiner + " x " + batchRows + " rows" : joiner.toString();
+    }
+
+    /**
+     * Type of a bound value without its contents, e.g. setString -> STRING(12).
+     */
+    private static String shapeOf(String setter, Object value) {
+        if (value == null || "setNull".equals(setter)) {
+            return "NULL";
+        }
+        String type = setter.substring(3).toUpperCase();
+        if (value instanceof String text) {
+            return type + "(" + text.length() + ")";
+        }
+        return type;
+    }
+
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
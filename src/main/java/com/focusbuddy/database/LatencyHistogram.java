@@ -0,0 +1,78 @@
+package com.focusbuddy.database;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe latency histogram with fixed millisecond buckets.
+ * Percentiles are estimated as the upper bound of the bucket they fall in.
+ */
+class LatencyHistogram {
+    /** Upper bounds (inclusive) of each bucket in ms; the last bucket is open-ended. */
+    static final double[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long elapsedNanos, boolean failed) {
+        double ms = elapsedNanos / 1_000_000.0;
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MS.length && ms > BUCKET_BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalNanos.addAndGet(elapsedNanos);
+        maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        if (failed) {
+            errors.incrementAndGet();
+        }
+    }
+
+    void recordRetry() {
+        retries.incrementAndGet();
+    }
+
+    long count() {
+        return count.get();
+    }
+
+    long errors() {
+        return errors.get();
+    }
+
+    QueryStats snapshot(String sql) {
+        long[] counts = new long[buckets.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+        }
+        long n = count.get();
+        double totalMs = totalNanos.get() / 1_000_000.0;
+        double maxMs = maxNanos.get() / 1_000_000.0;
+        return new QueryStats(sql, n, errors.get(), retries.get(), totalMs, n > 0 ? totalMs / n : 0.0, maxMs,
+                percentile(counts, n, 0.50, maxMs),
+                percentile(counts, n, 0.95, maxMs),
+                percentile(counts, n, 0.99, maxMs),
+                counts);
+    }
+
+    private static double percentile(long[] counts, long total, double quantile, double maxMs) {
+        if (total == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // Never report more than the slowest call actually seen
+                return i < BUCKET_BOUNDS_MS.length ? Math.min(BUCKET_BOUNDS_MS[i], maxMs) : maxMs;
+            }
+        }
+        return maxMs;
+    }
+}
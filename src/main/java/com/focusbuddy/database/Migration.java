@@ -0,0 +1,52 @@
+package com.focusbuddy.database;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * One versioned schema change. Versions are applied in ascending order and
+ * recorded in the schema_migrations table together with a checksum of the SQL,
+ * so edits to an already-applied migration are noticed.
+ *
+ * @param version    unique, increasing version number
+ * @param name       short description, also the legacy `migrations` table key
+ * @param statements SQL statements in MySQL syntax (translated by the dialect)
+ * @param dialect    name of the only {@link SqlDialect} the statements run on,
+ *                   or null for every backend
+ */
+public record Migration(int version, String name, List<String> statements, String dialect) {
+
+    public Migration {
+        statements = List.copyOf(statements);
+    }
+
+    public static Migration of(int version, String name, String... statements) {
+        return new Migration(version, name, List.of(statements), null);
+    }
+
+    /**
+     * A migration for features only one backend has (e.g. MySQL partitioning).
+     * Other backends record it as applied without running it.
+     */
+    public static Migration forDialect(String dialect, int version, String name, String... statements) {
+        return new Migration(version, name, List.of(statements), dialect);
+    }
+
+    public boolean appliesTo(SqlDialect sqlDialect) {
+        return dialect == null || dialect.equals(sqlDialect.getName());
+    }
+
+    /**
+     * CRC32 of the statements with whitespace normalized, so reformatting a
+     * script does not count as a change.
+     */
+    public String checksum() {
+        CRC32 crc = new CRC32();
+        for (String statement : statements) {
+            crc.update(statement.trim().replaceAll("\\s+", " ").getBytes(StandardCharsets.UTF_8));
+            crc.update(';');
+        }
+        return Long.toHexString(crc.getValue());
+    }
+}
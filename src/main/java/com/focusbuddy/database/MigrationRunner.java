@@ -0,0 +1,193 @@
+package com.focusbuddy.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Brings the schema up to date at startup.
+ *
+ * Applied versions live in schema_migrations. When every known migration is
+ * already recorded, startup costs a single SELECT and no DDL runs at all.
+ * Otherwise the pending migrations run in version order and each one is
+ * recorded with its checksum and execution time.
+ *
+ * Databases created before this runner existed have their changes listed in
+ * the old `migrations` table by name; those are recorded as applied without
+ * running them again.
+ */
+public class MigrationRunner {
+    // SQLState for "duplicate column name" (MySQL error 1060, H2 42121)
+    private static final String DUPLICATE_COLUMN = "42S21";
+    // SQLStates for "table not found" (MySQL error 1146 and H2 42102 are 42S02,
+    // H2 42104 on a still empty database is 42S04)
+    private static final Set<String> TABLE_NOT_FOUND = Set.of("42S02", "42S04");
+
+    private static final String CREATE_HISTORY_TABLE = """
+            CREATE TABLE IF NOT EXISTS schema_migrations (
+                version INT PRIMARY KEY,
+                name VARCHAR(255) NOT NULL,
+                checksum VARCHAR(16) NOT NULL,
+                execution_ms BIGINT NOT NULL,
+                applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """;
+
+    private final SqlDialect dialect;
+    private final List<Migration> migrations;
+
+    public MigrationRunner(SqlDialect dialect) {
+        this(dialect, SchemaMigrations.ALL);
+    }
+
+    MigrationRunner(SqlDialect dialect, List<Migration> migrations) {
+        this.dialect = dialect;
+        this.migrations = migrations;
+    }
+
+    /**
+     * Apply all pending migrations.
+     * @return number of migrations applied (0 when the schema was current)
+     */
+    public int migrate(Connection conn) throws SQLException {
+        Map<Integer, String> applied = readAppliedVersions(conn);
+        if (applied != null && isCurrent(applied)) {
+            return 0;
+        }
+
+        if (applied == null) {
+            // First run of the runner on this database
+            for (String statement : dialect.getBootstrapStatements()) {
+                execute(conn, statement);
+            }
+            execute(conn, CREATE_HISTORY_TABLE);
+            applied = new HashMap<>();
+        }
+
+        Set<String> legacy = readLegacyMigrations(conn);
+        int count = 0;
+        for (Migration migration : migrations) {
+            if (applied.containsKey(migration.version())) {
+                continue;
+            }
+
+            long start = System.currentTimeMillis();
+            if (legacy.contains(migration.name())) {
+                System.out.println("Migration " + migration.version() + " (" + migration.name()
+                        + ") already applied by legacy runner, recording it");
+            } else if (!migration.appliesTo(dialect)) {
+                System.out.println("Migration " + migration.version() + " (" + migration.name()
+                        + ") is for " + migration.dialect() + " only, recording it as skipped");
+            } else {
+                for (String statement : migration.statements()) {
+                    executeTolerant(conn, statement);
+                }
+            }
+            long elapsed = System.currentTimeMillis() - start;
+
+            record(conn, migration, elapsed);
+            count++;
+            System.out.println("✅ Applied migration " + migration.version() + " (" + migration.name()
+                    + ") in " + elapsed + " ms");
+        }
+        return count;
+    }
+
+    /**
+     * The latest version this build knows about.
+     */
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+    }
+
+    /**
+     * @return version to checksum, or null if the history table does not exist yet
+     * @throws SQLException for any other failure, so a dropped connection does
+     *         not pass for a new database and run every migration again
+     */
+    private Map<Integer, String> readAppliedVersions(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+            return applied;
+        } catch (SQLException e) {
+            if (isTableNotFound(e)) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private boolean isCurrent(Map<Integer, String> applied) {
+        boolean current = true;
+        for (Migration migration : migrations) {
+            String checksum = applied.get(migration.version());
+            if (checksum == null) {
+                current = false;
+            } else if (!checksum.equals(migration.checksum())) {
+                System.err.println("⚠️ Migration " + migration.version() + " (" + migration.name()
+                        + ") changed after it was applied (checksum " + checksum + " -> "
+                        + migration.checksum() + "); add a new migration instead of editing it");
+            }
+        }
+        return current;
+    }
+
+    private Set<String> readLegacyMigrations(Connection conn) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT migration_name FROM migrations")) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            if (!isTableNotFound(e)) {
+                throw e;
+            }
+            // No legacy table: the database was created by this runner
+        }
+        return names;
+    }
+
+    private static boolean isTableNotFound(SQLException e) {
+        return TABLE_NOT_FOUND.contains(e.getSQLState());
+    }
+
+    private void executeTolerant(Connection conn, String sql) throws SQLException {
+        try {
+            execute(conn, sql);
+        } catch (SQLException e) {
+            if (!DUPLICATE_COLUMN.equals(e.getSQLState())) {
+                throw e;
+            }
+            // Column already present on databases that predate the migration
+        }
+    }
+
+    private void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private void record(Connection conn, Migration migration, long elapsedMs) throws SQLException {
+        String query = "INSERT INTO schema_migrations (version, name, checksum, execution_ms) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, migration.version());
+            stmt.setString(2, migration.name());
+            stmt.setString(3, migration.checksum());
+            stmt.setLong(4, elapsedMs);
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.focusbuddy.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Dialect for the MySQL server backend. The application's SQL is already
+ * MySQL syntax, so statements pass through unchanged.
+ */
+public class MySqlDialect implements SqlDialect {
+    public static final String NAME = "mysql";
+    public static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/focusbuddy";
+
+    // Driver options added to the configured URL unless it already sets them
+    private static final String[][] DEFAULT_OPTIONS = {
+            {"useSSL", "false"},
+            {"allowPublicKeyRetrieval", "true"},
+            {"serverTimezone", "UTC"},
+            {"useServerPrepStmts", "true"},
+            {"rewriteBatchedStatements", "true"}, // executeBatch on INSERTs becomes multi-row INSERTs
+            {"useCursorFetch", "true"}, // statements with a fetch size read through a server-side cursor
+            {"connectTimeout", "5000"} // an unreachable server fails in seconds, not the OS TCP timeout
+    };
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String decorateUrl(String url) {
+        StringBuilder decorated = new StringBuilder(url);
+        for (String[] option : DEFAULT_OPTIONS) {
+            if (!url.contains(option[0] + "=")) {
+                decorated.append(decorated.indexOf("?") < 0 ? '?' : '&')
+                        .append(option[0]).append('=').append(option[1]);
+            }
+        }
+        return decorated.toString();
+    }
+
+    @Override
+    public List<String> getBootstrapStatements() {
+        return List.of(
+                "CREATE DATABASE IF NOT EXISTS focusbuddy",
+                "USE focusbuddy"
+        );
+    }
+
+    @Override
+    public String translate(String sql) {
+        return sql;
+    }
+
+    @Override
+    public boolean rewritesSql() {
+        return false;
+    }
+
+    /**
+     * One EXPLAIN row per table access. type ALL (or index, a walk over a whole
+     * index) means no usable index; "Using filesort" means an extra sort pass.
+     * Derived tables are always scanned once materialized, so only their sort counts.
+     */
+    @Override
+    public QueryPlan readPlan(String sql, ResultSet rs) throws SQLException {
+        StringJoiner plan = new StringJoiner("\n  ");
+        boolean fullScan = false;
+        boolean filesort = false;
+        while (rs.next()) {
+            String table = rs.getString("table");
+            String type = rs.getString("type");
+            String key = rs.getString("key");
+            String extra = rs.getString("Extra");
+            plan.add(table + " type=" + type + " key=" + key + (extra != null ? " (" + extra + ")" : ""));
+
+            boolean derived = table != null && table.startsWith("<");
+            if (!derived && ("ALL".equals(type) || "index".equals(type))) {
+                fullScan = true;
+            }
+            if (extra != null && extra.contains("Using filesort")) {
+                filesort = true;
+            }
+        }
+        return new QueryPlan(sql, plan.toString(), fullScan, filesort);
+    }
+}
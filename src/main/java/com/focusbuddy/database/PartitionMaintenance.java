@@ -0,0 +1,224 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.utils.ConfigManager;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the monthly partitions of mood_entries and focus_sessions (created by
+ * migration 9, MySQL only) rolling on every shard.
+ *
+ * - Each month gets a partition pYYYYMM; partitions are added for the
+ *   current month and the next "db.partitions.monthsAhead" months by
+ *   splitting the open-ended p_future partition, so it stays empty and the
+ *   split is cheap.
+ * - With "db.partitions.retentionMonths" above 0, months older than that are
+ *   dropped. When "db.partitions.archive" is on, their rows are copied to
+ *   TABLE_archive first.
+ *
+ * Runs once at startup and then every "db.partitions.intervalHours".
+ * Databases whose tables are not partitioned (H2) are left alone.
+ */
+public class PartitionMaintenance {
+    static final String FUTURE = "p_future";
+    static final List<String> TABLES = List.of("mood_entries", "focus_sessions");
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static PartitionMaintenance instance;
+
+    private final DatabaseManager manager;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean archive;
+    private ScheduledExecutorService scheduler; // guarded by this
+
+    /**
+     * One partition of a table.
+     * @param upperBound first date not in the partition, or null for MAXVALUE
+     */
+    record Partition(String name, LocalDate upperBound) { }
+
+    private PartitionMaintenance() {
+        ConfigManager config = ConfigManager.getInstance();
+        this.manager = DatabaseManager.getInstance();
+        this.enabled = config.getBooleanProperty("db.partitions.enabled", true);
+        this.monthsAhead = Math.max(1, config.getIntProperty("db.partitions.monthsAhead", 3));
+        this.retentionMonths = Math.max(0, config.getIntProperty("db.partitions.retentionMonths", 0));
+        this.archive = config.getBooleanProperty("db.partitions.archive", true);
+    }
+
+    public static synchronized PartitionMaintenance getInstance() {
+        if (instance == null) {
+            instance = new PartitionMaintenance();
+        }
+        return instance;
+    }
+
+    /**
+     * Run now and then periodically in the background. Call once the schema is up to date.
+     */
+    public synchronized void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "focusbuddy-partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long hours = Math.max(1, ConfigManager.getInstance().getLongProperty("db.partitions.intervalHours", 24));
+        scheduler.scheduleWithFixedDelay(this::runQuietly, 0, hours, TimeUnit.HOURS);
+    }
+
+    private void runQuietly() {
+        try {
+            runOnce();
+        } catch (RuntimeException e) {
+            System.err.println("Partition maintenance failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Add and expire partitions on every shard now.
+     * @return number of ALTER statements run
+     */
+    public int runOnce() {
+        int statements = 0;
+        for (String shard : manager.getShardRouter().getShardNames()) {
+            try {
+                statements += manager.getShardRouter().onShard(shard, this::maintainShard);
+            } catch (SQLException e) {
+                System.err.println("⚠️ Partition maintenance skipped on shard " + shard + ": " + e.getMessage());
+            }
+        }
+        return statements;
+    }
+
+    private int maintainShard() throws SQLException {
+        try (Connection conn = manager.getConnection(AccessMode.READ_WRITE)) {
+            if (!"MySQL".equalsIgnoreCase(conn.getMetaData().getDatabaseProductName())) {
+                return 0;
+            }
+            int statements = 0;
+            for (String table : TABLES) {
+                statements += maintain(conn, table);
+            }
+            return statements;
+        }
+    }
+
+    private int maintain(Connection conn, String table) throws SQLException {
+        List<String> statements = plan(table, readPartitions(conn, table), LocalDate.now(),
+                monthsAhead, retentionMonths, archive);
+        for (String sql : statements) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(sql);
+            }
+        }
+        if (!statements.isEmpty()) {
+            System.out.println("✅ Partition maintenance on " + table + ": " + statements.size() + " statement(s)");
+        }
+        return statements.size();
+    }
+
+    /**
+     * The TABLE_archive tables that exist on this database (none where migration 9
+     * did not run). They hold user rows too, so deleting or moving a user has to
+     * cover them.
+     */
+    public static List<String> archiveTables(Connection conn) throws SQLException {
+        List<String> archives = new ArrayList<>();
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String table : TABLES) {
+            try (ResultSet rs = meta.getTables(conn.getCatalog(), null, table + "_archive", new String[]{"TABLE"})) {
+                if (rs.next()) {
+                    archives.add(table + "_archive");
+                }
+            }
+        }
+        return archives;
+    }
+
+    /**
+     * The table's partitions in order, or an empty list if it is not partitioned.
+     */
+    private static List<Partition> readPartitions(Connection conn, String table) throws SQLException {
+        String query = """
+                SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL
+                ORDER BY PARTITION_ORDINAL_POSITION
+                """;
+        List<Partition> partitions = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, table);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                // RANGE COLUMNS bounds come back quoted, e.g. '2025-01-01'
+                String bound = rs.getString(2).replace("'", "").trim();
+                partitions.add(new Partition(rs.getString(1),
+                        bound.equalsIgnoreCase("MAXVALUE") ? null : LocalDate.parse(bound)));
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * The statements that bring a table's partitions in line with the policy.
+     * Expects the layout of migration 9: bounded partitions followed by p_future.
+     */
+    static List<String> plan(String table, List<Partition> partitions, LocalDate today,
+                             int monthsAhead, int retentionMonths, boolean archive) {
+        List<String> statements = new ArrayList<>();
+        if (partitions.isEmpty() || !FUTURE.equals(partitions.get(partitions.size() - 1).name())) {
+            return statements;
+        }
+        List<Partition> bounded = partitions.subList(0, partitions.size() - 1);
+        LocalDate thisMonth = today.withDayOfMonth(1);
+
+        if (retentionMonths > 0) {
+            LocalDate cutoff = thisMonth.minusMonths(retentionMonths);
+            List<String> expired = new ArrayList<>();
+            for (Partition partition : bounded) {
+                if (!partition.upperBound().isAfter(cutoff)) {
+                    expired.add(partition.name());
+                }
+            }
+            if (!expired.isEmpty()) {
+                if (archive) {
+                    // INSERT IGNORE: a run interrupted before the drop copies the same rows again
+                    statements.add("INSERT IGNORE INTO " + table + "_archive SELECT * FROM " + table
+                            + " PARTITION (" + String.join(", ", expired) + ")");
+                }
+                statements.add("ALTER TABLE " + table + " DROP PARTITION " + String.join(", ", expired));
+            }
+        }
+
+        LocalDate end = thisMonth.plusMonths(monthsAhead + 1);
+        LocalDate month = bounded.isEmpty() ? thisMonth : bounded.get(bounded.size() - 1).upperBound();
+        List<String> added = new ArrayList<>();
+        for (; month.isBefore(end); month = month.plusMonths(1)) {
+            added.add("PARTITION " + PARTITION_NAME.format(month)
+                    + " VALUES LESS THAN ('" + month.plusMonths(1) + "')");
+        }
+        if (!added.isEmpty()) {
+            added.add("PARTITION " + FUTURE + " VALUES LESS THAN (MAXVALUE)");
+            statements.add("ALTER TABLE " + table + " REORGANIZE PARTITION " + FUTURE
+                    + " INTO (" + String.join(", ", added) + ")");
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,108 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.utils.ConfigManager;
+
+/**
+ * Sizing and timing settings for {@link ConnectionPool}.
+ * Values are read from {@link ConfigManager} (keys prefixed with "db.pool.").
+ */
+public class PoolConfig {
+
+    /**
+     * When a connection is checked with isValid() before being handed out.
+     */
+    public enum ValidationMode {
+        ALWAYS,   // every borrow (one extra round trip per borrow)
+        IDLE,     // only connections unused for longer than validationIdleMs
+        NEVER     // rely on keepalive and on callers surfacing errors
+    }
+
+    public static final int DEFAULT_MIN_SIZE = 2;
+    public static final int DEFAULT_MAX_SIZE = 10;
+    public static final long DEFAULT_IDLE_TIMEOUT_MS = 300_000;
+    public static final long DEFAULT_BORROW_TIMEOUT_MS = 10_000;
+    public static final long DEFAULT_LEAK_DETECTION_MS = 60_000;
+    public static final long DEFAULT_HOUSEKEEPING_INTERVAL_MS = 30_000;
+    public static final int DEFAULT_VALIDATION_TIMEOUT_SECONDS = 5;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+    public static final ValidationMode DEFAULT_VALIDATION_MODE = ValidationMode.IDLE;
+    public static final long DEFAULT_VALIDATION_IDLE_MS = 30_000;
+    public static final long DEFAULT_KEEPALIVE_MS = 120_000;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final long borrowTimeoutMs;
+    private final long leakDetectionMs;
+    private final long housekeepingIntervalMs;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+    private final ValidationMode validationMode;
+    private final long validationIdleMs;
+    private final long keepaliveMs;
+
+    public PoolConfig(int minSize, int maxSize, long idleTimeoutMs, long borrowTimeoutMs,
+                      long leakDetectionMs, long housekeepingIntervalMs, int validationTimeoutSeconds,
+                      int statementCacheSize, ValidationMode validationMode, long validationIdleMs,
+                      long keepaliveMs) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool max size must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.minSize = Math.max(0, Math.min(minSize, maxSize));
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.leakDetectionMs = leakDetectionMs;
+        this.housekeepingIntervalMs = housekeepingIntervalMs;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        this.validationMode = validationMode != null ? validationMode : DEFAULT_VALIDATION_MODE;
+        this.validationIdleMs = Math.max(0, validationIdleMs);
+        this.keepaliveMs = Math.max(0, keepaliveMs);
+    }
+
+    /**
+     * Build the pool settings from the application configuration,
+     * falling back to the defaults above for missing or invalid values.
+     */
+    public static PoolConfig fromConfig() {
+        ConfigManager config = ConfigManager.getInstance();
+        return new PoolConfig(
+                config.getIntProperty("db.pool.minSize", DEFAULT_MIN_SIZE),
+                config.getIntProperty("db.pool.maxSize", DEFAULT_MAX_SIZE),
+                config.getLongProperty("db.pool.idleTimeoutMs", DEFAULT_IDLE_TIMEOUT_MS),
+                config.getLongProperty("db.pool.borrowTimeoutMs", DEFAULT_BORROW_TIMEOUT_MS),
+                config.getLongProperty("db.pool.leakDetectionMs", DEFAULT_LEAK_DETECTION_MS),
+                config.getLongProperty("db.pool.housekeepingIntervalMs", DEFAULT_HOUSEKEEPING_INTERVAL_MS),
+                config.getIntProperty("db.pool.validationTimeoutSeconds", DEFAULT_VALIDATION_TIMEOUT_SECONDS),
+                config.getIntProperty("db.pool.statementCacheSize", DEFAULT_STATEMENT_CACHE_SIZE),
+                parseValidationMode(config.getProperty("db.pool.validation", DEFAULT_VALIDATION_MODE.name())),
+                config.getLongProperty("db.pool.validationIdleMs", DEFAULT_VALIDATION_IDLE_MS),
+                config.getLongProperty("db.pool.keepaliveMs", DEFAULT_KEEPALIVE_MS)
+        );
+    }
+
+    private static ValidationMode parseValidationMode(String value) {
+        try {
+            return ValidationMode.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown db.pool.validation mode '" + value + "', using " + DEFAULT_VALIDATION_MODE);
+            return DEFAULT_VALIDATION_MODE;
+        }
+    }
+
+    public int getMinSize() { return minSize; }
+    public int getMaxSize() { return maxSize; }
+    public long getIdleTimeoutMs() { return idleTimeoutMs; }
+    public long getBorrowTimeoutMs() { return borrowTimeoutMs; }
+    public long getLeakDetectionMs() { return leakDetectionMs; }
+    public long getHousekeepingIntervalMs() { return housekeepingIntervalMs; }
+    public int getValidationTimeoutSeconds() { return validationTimeoutSeconds; }
+    /** Prepared statements cached per connection; 0 disables the cache. */
+    public int getStatementCacheSize() { return statementCacheSize; }
+    public ValidationMode getValidationMode() { return validationMode; }
+    /** With ValidationMode.IDLE, connections unused for longer than this are validated on borrow. */
+    public long getValidationIdleMs() { return validationIdleMs; }
+    /** Interval of the background keepalive check on idle connections; 0 disables it. */
+    public long getKeepaliveMs() { return keepaliveMs; }
+}
@@ -0,0 +1,40 @@
+package com.focusbuddy.database;
+
+/**
+ * Point-in-time snapshot of {@link ConnectionPool} usage.
+ */
+public record PoolStats(
+        int totalConnections,
+        int activeConnections,
+        int idleConnections,
+        int waitingThreads,
+        int maxSize,
+        long borrowCount,
+        long createdCount,
+        long destroyedCount,
+        long borrowTimeouts,
+        long leaksDetected,
+        double averageBorrowWaitMs,
+        long statementCacheHits,
+        long statementCacheMisses,
+        long statementCacheEvictions,
+        long validations,
+        long validationFailures) {
+
+    /**
+     * Fraction of prepareStatement calls served from the statement cache.
+     */
+    public double statementCacheHitRatio() {
+        long lookups = statementCacheHits + statementCacheMisses;
+        return lookups > 0 ? (double) statementCacheHits / lookups : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("total=%d, active=%d, idle=%d, waiting=%d, max=%d, borrows=%d, created=%d, destroyed=%d, timeouts=%d, leaks=%d, avgWait=%.2fms, stmtCache=%d/%d hits (%.0f%%), validations=%d (%d failed)",
+                totalConnections, activeConnections, idleConnections, waitingThreads, maxSize,
+                borrowCount, createdCount, destroyedCount, borrowTimeouts, leaksDetected, averageBorrowWaitMs,
+                statementCacheHits, statementCacheHits + statementCacheMisses, statementCacheHitRatio() * 100,
+                validations, validationFailures);
+    }
+}
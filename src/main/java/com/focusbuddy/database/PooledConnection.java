@@ -0,0 +1,293 @@
+package com.focusbuddy.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A physical connection owned by {@link ConnectionPool}.
+ *
+ * Callers never see the physical connection directly. Each borrow gets a fresh
+ * proxy ("lease") whose close() hands the connection back to the pool, so the
+ * usual try-with-resources pattern in the services keeps working unchanged.
+ * prepareStatement(sql) calls are served from a per-connection {@link StatementCache}
+ * so the hot service queries are parsed once per physical connection.
+ * SQL passed to the lease is run through the pool's {@link SqlDialect} first,
+ * so MySQL-syntax service queries also work on the embedded backend, and
+ * statements are wrapped so their executions are timed by {@link QueryMetrics}.
+ */
+class PooledConnection {
+    private final ConnectionPool pool;
+    private final Connection physical;
+    private final SqlDialect dialect;
+    private final StatementCache statementCache; // null when caching is disabled
+    private final long createdAt;
+
+    private volatile long lastReturnedAt;
+    private volatile long lastValidatedAt;
+    private volatile long borrowedAt;
+    private volatile Throwable borrowTrace;
+    private volatile boolean leakReported;
+    private Lease currentLease;
+    // Set when the borrower calls setReadOnly. Asking the driver instead costs
+    // a round trip on MySQL (SELECT @@session.transaction_read_only) per release.
+    private volatile boolean readOnlyChanged;
+
+    // Statements opened during the current lease; closed when the lease ends
+    private final List<Statement> openStatements = new ArrayList<>();
+
+    PooledConnection(ConnectionPool pool, Connection physical, SqlDialect dialect, StatementCache statementCache) {
+        this.pool = pool;
+        this.physical = physical;
+        this.dialect = dialect;
+        this.statementCache = statementCache;
+        this.createdAt = System.currentTimeMillis();
+        this.lastReturnedAt = createdAt;
+    }
+
+    Connection getPhysical() {
+        return physical;
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    long getLastReturnedAt() {
+        return lastReturnedAt;
+    }
+
+    /**
+     * Last moment the connection was known to work: returned by a borrower or validated.
+     */
+    long getLastActivityAt() {
+        return Math.max(lastReturnedAt, lastValidatedAt);
+    }
+
+    void markValidated() {
+        lastValidatedAt = System.currentTimeMillis();
+    }
+
+    long getBorrowedAt() {
+        return borrowedAt;
+    }
+
+    Throwable getBorrowTrace() {
+        return borrowTrace;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void markLeakReported() {
+        leakReported = true;
+    }
+
+    /**
+     * Start a new lease and return the proxy handed to the caller.
+     * @param captureTrace record the borrower's stack for leak reports
+     * @param onReturn     runs when the borrower closes the connection, or null
+     */
+    synchronized Connection lease(boolean captureTrace, Runnable onReturn) {
+        borrowedAt = System.currentTimeMillis();
+        borrowTrace = captureTrace ? new Throwable("Connection borrowed here") : null;
+        leakReported = false;
+        currentLease = new Lease(QueryScope.current(), onReturn);
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                currentLease);
+    }
+
+    /**
+     * Clean up after a lease so the next borrower gets a connection in its default state.
+     * @return false if the connection is no longer usable and should be discarded
+     */
+    synchronized boolean resetForReuse() {
+        closeOpenStatements();
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (readOnlyChanged) {
+                physical.setReadOnly(false);
+                readOnlyChanged = false;
+            }
+            physical.clearWarnings();
+            lastReturnedAt = System.currentTimeMillis();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Discarding pooled connection after failed reset: " + e.getMessage());
+            return false;
+        }
+    }
+
+    void closePhysical() {
+        closeOpenStatements();
+        if (statementCache != null) {
+            statementCache.clear();
+        }
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            // Already broken, nothing else to do
+        }
+    }
+
+    private void closeOpenStatements() {
+        for (Statement statement : openStatements) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // Ignore, the statement may already be closed
+            }
+        }
+        openStatements.clear();
+    }
+
+    private synchronized void trackStatement(Statement statement) {
+        openStatements.add(statement);
+    }
+
+    /**
+     * Abort the statements of a lease that is still active (called from another thread).
+     */
+    private synchronized void cancelStatements(Lease lease) {
+        if (currentLease != lease) {
+            return; // already returned; the statements may belong to the next borrower
+        }
+        for (Statement statement : openStatements) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                // Not executing or not cancellable, nothing to do
+            }
+        }
+    }
+
+    /**
+     * Invocation handler behind a single borrow of this connection.
+     */
+    private class Lease implements InvocationHandler {
+        private final QueryScope scope;
+        private final Runnable canceller = () -> cancelStatements(this);
+        private final Runnable onReturn;
+        private boolean returned;
+
+        Lease(QueryScope scope, Runnable onReturn) {
+            this.scope = scope;
+            this.onReturn = onReturn;
+            if (scope != null) {
+                scope.register(canceller);
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            switch (name) {
+                case "close" -> {
+                    returnToPool();
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledConnection[" + physical + (returned ? ", returned" : "") + "]";
+                }
+                case "unwrap" -> {
+                    if (((Class<?>) args[0]).isInstance(physical)) {
+                        return physical;
+                    }
+                }
+                default -> { }
+            }
+
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (scope != null && scope.isCancelled()) {
+                throw new SQLException("Query cancelled: " + scope.getName() + " was closed", "57014");
+            }
+
+            if ("setReadOnly".equals(name)) {
+                readOnlyChanged = true;
+            }
+
+            String sql = null;
+            if (args != null && args.length > 0 && args[0] instanceof String text && isSqlMethod(name)) {
+                sql = text;
+                args[0] = dialect.translate(text);
+            }
+
+            Object result;
+            if (isCacheablePrepare(name, args)) {
+                Integer autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : null;
+                result = statementCache.prepare(physical, (Connection) proxy, (String) args[0], autoGeneratedKeys);
+            } else {
+                try {
+                    result = method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+
+            if (result instanceof Statement statement) {
+                trackStatement(statement);
+                QueryMetrics metrics = QueryMetrics.getInstance();
+                if (metrics.isEnabled() || (sql == null && dialect.rewritesSql()) || QueryCapture.current() != null) {
+                    // Plain statements receive their SQL later, so it is translated at execute time
+                    return InstrumentedStatement.wrap(statement, (Connection) proxy, dialect,
+                            metrics.isEnabled() ? metrics : null, sql);
+                }
+            }
+            return result;
+        }
+
+        private boolean isSqlMethod(String name) {
+            return "prepareStatement".equals(name) || "prepareCall".equals(name) || "nativeSQL".equals(name);
+        }
+
+        private boolean isCacheablePrepare(String name, Object[] args) {
+            return statementCache != null
+                    && "prepareStatement".equals(name)
+                    && (args.length == 1 || (args.length == 2 && args[1] instanceof Integer));
+        }
+
+        private void returnToPool() {
+            synchronized (PooledConnection.this) {
+                if (returned || currentLease != this) {
+                    return;
+                }
+                returned = true;
+                currentLease = null;
+            }
+            if (scope != null) {
+                scope.unregister(canceller);
+            }
+            pool.release(PooledConnection.this);
+            if (onReturn != null) {
+                onReturn.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.utils.ConfigManager;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-through cache for small query results such as counts and category lists.
+ *
+ * Entries are keyed by SQL and parameters, tagged with the table they read and
+ * the user they belong to, and evicted least-recently-used beyond
+ * "db.cache.maxEntries". Services invalidate a table for one user after writing
+ * to it; entries also expire after "db.cache.ttlSeconds" so results that depend
+ * on the current date (overdue counts, streaks) roll over.
+ *
+ * Only cache immutable values: lists are stored and returned as unmodifiable copies.
+ */
+public class QueryCache {
+    private static QueryCache instance;
+
+    /**
+     * Loads a value on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws SQLException;
+    }
+
+    private record Key(String sql, List<Object> params) {}
+
+    private record Entry(Object value, String table, int userId, long expiresAt) {}
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries;
+    // Bumped on every invalidation; a load that overlapped one is not stored
+    private final Map<String, Long> tableVersions = new LinkedHashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    private QueryCache() {
+        ConfigManager config = ConfigManager.getInstance();
+        this.enabled = config.getBooleanProperty("db.cache.enabled", true);
+        this.maxEntries = Math.max(1, config.getIntProperty("db.cache.maxEntries", 1000));
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(1, config.getIntProperty("db.cache.ttlSeconds", 60)));
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static synchronized QueryCache getInstance() {
+        if (instance == null) {
+            instance = new QueryCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Return the cached result for this SQL and parameters, or load and cache it.
+     * @param table  the table the query reads, used for invalidation
+     * @param userId the user whose rows the query reads
+     */
+    public <T> T getOrLoad(String table, int userId, String sql, List<?> params, Loader<T> loader) throws SQLException {
+        if (!enabled) {
+            return loader.load();
+        }
+
+        Key key = new Key(sql, Collections.unmodifiableList(new ArrayList<>(params))); // params may hold nulls
+        long version;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt() - System.nanoTime() > 0) {
+                hits++;
+                @SuppressWarnings("unchecked")
+                T value = (T) entry.value();
+                return value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses++;
+            version = tableVersions.getOrDefault(table, 0L);
+        }
+
+        T value = immutable(loader.load());
+
+        synchronized (this) {
+            if (value != null && tableVersions.getOrDefault(table, 0L) == version) {
+                entries.put(key, new Entry(value, table, userId, System.nanoTime() + ttlNanos));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drop cached results of one user's rows in a table. Call after the write commits.
+     */
+    public synchronized void invalidate(String table, int userId) {
+        removeMatching(table, userId);
+    }
+
+    /**
+     * Drop every cached result of a table, for writes where the user is not known.
+     */
+    public synchronized void invalidateTable(String table) {
+        removeMatching(table, null);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        tableVersions.clear();
+        hits = misses = evictions = invalidations = 0;
+    }
+
+    public synchronized QueryCacheStats getStats() {
+        return new QueryCacheStats(hits, misses, evictions, invalidations, entries.size(), maxEntries);
+    }
+
+    private void removeMatching(String table, Integer userId) {
+        tableVersions.merge(table, 1L, Long::sum);
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.table().equals(table) && (userId == null || entry.userId() == userId)) {
+                it.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T immutable(T value) {
+        if (value instanceof List<?> list) {
+            return (T) List.copyOf(new ArrayList<>(list));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,24 @@
+package com.focusbuddy.database;
+
+/**
+ * Counters of the {@link QueryCache} since startup (or the last clear).
+ */
+public record QueryCacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        long invalidations,
+        int size,
+        int maxEntries) {
+
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups > 0 ? (double) hits / lookups : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Query cache: %d/%d entries, %d hits, %d misses (%.1f%% hit rate), %d evictions, %d invalidations",
+                size, maxEntries, hits, misses, hitRate() * 100, evictions, invalidations);
+    }
+}
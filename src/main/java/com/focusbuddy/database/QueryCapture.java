@@ -0,0 +1,51 @@
+package com.focusbuddy.database;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the statements executed on the current thread, with their bound
+ * values, so they can be replayed later (e.g. under EXPLAIN).
+ *
+ * Only statements that go through {@link InstrumentedStatement} are seen,
+ * i.e. with "db.metrics.enabled" on or on a dialect that rewrites SQL.
+ */
+final class QueryCapture {
+    private static final ThreadLocal<QueryCapture> ACTIVE = new ThreadLocal<>();
+
+    private final List<Captured> statements = new ArrayList<>();
+
+    /**
+     * One executed statement: the SQL as written by the caller, and its parameters by index.
+     */
+    record Captured(String sql, List<Object> parameters) {}
+
+    private QueryCapture() {}
+
+    static QueryCapture start() {
+        QueryCapture capture = new QueryCapture();
+        ACTIVE.set(capture);
+        return capture;
+    }
+
+    static QueryCapture current() {
+        return ACTIVE.get();
+    }
+
+    /**
+     * Stop capturing on this thread.
+     * @return everything executed since {@link #start()}, in order
+     */
+    List<Captured> stop() {
+        if (ACTIVE.get() == this) {
+            ACTIVE.remove();
+        }
+        return Collections.unmodifiableList(statements);
+    }
+
+    void add(String sql, List<Object> parameters) {
+        // Unmodifiable but null-tolerant, since unbound or NULL parameters are legal
+        statements.add(new Captured(sql, Collections.unmodifiableList(new ArrayList<>(parameters))));
+    }
+}
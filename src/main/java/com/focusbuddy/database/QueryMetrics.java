@@ -0,0 +1,198 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.utils.ConfigManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.FileHandler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+import java.util.regex.Pattern;
+
+/**
+ * Per-query latency statistics for every statement run through the pool.
+ *
+ * Statements are grouped by normalized SQL (whitespace collapsed, literals
+ * replaced by ?), each with its own {@link LatencyHistogram}. Statements slower
+ * than "db.metrics.slowQueryMs" are also written, together with the types of
+ * their bind parameters (never the values), to a rotating slow-query log.
+ */
+public class QueryMetrics {
+    private static QueryMetrics instance;
+
+    private static final String SLOW_LOG_PATTERN = "focusbuddy_slow_queries.%g.log";
+    private static final int SLOW_LOG_LIMIT_BYTES = 1024 * 1024;
+    private static final int SLOW_LOG_FILES = 5;
+    private static final int MAX_TRACKED_QUERIES = 500;
+    private static final String OTHER_QUERIES = "(other queries)";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, String> normalizedSql = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private volatile long slowQueryThresholdNanos;
+    private Logger slowQueryLogger; // created on the first slow query
+    private boolean slowQueryLogFailed;
+
+    private QueryMetrics() {
+        ConfigManager config = ConfigManager.getInstance();
+        this.enabled = config.getBooleanProperty("db.metrics.enabled", true);
+        setSlowQueryThresholdMs(config.getLongProperty("db.metrics.slowQueryMs", 200));
+    }
+
+    public static synchronized QueryMetrics getInstance() {
+        if (instance == null) {
+            instance = new QueryMetrics();
+        }
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setSlowQueryThresholdMs(long thresholdMs) {
+        slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, thresholdMs));
+    }
+
+    public long getSlowQueryThresholdMs() {
+        return TimeUnit.NANOSECONDS.toMillis(slowQueryThresholdNanos);
+    }
+
+    /**
+     * Record one statement execution.
+     * @param parameterShapes bind parameter types, e.g. "[INT, STRING(12)]", or null
+     */
+    void record(String sql, long elapsedNanos, boolean failed, String parameterShapes) {
+        String key = trackedKey(normalize(sql));
+        histograms.computeIfAbsent(key, k -> new LatencyHistogram()).record(elapsedNanos, failed);
+
+        if (elapsedNanos >= slowQueryThresholdNanos) {
+            logSlowQuery(key, elapsedNanos, failed, parameterShapes);
+        }
+    }
+
+    /**
+     * Count one retry of a statement after a transient failure.
+     */
+    void recordRetry(String sql) {
+        if (enabled) {
+            String key = trackedKey(normalize(sql));
+            histograms.computeIfAbsent(key, k -> new LatencyHistogram()).recordRetry();
+        }
+    }
+
+    private String trackedKey(String normalized) {
+        if (!histograms.containsKey(normalized) && histograms.size() >= MAX_TRACKED_QUERIES) {
+            return OTHER_QUERIES; // dynamic SQL must not grow the map without bound
+        }
+        return normalized;
+    }
+
+    /**
+     * Statistics for every tracked query, slowest total time first.
+     */
+    public List<QueryStats> getStats() {
+        List<QueryStats> stats = new ArrayList<>();
+        histograms.forEach((sql, histogram) -> stats.add(histogram.snapshot(sql)));
+        stats.sort(Comparator.comparingDouble(QueryStats::totalMs).reversed());
+        return stats;
+    }
+
+    /**
+     * Statements run since start (or the last reset), over all queries.
+     */
+    public long getTotalCount() {
+        return histograms.values().stream().mapToLong(LatencyHistogram::count).sum();
+    }
+
+    /**
+     * Statements that failed since start (or the last reset), over all queries.
+     */
+    public long getTotalErrors() {
+        return histograms.values().stream().mapToLong(LatencyHistogram::errors).sum();
+    }
+
+    public QueryStats getStats(String sql) {
+        String key = normalize(sql);
+        LatencyHistogram histogram = histograms.get(key);
+        return histogram != null ? histogram.snapshot(key) : null;
+    }
+
+    /**
+     * Human-readable summary of the queries with the highest total time.
+     */
+    public String report(int limit) {
+        StringBuilder report = new StringBuilder("Query latency (top " + limit + " by total time):\n");
+        getStats().stream().limit(limit).forEach(stats -> report.append("  ").append(stats).append('\n'));
+        report.append(QueryCache.getInstance().getStats()).append('\n');
+        return report.toString();
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+
+    /**
+     * Collapse whitespace and replace literals so the same query with different
+     * inline values is counted once.
+     */
+    String normalize(String sql) {
+        String cached = normalizedSql.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+
+        if (normalizedSql.size() >= MAX_TRACKED_QUERIES * 2) {
+            normalizedSql.clear();
+        }
+        normalizedSql.put(sql, normalized);
+        return normalized;
+    }
+
+    private void logSlowQuery(String sql, long elapsedNanos, boolean failed, String parameterShapes) {
+        String message = String.format("%.1f ms%s | params=%s | %s",
+                elapsedNanos / 1_000_000.0,
+                failed ? " (failed)" : "",
+                parameterShapes != null ? parameterShapes : "[]",
+                sql);
+
+        Logger logger = getSlowQueryLogger();
+        if (logger != null) {
+            logger.warning(message);
+        } else {
+            System.err.println("⚠️ Slow query: " + message);
+        }
+    }
+
+    private synchronized Logger getSlowQueryLogger() {
+        if (slowQueryLogger == null && !slowQueryLogFailed) {
+            Logger logger = Logger.getLogger("com.focusbuddy.database.SlowQueries");
+            logger.setUseParentHandlers(false);
+            try {
+                FileHandler fileHandler = new FileHandler(SLOW_LOG_PATTERN, SLOW_LOG_LIMIT_BYTES, SLOW_LOG_FILES, true);
+                fileHandler.setFormatter(new SimpleFormatter());
+                logger.addHandler(fileHandler);
+                logger.setLevel(Level.WARNING);
+                slowQueryLogger = logger;
+            } catch (IOException | SecurityException e) {
+                System.err.println("Could not open slow query log: " + e.getMessage());
+                slowQueryLogFailed = true;
+            }
+        }
+        return slowQueryLogger;
+    }
+}
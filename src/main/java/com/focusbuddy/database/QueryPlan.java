@@ -0,0 +1,21 @@
+package com.focusbuddy.database;
+
+/**
+ * Result of running EXPLAIN on one statement (see {@link SqlDialect#explain}).
+ *
+ * @param plan     the backend's plan output, one line per table access
+ * @param fullScan whether some table is read without an index
+ * @param filesort whether rows are sorted after they are read instead of
+ *                 coming out of an index in order (only MySQL reports this)
+ */
+public record QueryPlan(String sql, String plan, boolean fullScan, boolean filesort) {
+
+    public boolean isIndexed() {
+        return !fullScan && !filesort;
+    }
+
+    @Override
+    public String toString() {
+        return (fullScan ? "FULL SCAN " : "") + (filesort ? "FILESORT " : "") + sql + "\n  " + plan;
+    }
+}
@@ -0,0 +1,140 @@
+package com.focusbuddy.database;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Groups the asynchronous queries started on behalf of one view.
+ *
+ * Work submitted through {@link #supply(Supplier)} runs on the {@link DbExecutor}.
+ * Connections borrowed while that work runs are registered with the scope,
+ * so {@link #cancel()} can both cancel the pending futures and call
+ * Statement.cancel() on queries still executing in the database.
+ * UI callbacks wrapped with {@link #guard(Runnable)} are skipped once the
+ * scope is cancelled, so results never reach a view that has been replaced.
+ */
+public class QueryScope {
+    private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+    private final Set<Runnable> runningQueries = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    public QueryScope(String name) {
+        this.name = name;
+    }
+
+    /**
+     * The scope whose work is running on the current thread, or null.
+     */
+    static QueryScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run database work on the DbExecutor as part of this scope.
+     * The returned future is cancelled when the scope is.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        if (cancelled) {
+            return CompletableFuture.failedFuture(new CancellationException("Query scope '" + name + "' was cancelled"));
+        }
+
+        CompletableFuture<T> future = DbExecutor.getInstance().supply(() -> {
+            if (cancelled) {
+                // Cancelled while waiting for an executor permit
+                throw new CancellationException("Query scope '" + name + "' was cancelled");
+            }
+            CURRENT.set(this);
+            try {
+                return work.get();
+            } finally {
+                CURRENT.remove();
+            }
+        });
+
+        pending.add(future);
+        future.whenComplete((result, error) -> pending.remove(future));
+        if (cancelled) {
+            // cancel() ran between the check above and registration
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    /**
+     * Wrap a UI update so it only runs while the scope is still active.
+     */
+    public Runnable guard(Runnable uiUpdate) {
+        return () -> {
+            if (!cancelled) {
+                uiUpdate.run();
+            }
+        };
+    }
+
+    /**
+     * Cancel all pending work and abort statements still running in the database.
+     * A cancelled scope rejects new work; create a new scope for the next view.
+     *
+     * Only marks the scope and cancels the futures on the calling (usually FX)
+     * thread. Statement.cancel() can block - on MySQL it opens a connection to
+     * send KILL QUERY - so the running statements are aborted on a separate
+     * platform thread (the DbExecutor's virtual threads may all be busy with
+     * the very queries being cancelled).
+     */
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+
+        int futures = 0;
+        for (CompletableFuture<?> future : pending) {
+            if (future.cancel(true)) {
+                futures++;
+            }
+        }
+        pending.clear();
+
+        List<Runnable> cancellers = List.copyOf(runningQueries);
+        int queries = cancellers.size();
+        if (queries > 0) {
+            Thread.ofPlatform().daemon().name("focusbuddy-query-cancel").start(() -> {
+                for (Runnable canceller : cancellers) {
+                    canceller.run();
+                }
+            });
+        }
+
+        if (futures > 0 || queries > 0) {
+            System.out.println("Cancelled " + futures + " pending load(s) and " + queries
+                    + " running query(s) for " + name);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Called by a pooled connection borrowed inside this scope; the canceller
+     * aborts that borrow's statements.
+     */
+    void register(Runnable canceller) {
+        runningQueries.add(canceller);
+    }
+
+    void unregister(Runnable canceller) {
+        runningQueries.remove(canceller);
+    }
+}
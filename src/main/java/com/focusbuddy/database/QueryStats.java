@@ -0,0 +1,33 @@
+package com.focusbuddy.database;
+
+/**
+ * Latency summary for one normalized SQL statement (see {@link QueryMetrics}).
+ *
+ * @param retries times the statement was run again after a transient failure
+ *                (see {@link RetryPolicy})
+ * @param buckets call counts per histogram bucket; bucket i holds calls up to
+ *                {@link #bucketBoundsMs()}[i] ms, the last bucket everything slower
+ */
+public record QueryStats(
+        String sql,
+        long count,
+        long errors,
+        long retries,
+        double totalMs,
+        double meanMs,
+        double maxMs,
+        double p50Ms,
+        double p95Ms,
+        double p99Ms,
+        long[] buckets) {
+
+    public static double[] bucketBoundsMs() {
+        return LatencyHistogram.BUCKET_BOUNDS_MS.clone();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%6d calls, %d errors, %d retries, total=%.1fms, mean=%.2fms, p50<=%.0fms, p95<=%.0fms, p99<=%.0fms, max=%.1fms  %s",
+                count, errors, retries, totalMs, meanMs, p50Ms, p95Ms, p99Ms, maxMs, sql);
+    }
+}
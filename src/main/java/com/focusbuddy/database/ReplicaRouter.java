@@ -0,0 +1,228 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.models.User;
+import com.focusbuddy.utils.ConfigManager;
+import com.focusbuddy.utils.UserSession;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends {@link AccessMode#READ_ONLY} work to read replicas of the primary database.
+ *
+ * Replicas are listed in "db.replicas" (comma separated names), each with
+ * "db.replica.NAME.url" (see {@link DatabaseSettings#forReplica}), and are
+ * used in turn. Replicas lag behind the primary, so for
+ * "db.replicas.readYourWritesMs" after a user's own write their reads stay on
+ * the primary. A replica that cannot hand out a connection is skipped for
+ * "db.replicas.retryAfterMs" and its reads go to the next replica or the primary.
+ *
+ * Replicas only serve the primary database; reads for users placed on
+ * another shard (see {@link ShardRouter}) go to that shard.
+ */
+public class ReplicaRouter {
+    public static final long DEFAULT_READ_YOUR_WRITES_MS = 2000;
+    public static final long DEFAULT_RETRY_AFTER_MS = 5000;
+    // Key for writes made with nobody logged in
+    private static final int NO_USER = 0;
+
+    private final List<Replica> replicas = new ArrayList<>(); // guarded by this
+    private final Map<Integer, Long> lastWriteNanos = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile boolean configured;
+    private volatile boolean hasReplicas;
+    private volatile long readYourWritesNanos;
+    private volatile long retryAfterNanos;
+
+    // Statistics
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    ReplicaRouter() {
+        setReadYourWritesMs(ConfigManager.getInstance()
+                .getLongProperty("db.replicas.readYourWritesMs", DEFAULT_READ_YOUR_WRITES_MS));
+        setRetryAfterMs(ConfigManager.getInstance()
+                .getLongProperty("db.replicas.retryAfterMs", DEFAULT_RETRY_AFTER_MS));
+    }
+
+    public void setReadYourWritesMs(long windowMs) {
+        readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMs));
+    }
+
+    /**
+     * How long a replica that failed to hand out a connection is left alone.
+     */
+    public void setRetryAfterMs(long backoffMs) {
+        retryAfterNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, backoffMs));
+    }
+
+    public boolean hasReplicas() {
+        ensureConfigured();
+        return hasReplicas;
+    }
+
+    /**
+     * Add a replica at runtime, e.g. a local stand-in in tests.
+     */
+    public synchronized void addReplica(String name, DatabaseSettings settings) {
+        ensureConfigured();
+        replicas.add(new Replica(name, settings));
+        hasReplicas = true;
+    }
+
+    /**
+     * Note a write by the session user; their reads stay on the primary for
+     * the read-your-writes window.
+     */
+    void recordWrite() {
+        if (hasReplicas()) {
+            lastWriteNanos.put(currentUserKey(), System.nanoTime());
+        }
+    }
+
+    /**
+     * Borrow a connection from the next replica for a read by the session user.
+     * @return null if the read should go to the primary instead
+     */
+    Connection borrowForRead() {
+        if (!hasReplicas()) {
+            return null;
+        }
+        Long lastWrite = lastWriteNanos.get(currentUserKey());
+        if (lastWrite != null) {
+            if (System.nanoTime() - lastWrite < readYourWritesNanos) {
+                primaryReads.incrementAndGet();
+                return null;
+            }
+            lastWriteNanos.remove(currentUserKey(), lastWrite);
+        }
+
+        List<Replica> candidates = snapshot();
+        int start = Math.floorMod(next.getAndIncrement(), candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Replica replica = candidates.get((start + i) % candidates.size());
+            if (!replica.isAvailable()) {
+                continue;
+            }
+            try {
+                Connection conn = replica.getPool().getConnection();
+                replicaReads.incrementAndGet();
+                return conn;
+            } catch (SQLException e) {
+                fallbacks.incrementAndGet();
+                replica.markUnavailable(retryAfterNanos);
+                System.err.println("⚠️ Replica " + replica.name + " unavailable, skipping it for "
+                        + TimeUnit.NANOSECONDS.toMillis(retryAfterNanos) + " ms: " + e.getMessage());
+            }
+        }
+        primaryReads.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Close the replica pools; they reopen on next use.
+     */
+    void closeReplicas() {
+        for (Replica replica : snapshot()) {
+            replica.close();
+        }
+    }
+
+    /**
+     * Forget replicas added at runtime and recent writes; the configured
+     * replicas are read again on next use.
+     */
+    synchronized void reset() {
+        closeReplicas();
+        replicas.clear();
+        lastWriteNanos.clear();
+        configured = false;
+        hasReplicas = false;
+    }
+
+    public long getReplicaReads() { return replicaReads.get(); }
+    public long getPrimaryReads() { return primaryReads.get(); }
+    public long getFallbacks() { return fallbacks.get(); }
+
+    private synchronized List<Replica> snapshot() {
+        return new ArrayList<>(replicas);
+    }
+
+    private static int currentUserKey() {
+        User user = UserSession.getInstance().getCurrentUser();
+        return user != null ? user.getId() : NO_USER;
+    }
+
+    private void ensureConfigured() {
+        if (configured) {
+            return;
+        }
+        synchronized (this) {
+            if (configured) {
+                return;
+            }
+            String names = ConfigManager.getInstance().getProperty("db.replicas", "");
+            for (String name : names.split(",")) {
+                name = name.trim();
+                if (!name.isEmpty()) {
+                    replicas.add(new Replica(name, DatabaseSettings.forReplica(name)));
+                }
+            }
+            hasReplicas = !replicas.isEmpty();
+            configured = true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Replicas: %d (reads: %d replica, %d primary, %d fallbacks)",
+                snapshot().size(), replicaReads.get(), primaryReads.get(), fallbacks.get());
+    }
+
+    /**
+     * One read replica with its own pool, opened on first use.
+     */
+    private static class Replica {
+        private final String name;
+        private final DatabaseSettings settings;
+        private ConnectionPool pool;
+        private volatile long unavailableUntilNanos;
+        private volatile boolean unavailable;
+
+        Replica(String name, DatabaseSettings settings) {
+            this.name = name;
+            this.settings = settings;
+        }
+
+        synchronized ConnectionPool getPool() {
+            if (pool == null) {
+                pool = new ConnectionPool(settings, PoolConfig.fromConfig());
+            }
+            return pool;
+        }
+
+        boolean isAvailable() {
+            return !unavailable || System.nanoTime() - unavailableUntilNanos >= 0;
+        }
+
+        void markUnavailable(long backoffNanos) {
+            unavailableUntilNanos = System.nanoTime() + backoffNanos;
+            unavailable = true;
+        }
+
+        synchronized void close() {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
+        }
+    }
+}
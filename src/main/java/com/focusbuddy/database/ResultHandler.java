@@ -0,0 +1,35 @@
+package com.focusbuddy.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns a whole result set into one value, e.g. a count or a list.
+ */
+@FunctionalInterface
+public interface ResultHandler<T> {
+    T handle(ResultSet rs) throws SQLException;
+
+    /**
+     * The first column of the first row as an int, or 0 for an empty result.
+     */
+    static ResultHandler<Integer> singleInt() {
+        return rs -> rs.next() ? rs.getInt(1) : 0;
+    }
+
+    /**
+     * Every row, mapped with the given mapper.
+     */
+    static <T> ResultHandler<List<T>> list(RowMapper<T> mapper) {
+        return rs -> {
+            RowMapper<T> bound = mapper.bind(rs);
+            List<T> rows = new ArrayList<>();
+            while (rs.next()) {
+                rows.add(bound.map(rs));
+            }
+            return rows;
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.focusbuddy.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Rows of an open forward-only cursor, read one at a time as the consumer
+ * asks for them. Owns the connection until closed.
+ */
+class ResultStream<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+    private final Connection conn;
+    private final PreparedStatement stmt;
+    private final ResultSet rs;
+    private final RowMapper<T> mapper;
+    private boolean closed;
+
+    private ResultStream(Connection conn, PreparedStatement stmt, ResultSet rs, RowMapper<T> mapper) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.conn = conn;
+        this.stmt = stmt;
+        this.rs = rs;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Run the query on the connection and wrap its cursor. The connection is
+     * closed with the stream, or right away if the query fails.
+     */
+    static <T> ResultStream<T> open(Connection conn, String sql, UnitOfWork.Binder binder,
+                                    RowMapper<T> mapper, int fetchSize) throws SQLException {
+        try {
+            PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize);
+            if (binder != null) {
+                binder.bind(stmt);
+            }
+            ResultSet rs = stmt.executeQuery();
+            return new ResultStream<>(conn, stmt, rs, mapper.bind(rs));
+        } catch (SQLException | RuntimeException e) {
+            try {
+                conn.close();
+            } catch (SQLException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+    }
+
+    Stream<T> stream() {
+        return StreamSupport.stream(this, false).onClose(this::close);
+    }
+
+    /**
+     * Hand the next row to the action.
+     * @return false once the cursor is exhausted (the stream is then closed)
+     */
+    boolean next(Consumer<? super T> action) throws SQLException {
+        if (closed || !rs.next()) {
+            close();
+            return false;
+        }
+        action.accept(mapper.map(rs));
+        return true;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        try {
+            return next(action);
+        } catch (SQLException e) {
+            close();
+            throw new UncheckedSQLException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            // Closing the statement first stops MySQL from draining the rest of the cursor
+            stmt.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing streaming statement: " + e.getMessage());
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error returning streaming connection: " + e.getMessage());
+        }
+    }
+}
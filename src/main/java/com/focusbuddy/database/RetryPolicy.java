@@ -0,0 +1,125 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.utils.ConfigManager;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs database work again when it fails for a reason that is likely to go
+ * away on its own:
+ * <ul>
+ *   <li>connection failures (SQLState class 08), e.g. a dropped connection</li>
+ *   <li>deadlocks and serialization failures (40001; MySQL 1213)</li>
+ *   <li>lock wait timeouts (MySQL 1205, H2 50200)</li>
+ * </ul>
+ * Up to "db.retry.maxAttempts" attempts are made, waiting an exponentially
+ * growing, jittered delay between them ("db.retry.baseDelayMs" doubled per
+ * attempt, capped at "db.retry.maxDelayMs"). Each retry is counted against the
+ * query in {@link QueryMetrics}.
+ *
+ * Only retry work that is safe to run twice: reads, or a whole transaction
+ * that the database has rolled back. {@link DatabaseUnavailableException} is
+ * never retried, since the circuit breaker already decided the server is down.
+ */
+public class RetryPolicy {
+
+    /**
+     * One attempt at the work; each attempt should use a fresh connection.
+     */
+    @FunctionalInterface
+    public interface Attempt<T> {
+        T run() throws SQLException;
+    }
+
+    // MySQL vendor codes: deadlock, lock wait timeout
+    private static final int MYSQL_DEADLOCK = 1213;
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    // H2 vendor code for a lock timeout (SQLState HYT00)
+    private static final int H2_LOCK_TIMEOUT = 50200;
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    RetryPolicy() {
+        this(ConfigManager.getInstance().getIntProperty("db.retry.maxAttempts", 3),
+                ConfigManager.getInstance().getLongProperty("db.retry.baseDelayMs", 50),
+                ConfigManager.getInstance().getLongProperty("db.retry.maxDelayMs", 1000));
+    }
+
+    RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = Math.max(1, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+    }
+
+    public <T> T execute(String sql, Attempt<T> attempt) throws SQLException {
+        return execute(sql, attempt, () -> true);
+    }
+
+    /**
+     * @param sql         the statement the retries are counted against
+     * @param safeToRetry asked after a transient failure; false when the failed
+     *                    attempt may already have had an effect (e.g. rows were
+     *                    handed to a consumer, or a commit was sent)
+     */
+    public <T> T execute(String sql, Attempt<T> attempt, BooleanSupplier safeToRetry) throws SQLException {
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            try {
+                return attempt.run();
+            } catch (SQLException e) {
+                if (attemptNumber >= maxAttempts || !isTransient(e) || !safeToRetry.getAsBoolean()) {
+                    throw e;
+                }
+                long delayMs = backoffMs(attemptNumber);
+                QueryMetrics.getInstance().recordRetry(sql);
+                System.err.println("⚠️ Transient database error (" + e.getSQLState() + "/" + e.getErrorCode()
+                        + "), attempt " + (attemptNumber + 1) + " of " + maxAttempts
+                        + " in " + delayMs + " ms: " + e.getMessage());
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException interrupted) {
+                    // The caller is being cancelled; give up with the original error
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the error (or an SQLException it wraps) is worth retrying.
+     */
+    public static boolean isTransient(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DatabaseUnavailableException) {
+                return false;
+            }
+            if (cause instanceof SQLException sqlError && isTransientCode(sqlError)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTransientCode(SQLException e) {
+        String sqlState = e.getSQLState();
+        if (sqlState != null && (sqlState.startsWith("08") || sqlState.equals("40001"))) {
+            return true;
+        }
+        int code = e.getErrorCode();
+        return code == MYSQL_DEADLOCK || code == MYSQL_LOCK_WAIT_TIMEOUT || code == H2_LOCK_TIMEOUT;
+    }
+
+    /**
+     * "Equal jitter": half of the exponential delay is fixed, the other half
+     * random, so callers that failed together do not retry together.
+     */
+    long backoffMs(int attemptNumber) {
+        long exponential = baseDelayMs << Math.min(attemptNumber - 1, 20);
+        long capped = Math.min(maxDelayMs, exponential);
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+}
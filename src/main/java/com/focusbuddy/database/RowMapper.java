@@ -0,0 +1,20 @@
+package com.focusbuddy.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Turns the current row of a result set into an object.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    T map(ResultSet rs) throws SQLException;
+
+    /**
+     * The mapper to use for every row of this result set. Mappers that do
+     * per-query setup (see {@link CompiledRowMapper}) do it here, once.
+     */
+    default RowMapper<T> bind(ResultSet rs) throws SQLException {
+        return this;
+    }
+}
@@ -0,0 +1,230 @@
+package com.focusbuddy.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The application's schema history, applied in order by {@link MigrationRunner}.
+ *
+ * Never edit a migration that has shipped; add a new version instead.
+ * Statements are written in MySQL syntax and translated by the active dialect.
+ */
+final class SchemaMigrations {
+
+    private SchemaMigrations() {}
+
+    static final List<Migration> ALL = List.of(
+            Migration.of(1, "create_base_schema",
+                    // Users table
+                    """
+                    CREATE TABLE IF NOT EXISTS users (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        username VARCHAR(50) UNIQUE NOT NULL,
+                        password VARCHAR(255) NOT NULL,
+                        salt VARCHAR(255),
+                        email VARCHAR(100),
+                        full_name VARCHAR(100),
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        INDEX idx_username (username)
+                    )
+                    """,
+
+                    // Tasks table
+                    """
+                    CREATE TABLE IF NOT EXISTS tasks (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        user_id INT NOT NULL,
+                        title VARCHAR(200) NOT NULL,
+                        description TEXT,
+                        priority ENUM('LOW', 'MEDIUM', 'HIGH') DEFAULT 'MEDIUM',
+                        status ENUM('PENDING', 'IN_PROGRESS', 'COMPLETED') DEFAULT 'PENDING',
+                        due_date DATE,
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                        FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+                        INDEX idx_user_id (user_id),
+                        INDEX idx_status (status),
+                        INDEX idx_due_date (due_date)
+                    )
+                    """,
+
+                    // Mood entries table
+                    """
+                    CREATE TABLE IF NOT EXISTS mood_entries (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        user_id INT NOT NULL,
+                        mood_level INT CHECK (mood_level BETWEEN 1 AND 5),
+                        mood_description VARCHAR(500),
+                        entry_date DATE NOT NULL,
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+                        UNIQUE KEY unique_user_date (user_id, entry_date),
+                        INDEX idx_user_date (user_id, entry_date)
+                    )
+                    """,
+
+                    // Focus sessions table
+                    """
+                    CREATE TABLE IF NOT EXISTS focus_sessions (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        user_id INT NOT NULL,
+                        task_id INT,
+                        duration_minutes INT NOT NULL,
+                        session_date DATE NOT NULL,
+                        session_type ENUM('FOCUS', 'BREAK') DEFAULT 'FOCUS',
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+                        FOREIGN KEY (task_id) REFERENCES tasks(id) ON DELETE SET NULL,
+                        INDEX idx_user_date (user_id, session_date)
+                    )
+                    """,
+
+                    // Notes table
+                    """
+                    CREATE TABLE IF NOT EXISTS notes (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        user_id INT NOT NULL,
+                        title VARCHAR(200) NOT NULL,
+                        content LONGTEXT,
+                        tags VARCHAR(500),
+                        category VARCHAR(100) DEFAULT 'General',
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                        FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+                        INDEX idx_user_id (user_id),
+                        FULLTEXT KEY ft_title_content (title, content)
+                    )
+                    """,
+
+                    // Goals table
+                    """
+                    CREATE TABLE IF NOT EXISTS goals (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        user_id INT NOT NULL,
+                        title VARCHAR(200) NOT NULL,
+                        description TEXT,
+                        target_value INT NOT NULL,
+                        current_value INT DEFAULT 0,
+                        goal_type ENUM('STUDY_HOURS', 'TASKS_COMPLETED', 'FOCUS_SESSIONS') DEFAULT 'STUDY_HOURS',
+                        target_date DATE,
+                        status ENUM('ACTIVE', 'COMPLETED', 'PAUSED') DEFAULT 'ACTIVE',
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                        FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+                        INDEX idx_user_status (user_id, status)
+                    )
+                    """
+            ),
+
+            // Columns added after the first release; older installs may already
+            // have them, so MigrationRunner ignores duplicate-column errors
+            Migration.of(2, "add_salt_column",
+                    "ALTER TABLE users ADD COLUMN salt VARCHAR(255)"),
+
+            Migration.of(3, "add_updated_at_tasks",
+                    "ALTER TABLE tasks ADD COLUMN updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP"),
+
+            Migration.of(4, "add_category_notes",
+                    "ALTER TABLE notes ADD COLUMN category VARCHAR(100) DEFAULT 'General'"),
+
+            // Serve the keyset-paginated task and note listings straight from an index
+            Migration.of(5, "add_listing_page_indexes",
+                    "CREATE INDEX idx_tasks_user_created ON tasks (user_id, created_at, id)",
+                    "CREATE INDEX idx_notes_user_updated ON notes (user_id, updated_at, id)"),
+
+            // One index per query shape in the services, each starting with user_id
+            // and ending with the ORDER BY / range column so no sort is needed
+            Migration.of(6, "add_composite_query_indexes",
+                    // status counts, completed-since windows (ActivityService, achievements)
+                    "CREATE INDEX idx_tasks_user_status_updated ON tasks (user_id, status, updated_at)",
+                    // overdue list and count, due today
+                    "CREATE INDEX idx_tasks_user_due_status ON tasks (user_id, due_date, status)",
+                    // getTasksForToday ordering
+                    "CREATE INDEX idx_tasks_user_priority_created ON tasks (user_id, priority DESC, created_at)",
+                    // recent activity, newest first
+                    "CREATE INDEX idx_tasks_user_updated ON tasks (user_id, updated_at)",
+                    // notes by category, category list and counts
+                    "CREATE INDEX idx_notes_user_category_updated ON notes (user_id, category, updated_at)",
+                    "CREATE INDEX idx_goals_user_created ON goals (user_id, created_at)",
+                    "CREATE INDEX idx_goals_user_updated ON goals (user_id, updated_at)",
+                    "CREATE INDEX idx_goals_user_status_target ON goals (user_id, status, target_date)",
+                    // total focus time without touching the rows
+                    "CREATE INDEX idx_focus_user_date_duration ON focus_sessions (user_id, session_date, duration_minutes)"),
+
+            // Which shard holds each user's rows (read on the primary database only, see ShardRouter)
+            Migration.of(7, "create_user_shards",
+                    """
+                    CREATE TABLE IF NOT EXISTS user_shards (
+                        user_id INT PRIMARY KEY,
+                        shard VARCHAR(64) NOT NULL,
+                        assigned_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+                    )
+                    """),
+
+            // Idempotency keys of the journaled offline writes already applied (see WriteJournal)
+            Migration.of(8, "create_journal_applied",
+                    """
+                    CREATE TABLE IF NOT EXISTS journal_applied (
+                        idempotency_key VARCHAR(36) PRIMARY KEY,
+                        applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    )
+                    """),
+
+            // Monthly range partitions so date-window reads only touch recent months
+            // (new months and expiry are handled by PartitionMaintenance). MySQL does
+            // not allow foreign keys on partitioned tables and every unique key must
+            // contain the partitioning column; the services now do what the
+            // ON DELETE rules did (ProfileService.deleteAccount, ShardRouter.removeUser,
+            // TaskService.deleteTask).
+            new Migration(9, "partition_dated_tables_by_month", concat(
+                    partitionByMonth("mood_entries", "entry_date"),
+                    partitionByMonth("focus_sessions", "session_date")), MySqlDialect.NAME),
+
+            // Deleted task ids, so task lists can sync deltas (see TaskService.getTaskChangesSince)
+            Migration.of(10, "create_task_tombstones",
+                    """
+                    CREATE TABLE IF NOT EXISTS task_tombstones (
+                        task_id INT PRIMARY KEY,
+                        user_id INT NOT NULL,
+                        deleted_at TIMESTAMP NOT NULL,
+                        FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+                        INDEX idx_tombstones_user_deleted (user_id, deleted_at)
+                    )
+                    """)
+    );
+
+    /**
+     * Turn a table into monthly range partitions on its date column, with an
+     * empty TABLE_archive copy for expired months. The foreign keys are looked
+     * up in information_schema, since their generated names differ between
+     * databases, and dropped in the same ALTER as the primary key change.
+     */
+    private static List<String> partitionByMonth(String table, String dateColumn) {
+        return List.of(
+                """
+                SELECT GROUP_CONCAT(DISTINCT CONCAT('DROP FOREIGN KEY `', CONSTRAINT_NAME, '`, ') SEPARATOR '')
+                INTO @drop_foreign_keys
+                FROM information_schema.KEY_COLUMN_USAGE
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '%s' AND REFERENCED_TABLE_NAME IS NOT NULL
+                """.formatted(table),
+                "SET @partition_keys = CONCAT('ALTER TABLE " + table + " ', IFNULL(@drop_foreign_keys, ''), "
+                        + "'DROP PRIMARY KEY, ADD PRIMARY KEY (id, " + dateColumn + ")')",
+                "PREPARE partition_keys FROM @partition_keys",
+                "EXECUTE partition_keys",
+                "DEALLOCATE PREPARE partition_keys",
+                "CREATE TABLE IF NOT EXISTS %s_archive LIKE %s".formatted(table, table),
+                """
+                ALTER TABLE %s PARTITION BY RANGE COLUMNS (%s) (
+                    PARTITION p_history VALUES LESS THAN ('2025-01-01'),
+                    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+                )
+                """.formatted(table, dateColumn));
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        List<String> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+}
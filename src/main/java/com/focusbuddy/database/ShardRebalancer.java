@@ -0,0 +1,213 @@
+package com.focusbuddy.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Moves users' rows between shards, e.g. after a shard was added to "db.shards".
+ * Rows already moved to the archive tables of migration 9 move along with them.
+ *
+ * A move copies the user's rows into the target shard in one transaction,
+ * records the new placement on primary and then deletes the rows from the
+ * source. Ids are assigned by the target, so focus_sessions.task_id is
+ * remapped to the copied tasks. Leftovers of an interrupted copy are cleared
+ * from the target before copying again, so a failed move can simply be rerun.
+ *
+ * Run it while the users being moved are not logged in: open views still hold
+ * the old ids.
+ */
+public class ShardRebalancer {
+    // Per-user tables, parents first; focus_sessions.task_id points into tasks
+    static final List<String> USER_TABLES = List.of("tasks", "notes", "goals", "mood_entries", "focus_sessions",
+            "task_tombstones");
+    // Ids of deleted tasks: nothing to remap them to, and one may already be taken on the target
+    private static final String TOMBSTONES = "task_tombstones";
+
+    private final DatabaseManager manager;
+    private final ShardRouter router;
+
+    public ShardRebalancer() {
+        this(DatabaseManager.getInstance());
+    }
+
+    ShardRebalancer(DatabaseManager manager) {
+        this.manager = manager;
+        this.router = manager.getShardRouter();
+    }
+
+    /**
+     * Move every user whose placement differs from the consistent-hash ring.
+     * @return the number of users moved
+     */
+    public int rebalance() throws SQLException {
+        List<Integer> userIds = new ArrayList<>();
+        try (Connection conn = manager.getDirectoryConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id FROM users ORDER BY id")) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                userIds.add(rs.getInt(1));
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        int moved = 0;
+        for (int userId : userIds) {
+            String target = router.ringShardFor(userId);
+            if (!target.equals(router.shardOf(userId))) {
+                moveUser(userId, target);
+                moved++;
+            }
+        }
+        System.out.println("Rebalanced " + moved + " of " + userIds.size() + " users over "
+                + router.getShardNames() + " in " + (System.currentTimeMillis() - start) + " ms");
+        return moved;
+    }
+
+    /**
+     * Move one user's rows to the given shard.
+     * @return the number of rows copied (0 if the user already lives there)
+     */
+    public long moveUser(int userId, String target) throws SQLException {
+        String source = router.shardOf(userId);
+        if (source.equals(target)) {
+            return 0;
+        }
+        router.getPool(target); // unknown shard names fail here, before anything is written
+
+        long start = System.currentTimeMillis();
+        long copied = router.onShard(target, () -> manager.inTransaction(tx -> copyRows(tx, userId, source, target)));
+        router.recordPlacement(userId, target);
+
+        router.onShard(source, () -> manager.inTransaction(tx -> {
+            deleteRows(tx.getConnection(), userId);
+            if (!ShardRouter.PRIMARY.equals(source)) {
+                deleteStub(tx.getConnection(), userId);
+            }
+            return null;
+        }));
+
+        for (String table : USER_TABLES) {
+            QueryCache.getInstance().invalidate(table, userId); // cached rows carry the old ids
+        }
+        System.out.println("✅ Moved user " + userId + " from " + source + " to " + target + ": "
+                + copied + " rows in " + (System.currentTimeMillis() - start) + " ms");
+        return copied;
+    }
+
+    private long copyRows(UnitOfWork tx, int userId, String source, String target) throws SQLException {
+        Connection targetConn = tx.getConnection();
+        deleteRows(targetConn, userId);
+        if (!ShardRouter.PRIMARY.equals(target)) {
+            router.ensureUserStub(targetConn, userId);
+        }
+
+        try (Connection sourceConn = router.getPool(source).getConnection()) {
+            Map<Integer, Integer> taskIds = copyTasks(sourceConn, targetConn, userId);
+
+            BatchWriter writer = new BatchWriter(tx);
+            List<String> tables = new ArrayList<>(USER_TABLES.subList(1, USER_TABLES.size()));
+            tables.addAll(PartitionMaintenance.archiveTables(sourceConn));
+            for (String table : tables) {
+                boolean tombstones = TOMBSTONES.equals(table);
+                try (PreparedStatement select = sourceConn.prepareStatement("SELECT * FROM " + table
+                        + " WHERE user_id = ? ORDER BY " + (tombstones ? "task_id" : "id"))) {
+                    select.setInt(1, userId);
+                    ResultSet rs = select.executeQuery();
+                    List<String> columns = columnsWithoutId(rs.getMetaData());
+                    int taskColumn = tombstones ? -1 : columns.indexOf("task_id");
+                    String[] names = columns.toArray(new String[0]);
+                    BatchWriter.Table rows = tombstones ? writer.insertIgnore(table, names) : writer.insert(table, names);
+                    while (rs.next()) {
+                        Object[] values = valuesOf(rs, columns);
+                        if (taskColumn >= 0 && values[taskColumn] != null) {
+                            values[taskColumn] = taskIds.get(((Number) values[taskColumn]).intValue());
+                        }
+                        rows.add(values);
+                    }
+                }
+            }
+            return taskIds.size() + writer.finish().rows();
+        }
+    }
+
+    /**
+     * Tasks are inserted one at a time to learn their new ids.
+     * @return old task id -> new task id
+     */
+    private Map<Integer, Integer> copyTasks(Connection sourceConn, Connection targetConn, int userId)
+            throws SQLException {
+        Map<Integer, Integer> taskIds = new HashMap<>();
+        try (PreparedStatement select = sourceConn.prepareStatement(
+                "SELECT * FROM tasks WHERE user_id = ? ORDER BY id")) {
+            select.setInt(1, userId);
+            ResultSet rs = select.executeQuery();
+            List<String> columns = columnsWithoutId(rs.getMetaData());
+            String sql = "INSERT INTO tasks (" + String.join(", ", columns) + ") VALUES ("
+                    + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+            try (PreparedStatement insert = targetConn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                while (rs.next()) {
+                    Object[] values = valuesOf(rs, columns);
+                    for (int i = 0; i < values.length; i++) {
+                        insert.setObject(i + 1, values[i]);
+                    }
+                    insert.executeUpdate();
+                    try (ResultSet keys = insert.getGeneratedKeys()) {
+                        if (!keys.next()) {
+                            throw new SQLException("No id generated for copied task " + rs.getInt("id"));
+                        }
+                        taskIds.put(rs.getInt("id"), keys.getInt(1));
+                    }
+                }
+            }
+        }
+        return taskIds;
+    }
+
+    private static void deleteRows(Connection conn, int userId) throws SQLException {
+        List<String> tables = new ArrayList<>(USER_TABLES);
+        tables.addAll(PartitionMaintenance.archiveTables(conn));
+        for (int i = tables.size() - 1; i >= 0; i--) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "DELETE FROM " + tables.get(i) + " WHERE user_id = ?")) {
+                stmt.setInt(1, userId);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    private static void deleteStub(Connection conn, int userId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM users WHERE id = ?")) {
+            stmt.setInt(1, userId);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static List<String> columnsWithoutId(ResultSetMetaData meta) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            String column = meta.getColumnLabel(i).toLowerCase(Locale.ROOT);
+            if (!"id".equals(column)) {
+                columns.add(column);
+            }
+        }
+        return columns;
+    }
+
+    private static Object[] valuesOf(ResultSet rs, List<String> columns) throws SQLException {
+        Object[] values = new Object[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rs.getObject(columns.get(i));
+        }
+        return values;
+    }
+}
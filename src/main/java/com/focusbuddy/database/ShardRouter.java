@@ -0,0 +1,509 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.models.User;
+import com.focusbuddy.utils.ConfigManager;
+import com.focusbuddy.utils.UserSession;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Spreads users over several databases by user_id.
+ *
+ * The main database is the "primary" shard and also the directory: the users
+ * table, logins and the user_shards placement table always live there. The
+ * per-user tables (tasks, notes, goals, mood_entries, focus_sessions) live on
+ * the shard the user is placed on, together with a stub users row that keeps
+ * their foreign keys valid.
+ *
+ * Extra shards are listed in "db.shards" (comma separated names), each with
+ * "db.shard.NAME.url" (see {@link DatabaseSettings#forShard}). New users are
+ * placed with a consistent-hash ring of "db.shards.virtualNodes" points per
+ * shard, so adding a shard only moves about 1/N of the users; placements are
+ * recorded, and users without one (created before sharding) stay on primary
+ * until {@link ShardRebalancer} moves them.
+ *
+ * {@link DatabaseManager#getConnection()} routes to the session user's shard.
+ * {@link #pin} overrides that on the current thread. A transaction stays on
+ * the shard it started on.
+ */
+public class ShardRouter {
+    public static final String PRIMARY = "primary";
+    public static final int DEFAULT_VIRTUAL_NODES = 64;
+
+    // Shard the current thread is pinned to, overriding the session user
+    private static final ThreadLocal<String> PINNED = new ThreadLocal<>();
+
+    private final Supplier<ConnectionPool> primaryPool;
+    private final Map<String, Shard> shards = new LinkedHashMap<>(); // guarded by this
+    private final TreeMap<Long, String> ring = new TreeMap<>();      // guarded by this
+    private final Map<Integer, String> placements = new ConcurrentHashMap<>();
+    private volatile boolean configured;
+    private volatile boolean sharded;
+
+    /**
+     * Restores the previous routing when closed.
+     */
+    public interface Route extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    ShardRouter(Supplier<ConnectionPool> primaryPool) {
+        this.primaryPool = primaryPool;
+    }
+
+    /**
+     * Route connections borrowed on this thread to the given shard until the
+     * returned route is closed.
+     */
+    public Route pin(String shard) {
+        requireShard(shard);
+        String previous = PINNED.get();
+        PINNED.set(shard);
+        return () -> {
+            if (previous != null) {
+                PINNED.set(previous);
+            } else {
+                PINNED.remove();
+            }
+        };
+    }
+
+    /**
+     * Work run by {@link #onShard} while connections are routed to a shard.
+     */
+    @FunctionalInterface
+    public interface ShardWork<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * Run work with the connections it borrows on this thread routed to the given shard.
+     */
+    public <T> T onShard(String shard, ShardWork<T> work) throws SQLException {
+        Route route = pin(shard);
+        try {
+            return work.run();
+        } finally {
+            route.close();
+        }
+    }
+
+    /**
+     * Run work on the shard holding the user's rows.
+     */
+    public <T> T onUserShard(int userId, ShardWork<T> work) throws SQLException {
+        return onShard(shardOf(userId), work);
+    }
+
+    /**
+     * Whether more than one database is configured.
+     */
+    public boolean isSharded() {
+        ensureConfigured();
+        return sharded;
+    }
+
+    public synchronized List<String> getShardNames() {
+        ensureConfigured();
+        return new ArrayList<>(shards.keySet());
+    }
+
+    /**
+     * Add a shard at runtime (new users start landing on it at once; existing
+     * users move with {@link ShardRebalancer#rebalance()}).
+     * The caller brings its schema up to date, e.g. with {@link #migrateShards()}.
+     */
+    public synchronized void addShard(String name, DatabaseSettings settings) {
+        ensureConfigured();
+        if (shards.containsKey(name)) {
+            throw new IllegalArgumentException("Shard '" + name + "' already exists");
+        }
+        shards.put(name, new Shard(name, settings));
+        rebuildRing();
+    }
+
+    /**
+     * Shard the current thread's connections go to: the pinned shard, else the
+     * session user's shard, else primary.
+     */
+    String currentShard() throws SQLException {
+        String pinned = PINNED.get();
+        if (pinned != null) {
+            return pinned;
+        }
+        if (!isSharded()) {
+            return PRIMARY;
+        }
+        User user = UserSession.getInstance().getCurrentUser();
+        return user != null ? shardOf(user.getId()) : PRIMARY;
+    }
+
+    /**
+     * Shard holding the user's rows: their recorded placement, or primary.
+     * @throws SQLException if the placement names a shard that is not configured,
+     *         rather than reading and writing the user's rows on the wrong database
+     */
+    public String shardOf(int userId) throws SQLException {
+        if (!isSharded()) {
+            return PRIMARY;
+        }
+        String cached = placements.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        String shard = PRIMARY;
+        try (Connection conn = primaryPool.get().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT shard FROM user_shards WHERE user_id = ?")) {
+            stmt.setInt(1, userId);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                shard = rs.getString(1);
+                if (!hasShard(shard)) {
+                    throw new SQLException("User " + userId + " is placed on unknown shard '" + shard + "'");
+                }
+            }
+        }
+        placements.put(userId, shard);
+        return shard;
+    }
+
+    /**
+     * Shard the consistent-hash ring assigns to the user.
+     */
+    public synchronized String ringShardFor(int userId) {
+        ensureConfigured();
+        if (ring.isEmpty()) {
+            return PRIMARY;
+        }
+        SortedMap<Long, String> tail = ring.tailMap(hash("user:" + userId));
+        return tail.isEmpty() ? ring.firstEntry().getValue() : tail.get(tail.firstKey());
+    }
+
+    /**
+     * Place a newly registered user on their ring shard. Call after the users
+     * row has been inserted on primary.
+     * @return the shard the user was placed on
+     */
+    public String assignNewUser(int userId) throws SQLException {
+        if (!isSharded()) {
+            return PRIMARY;
+        }
+        String shard = ringShardFor(userId);
+        if (!PRIMARY.equals(shard)) {
+            try (Connection conn = getPool(shard).getConnection()) {
+                ensureUserStub(conn, userId);
+            }
+        }
+        recordPlacement(userId, shard);
+        System.out.println("User " + userId + " placed on shard " + shard);
+        return shard;
+    }
+
+    /**
+     * Place a user whose users row is being inserted in the given directory
+     * transaction, so the row and its placement commit together. The shard's
+     * stub row is created first, outside the transaction; creating it again
+     * is a no-op, so a retried registration can run this again.
+     * @return the shard the user was placed on
+     */
+    public String assignNewUser(UnitOfWork directoryTx, int userId, String username) throws SQLException {
+        if (!isSharded()) {
+            return PRIMARY;
+        }
+        String shard = ringShardFor(userId);
+        if (!PRIMARY.equals(shard)) {
+            try (Connection conn = getPool(shard).getConnection()) {
+                ensureUserStub(conn, userId, username);
+            }
+        }
+        writePlacement(directoryTx.getConnection(), userId, shard);
+        directoryTx.afterCommit(() -> {
+            placements.put(userId, shard);
+            System.out.println("User " + userId + " placed on shard " + shard);
+        });
+        return shard;
+    }
+
+    /**
+     * Remove a deleted user's rows from their shard, in one transaction. The
+     * users row on primary is deleted by the caller; its cascade takes the
+     * placement with it.
+     */
+    public void removeUser(int userId) throws SQLException {
+        String shard = shardOf(userId);
+        placements.remove(userId);
+        if (PRIMARY.equals(shard)) {
+            return;
+        }
+        try (Connection conn = getPool(shard).getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Partitioned tables and their archives have no foreign keys on MySQL (migration 9),
+                // so delete them first; the stub's cascade covers the user's other rows on that shard
+                List<String> statements = new ArrayList<>();
+                for (String table : PartitionMaintenance.archiveTables(conn)) {
+                    statements.add("DELETE FROM " + table + " WHERE user_id = ?");
+                }
+                statements.add("DELETE FROM mood_entries WHERE user_id = ?");
+                statements.add("DELETE FROM focus_sessions WHERE user_id = ?");
+                statements.add("DELETE FROM users WHERE id = ?");
+                for (String sql : statements) {
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.setInt(1, userId);
+                        stmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Insert the stub users row the shard's foreign keys need, if missing.
+     * Only the id and username are copied; credentials stay on primary.
+     */
+    void ensureUserStub(Connection shardConn, int userId) throws SQLException {
+        if (hasUserStub(shardConn, userId)) {
+            return;
+        }
+
+        String username;
+        try (Connection conn = primaryPool.get().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT username FROM users WHERE id = ?")) {
+            stmt.setInt(1, userId);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                throw new SQLException("User " + userId + " does not exist on " + PRIMARY);
+            }
+            username = rs.getString(1);
+        }
+        ensureUserStub(shardConn, userId, username);
+    }
+
+    private void ensureUserStub(Connection shardConn, int userId, String username) throws SQLException {
+        if (hasUserStub(shardConn, userId)) {
+            return;
+        }
+        try (PreparedStatement insert = shardConn.prepareStatement(
+                "INSERT INTO users (id, username, password) VALUES (?, ?, ?)")) {
+            insert.setInt(1, userId);
+            insert.setString(2, username);
+            insert.setString(3, "");
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Record on primary that the user's rows now live on the given shard.
+     */
+    void recordPlacement(int userId, String shard) throws SQLException {
+        try (Connection conn = primaryPool.get().getConnection()) {
+            writePlacement(conn, userId, shard);
+        }
+        placements.put(userId, shard);
+    }
+
+    private static boolean hasUserStub(Connection shardConn, int userId) throws SQLException {
+        try (PreparedStatement check = shardConn.prepareStatement("SELECT 1 FROM users WHERE id = ?")) {
+            check.setInt(1, userId);
+            return check.executeQuery().next();
+        }
+    }
+
+    private static void writePlacement(Connection conn, int userId, String shard) throws SQLException {
+        int updated;
+        try (PreparedStatement update = conn.prepareStatement(
+                "UPDATE user_shards SET shard = ?, assigned_at = CURRENT_TIMESTAMP WHERE user_id = ?")) {
+            update.setString(1, shard);
+            update.setInt(2, userId);
+            updated = update.executeUpdate();
+        }
+        if (updated == 0) {
+            try (PreparedStatement insert = conn.prepareStatement(
+                    "INSERT INTO user_shards (user_id, shard) VALUES (?, ?)")) {
+                insert.setInt(1, userId);
+                insert.setString(2, shard);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    ConnectionPool getPool(String shard) {
+        if (PRIMARY.equals(shard)) {
+            return primaryPool.get();
+        }
+        return requireShard(shard).getPool();
+    }
+
+    /**
+     * Bring the schema of every shard other than primary up to date.
+     */
+    void migrateShards() throws SQLException {
+        for (Shard shard : extraShards()) {
+            try (Connection conn = shard.getPool().getConnection()) {
+                int applied = new MigrationRunner(shard.settings.getDialect()).migrate(conn);
+                if (applied > 0) {
+                    System.out.println("Applied " + applied + " schema migration(s) on shard " + shard.name);
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether every shard other than primary accepts a new connection.
+     */
+    boolean canConnectShards(int timeoutSeconds) {
+        for (Shard shard : extraShards()) {
+            if (!shard.getPool().canConnect(timeoutSeconds)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Close the pools of the shards other than primary; they reopen on next use.
+     */
+    void closeShards() {
+        for (Shard shard : extraShards()) {
+            shard.close();
+        }
+    }
+
+    /**
+     * Forget shards added at runtime and cached placements; the configured
+     * shards are read again on next use.
+     */
+    synchronized void reset() {
+        closeShards();
+        shards.clear();
+        ring.clear();
+        placements.clear();
+        configured = false;
+        sharded = false;
+    }
+
+    private synchronized List<Shard> extraShards() {
+        List<Shard> extra = new ArrayList<>();
+        for (Shard shard : shards.values()) {
+            if (shard.settings != null) {
+                extra.add(shard);
+            }
+        }
+        return extra;
+    }
+
+    private synchronized boolean hasShard(String name) {
+        return shards.containsKey(name);
+    }
+
+    private synchronized Shard requireShard(String name) {
+        ensureConfigured();
+        Shard shard = shards.get(name);
+        if (shard == null) {
+            throw new IllegalArgumentException("Unknown shard '" + name + "'");
+        }
+        return shard;
+    }
+
+    private void ensureConfigured() {
+        if (configured) {
+            return;
+        }
+        synchronized (this) {
+            if (configured) {
+                return;
+            }
+            shards.put(PRIMARY, new Shard(PRIMARY, null));
+            String names = ConfigManager.getInstance().getProperty("db.shards", "");
+            for (String name : names.split(",")) {
+                name = name.trim();
+                if (!name.isEmpty() && !shards.containsKey(name)) {
+                    shards.put(name, new Shard(name, DatabaseSettings.forShard(name)));
+                }
+            }
+            rebuildRing();
+            configured = true;
+        }
+    }
+
+    private synchronized void rebuildRing() {
+        int virtualNodes = Math.max(1, ConfigManager.getInstance()
+                .getIntProperty("db.shards.virtualNodes", DEFAULT_VIRTUAL_NODES));
+        ring.clear();
+        for (String name : shards.keySet()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(name + "#" + i), name);
+            }
+        }
+        sharded = shards.size() > 1;
+    }
+
+    /**
+     * First 8 bytes of the MD5 digest: evenly spread and the same on every JVM.
+     */
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (digest[i] & 0xFF);
+            }
+            return value;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Shards" + shards.keySet() + " (" + placements.size() + " placements cached)";
+    }
+
+    /**
+     * One configured database. Primary has no settings: its pool belongs to DatabaseManager.
+     */
+    private static class Shard {
+        private final String name;
+        private final DatabaseSettings settings; // null for primary
+        private ConnectionPool pool;
+
+        Shard(String name, DatabaseSettings settings) {
+            this.name = name;
+            this.settings = settings;
+        }
+
+        synchronized ConnectionPool getPool() {
+            if (pool == null) {
+                pool = new ConnectionPool(settings, PoolConfig.fromConfig());
+            }
+            return pool;
+        }
+
+        synchronized void close() {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.focusbuddy.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Backend-specific SQL details.
+ *
+ * The schema and the service queries are written in MySQL syntax. A dialect
+ * rewrites them for its backend (see {@link #translate(String)}), so the same
+ * createTables() statements and service code run unchanged on every backend.
+ */
+public interface SqlDialect {
+
+    /**
+     * Short backend name, as used by the "db.backend" setting.
+     */
+    String getName();
+
+    /**
+     * Add the driver options this backend needs to a configured JDBC URL.
+     */
+    String decorateUrl(String url);
+
+    /**
+     * Statements run once before the schema is created (e.g. CREATE DATABASE).
+     */
+    List<String> getBootstrapStatements();
+
+    /**
+     * Rewrite a MySQL-syntax statement for this backend.
+     * Must return the input unchanged when no rewrite is needed.
+     */
+    String translate(String sql);
+
+    /**
+     * Whether {@link #translate(String)} can ever change a statement.
+     * Lets the pool skip wrapping statements for MySQL.
+     */
+    default boolean rewritesSql() {
+        return true;
+    }
+
+    /**
+     * Whether the backend runs in-process with the application.
+     */
+    default boolean isEmbedded() {
+        return false;
+    }
+
+    /**
+     * Run EXPLAIN for a MySQL-syntax query with the given parameter values.
+     * The connection should come from the pool, so the query is translated.
+     */
+    default QueryPlan explain(Connection conn, String sql, List<?> parameters) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                stmt.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                return readPlan(sql, rs);
+            }
+        }
+    }
+
+    /**
+     * Interpret this backend's EXPLAIN output for {@link #explain}.
+     */
+    QueryPlan readPlan(String sql, ResultSet plan) throws SQLException;
+}
@@ -0,0 +1,230 @@
+package com.focusbuddy.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements attached to one pooled connection.
+ *
+ * Statements are keyed by their SQL text (plus the generated-keys flag). Closing a
+ * statement obtained from the cache only returns it to the cache; the physical
+ * statement stays prepared until it is evicted or the connection is destroyed.
+ * If the cached statement for a SQL string is already in use (e.g. two open
+ * statements with the same query), an uncached statement is handed out instead.
+ */
+class StatementCache {
+
+    /**
+     * Hit/miss counters shared by every cache of a pool.
+     */
+    static class Counters {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong evictions = new AtomicLong();
+    }
+
+    private final int maxSize;
+    private final Counters counters;
+    // Access-ordered so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, CachedStatement> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(int maxSize, Counters counters) {
+        this.maxSize = maxSize;
+        this.counters = counters;
+    }
+
+    /**
+     * Return a prepared statement for the SQL, reusing a cached one when possible.
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS / NO_GENERATED_KEYS, or null if not specified
+     */
+    synchronized PreparedStatement prepare(Connection physical, Connection owner, String sql,
+                                           Integer autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == null ? sql : autoGeneratedKeys + "|" + sql;
+
+        CachedStatement cached = entries.get(key);
+        if (cached != null) {
+            if (cached.inUse) {
+                // Same SQL already checked out on this connection: hand out a one-off statement
+                counters.misses.incrementAndGet();
+                return prepareDirect(physical, sql, autoGeneratedKeys);
+            }
+            counters.hits.incrementAndGet();
+            cached.inUse = true;
+            return cached.newHandle(owner);
+        }
+
+        counters.misses.incrementAndGet();
+        cached = new CachedStatement(prepareDirect(physical, sql, autoGeneratedKeys));
+        cached.inUse = true;
+        entries.put(key, cached);
+        evictIfNeeded();
+        return cached.newHandle(owner);
+    }
+
+    private PreparedStatement prepareDirect(Connection physical, String sql, Integer autoGeneratedKeys) throws SQLException {
+        return autoGeneratedKeys == null
+                ? physical.prepareStatement(sql)
+                : physical.prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, CachedStatement>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            CachedStatement candidate = iterator.next().getValue();
+            if (!candidate.inUse) {
+                iterator.remove();
+                candidate.closePhysical();
+                counters.evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Close every cached statement (used when the physical connection is destroyed).
+     */
+    synchronized void clear() {
+        for (CachedStatement cached : entries.values()) {
+            cached.closePhysical();
+        }
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void checkIn(CachedStatement cached) {
+        cached.inUse = false;
+        if (!entries.containsValue(cached)) {
+            // Evicted or cleared while checked out
+            cached.closePhysical();
+        }
+    }
+
+    /**
+     * A physical statement kept prepared across leases.
+     */
+    private class CachedStatement {
+        private final PreparedStatement physical;
+        private boolean inUse;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        PreparedStatement newHandle(Connection owner) {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new Handle(owner));
+        }
+
+        void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // Ignore, the connection may already be gone
+            }
+        }
+
+        /**
+         * The view of the cached statement given to one caller.
+         */
+        private class Handle implements InvocationHandler {
+            private final Connection owner;
+            private final List<ResultSet> openResults = new ArrayList<>();
+            private boolean closed;
+
+            Handle(Connection owner) {
+                this.owner = owner;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close" -> {
+                        release();
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        return closed;
+                    }
+                    case "getConnection" -> {
+                        return owner;
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    case "toString" -> {
+                        return "CachedStatement[" + physical + "]";
+                    }
+                    default -> { }
+                }
+
+                if (closed) {
+                    throw new SQLException("Statement is closed");
+                }
+
+                Object result;
+                try {
+                    result = method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+
+                if (result instanceof ResultSet resultSet) {
+                    openResults.add(resultSet);
+                }
+                return result;
+            }
+
+            private void release() {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+
+                for (ResultSet resultSet : openResults) {
+                    try {
+                        resultSet.close();
+                    } catch (SQLException e) {
+                        // Ignore
+                    }
+                }
+                openResults.clear();
+
+                try {
+                    physical.clearParameters();
+                    // A batch left over from a rolled-back transaction must not run with the next one
+                    physical.clearBatch();
+                    physical.clearWarnings();
+                    checkIn(CachedStatement.this);
+                } catch (SQLException e) {
+                    // Statement is broken, drop it from the cache
+                    discard(CachedStatement.this);
+                }
+            }
+        }
+    }
+
+    private synchronized void discard(CachedStatement cached) {
+        entries.values().remove(cached);
+        cached.inUse = false;
+        cached.closePhysical();
+    }
+}
@@ -0,0 +1,11 @@
+package com.focusbuddy.database;
+
+import java.sql.SQLException;
+
+/**
+ * Work run by {@link DatabaseManager#inTransaction(TransactionCallback)}.
+ */
+@FunctionalInterface
+public interface TransactionCallback<T> {
+    T execute(UnitOfWork tx) throws SQLException;
+}
@@ -0,0 +1,20 @@
+package com.focusbuddy.database;
+
+import java.sql.SQLException;
+
+/**
+ * Carries a {@link SQLException} out of code that cannot throw checked
+ * exceptions, such as a {@link java.util.stream.Stream} over query results.
+ */
+public class UncheckedSQLException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public UncheckedSQLException(SQLException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
@@ -0,0 +1,135 @@
+package com.focusbuddy.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One logical operation running inside a database transaction
+ * (see {@link DatabaseManager#inTransaction(TransactionCallback)}).
+ *
+ * Reads go through {@link #prepare(String)} and run immediately. Writes whose
+ * results are not needed go through {@link #batch(String, Binder)}: consecutive
+ * writes with the same SQL are sent as one JDBC batch, either when a different
+ * SQL is queued or when the unit of work is flushed, which happens
+ * automatically right before the commit.
+ */
+public class UnitOfWork {
+
+    /**
+     * Sets the parameters of one queued write.
+     */
+    @FunctionalInterface
+    public interface Binder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    private final Connection connection;
+    // Only one batch is open at a time, so writes reach the database in the order they were queued
+    private String pendingSql;
+    private PreparedStatement pendingBatch;
+    private int flushedRows;
+    private final List<Runnable> afterCommit = new ArrayList<>();
+
+    UnitOfWork(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * The transaction's connection, for anything the helpers below do not cover.
+     * Do not commit, roll back or close it.
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Prepare a statement that runs immediately within the transaction.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        return connection.prepareStatement(sql);
+    }
+
+    /**
+     * Queue a write to be sent with the next flush. Queuing a different SQL
+     * first sends the writes already queued, so interleaving two statements
+     * costs one round trip per switch.
+     */
+    public void batch(String sql, Binder binder) throws SQLException {
+        if (pendingBatch != null && !pendingSql.equals(sql)) {
+            flushedRows += executePending();
+        }
+        if (pendingBatch == null) {
+            pendingBatch = connection.prepareStatement(sql);
+            pendingSql = sql;
+        }
+        binder.bind(pendingBatch);
+        pendingBatch.addBatch();
+    }
+
+    /**
+     * Send all queued writes. Call this before a read that must see them.
+     * @return number of rows affected by the writes sent since the last flush
+     */
+    public int flush() throws SQLException {
+        int affected = flushedRows + executePending();
+        flushedRows = 0;
+        return affected;
+    }
+
+    private int executePending() throws SQLException {
+        if (pendingBatch == null) {
+            return 0;
+        }
+        PreparedStatement stmt = pendingBatch;
+        pendingBatch = null;
+        pendingSql = null;
+        try (stmt) {
+            int affected = 0;
+            for (int count : stmt.executeBatch()) {
+                // SUCCESS_NO_INFO (-2) means the row was written but not counted
+                affected += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
+            return affected;
+        }
+    }
+
+    /**
+     * Run an action once the transaction has committed, e.g. to invalidate
+     * cached reads of the rows it wrote. Dropped if the transaction rolls back.
+     */
+    public void afterCommit(Runnable action) {
+        afterCommit.add(action);
+    }
+
+    /**
+     * Drop queued writes without sending them (used on rollback).
+     */
+    void discard() {
+        if (pendingBatch != null) {
+            try (PreparedStatement stmt = pendingBatch) {
+                stmt.clearBatch();
+            } catch (SQLException e) {
+                System.err.println("Could not clear queued writes: " + e.getMessage());
+            }
+            pendingBatch = null;
+            pendingSql = null;
+        }
+        flushedRows = 0;
+        afterCommit.clear();
+    }
+
+    void runAfterCommit() {
+        for (Runnable action : afterCommit) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                System.err.println("After-commit action failed: " + e.getMessage());
+            }
+        }
+        afterCommit.clear();
+    }
+}
@@ -0,0 +1,628 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.utils.ConfigManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Local append-only journal for writes made while the database cannot be reached.
+ *
+ * A service asks {@link #connectOrDefer()} for its connection. When it gets
+ * null - the database is offline, no connection could be borrowed in time, or
+ * older journaled writes are still waiting - it {@link #append appends} its
+ * statement here instead. The statement is then durable on disk and the
+ * service reports success. Only writes that never reached the database are
+ * journaled, so nothing is applied twice.
+ *
+ * Appends are group-committed: concurrent entries share one write and one
+ * fsync ("db.journal.flushDelayMs" lets more of them gather). Each line
+ * carries a CRC32, so a line torn by a crash is dropped on the next start.
+ *
+ * A background replayer applies the entries in order once the database is
+ * back (on the circuit breaker closing and every "db.journal.replayIntervalMs").
+ * Each entry has an idempotency key that is recorded in journal_applied in the
+ * same transaction as the write, so replaying an entry again is a no-op.
+ * The file is emptied once everything in it has been applied; keys older
+ * than "db.journal.keyRetentionDays" are then deleted.
+ */
+public class WriteJournal {
+    private static WriteJournal instance;
+
+    private static final String DEFAULT_PATH = "./data/focusbuddy_journal.log";
+    private static final String FIELD = "\t";
+
+    /**
+     * Parameter bound to the local time at replay, for timestamps that must
+     * show when the write reached the database (e.g. tasks.updated_at, which
+     * task deltas read from).
+     */
+    public static final Object REPLAY_TIME = new Object() {
+        @Override
+        public String toString() {
+            return "REPLAY_TIME";
+        }
+    };
+
+    private final Path file;
+    private final DatabaseManager manager;
+    private final boolean enabled;
+    private final long flushDelayMs;
+    private final int keyRetentionDays;
+
+    // Lines waiting for the next group commit
+    private final Queue<Append> unflushed = new ConcurrentLinkedQueue<>();
+    private boolean flushScheduled; // guarded by unflushed
+    private long nextSequence = 1;  // guarded by unflushed
+    // Taken from unflushed but not in pending yet; counted before they leave unflushed
+    private final AtomicInteger flushing = new AtomicInteger();
+
+    // Durable entries not applied yet, in order; file and pending are guarded by fileLock
+    private final Object fileLock = new Object();
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private FileChannel channel;
+
+    private final List<IntConsumer> replayListeners = new CopyOnWriteArrayList<>();
+    // Separate threads, so an append never waits behind a replay stuck on the database
+    private final ScheduledExecutorService writer = newThread("focusbuddy-journal-writer");
+    private final ScheduledExecutorService replayer = newThread("focusbuddy-journal-replayer");
+    private volatile boolean replayerStarted;
+
+    /**
+     * One journaled statement.
+     * @param table  the table written, for cache invalidation
+     * @param userId the user whose rows are written, for routing and invalidation
+     */
+    record Entry(long sequence, String key, String table, int userId, String sql, List<Object> parameters) { }
+
+    private record Append(Entry entry, byte[] line, CompletableFuture<Void> durable) { }
+
+    private WriteJournal() {
+        this(Paths.get(ConfigManager.getInstance().getProperty("db.journal.path", DEFAULT_PATH)),
+                DatabaseManager.getInstance(),
+                ConfigManager.getInstance().getBooleanProperty("db.journal.enabled", true),
+                ConfigManager.getInstance().getLongProperty("db.journal.flushDelayMs", 5));
+    }
+
+    WriteJournal(Path file, DatabaseManager manager, boolean enabled, long flushDelayMs) {
+        this.file = file;
+        this.manager = manager;
+        this.enabled = enabled;
+        this.flushDelayMs = Math.max(0, flushDelayMs);
+        this.keyRetentionDays = Math.max(1, ConfigManager.getInstance().getIntProperty("db.journal.keyRetentionDays", 7));
+        if (enabled) {
+            load();
+        }
+    }
+
+    private static ScheduledExecutorService newThread(String name) {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized WriteJournal getInstance() {
+        if (instance == null) {
+            instance = new WriteJournal();
+        }
+        return instance;
+    }
+
+    /**
+     * Start replaying in the background: now, every "db.journal.replayIntervalMs"
+     * and whenever the database comes back. Call once the schema is up to date.
+     */
+    public synchronized void startReplayer() {
+        if (!enabled || replayerStarted) {
+            return;
+        }
+        replayerStarted = true;
+        long interval = Math.max(1_000,
+                ConfigManager.getInstance().getLongProperty("db.journal.replayIntervalMs", 5_000));
+        replayer.scheduleWithFixedDelay(this::replayQuietly, 0, interval, TimeUnit.MILLISECONDS);
+        manager.getCircuitBreaker().addListener(state -> {
+            if (state == CircuitBreaker.State.CLOSED) {
+                scheduleReplay();
+            }
+        });
+    }
+
+    /**
+     * Borrow a connection for a write that can be journaled.
+     * @return null if the write should be {@link #append appended} instead
+     */
+    public Connection connectOrDefer() throws SQLException {
+        if (!enabled) {
+            return manager.getConnection();
+        }
+        if (hasPending()) {
+            return null; // keep the order: this write must follow the journaled ones
+        }
+        try {
+            return manager.getConnection();
+        } catch (SQLException e) {
+            // Nothing has been sent yet, so the write can safely be replayed later
+            System.err.println("⚠️ Database not reachable, journaling write: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Durably record a write to be applied once the database is reachable.
+     * Returns once the entry has been fsynced.
+     * @param parameters bound in order with setObject; LocalDate/LocalDateTime are converted,
+     *                   {@link #REPLAY_TIME} becomes the time of the replay
+     * @return false if the journal file could not be written
+     */
+    public boolean append(String table, int userId, String sql, Object... parameters) {
+        if (!enabled) {
+            return false;
+        }
+        Append append;
+        synchronized (unflushed) {
+            // Numbered in queue order, which is the order they are written and replayed in
+            // Kept as they will be read back, so a replay before and after a restart binds the same values
+            List<Object> values = new ArrayList<>();
+            for (Object parameter : parameters) {
+                values.add(decodeValue(encodeValue(parameter)));
+            }
+            Entry entry = new Entry(nextSequence++, UUID.randomUUID().toString(), table, userId, sql, values);
+            append = new Append(entry, encode(entry), new CompletableFuture<>());
+            unflushed.add(append);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                writer.schedule(this::flush, flushDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        try {
+            append.durable.get();
+            QueryCache.getInstance().invalidate(table, userId);
+            scheduleReplay();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            System.err.println("Could not write to the journal: " + e.getCause().getMessage());
+            return false;
+        }
+    }
+
+    public boolean hasPending() {
+        // In the order an entry moves through them, so it is seen in at least one
+        return !unflushed.isEmpty() || flushing.get() > 0 || !pending.isEmpty();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Called with the number of entries applied after each replay that applied some.
+     */
+    public void addReplayListener(IntConsumer listener) {
+        replayListeners.add(listener);
+    }
+
+    public void removeReplayListener(IntConsumer listener) {
+        replayListeners.remove(listener);
+    }
+
+    /**
+     * Replay on the journal thread as soon as possible, once {@link #startReplayer} was called.
+     */
+    public void scheduleReplay() {
+        if (enabled && replayerStarted && !pending.isEmpty()) {
+            replayer.execute(this::replayQuietly);
+        }
+    }
+
+    /**
+     * Apply pending entries in order, stopping at the first one that fails
+     * because the database is still unreachable. Runs on the replayer thread
+     * (directly in tests).
+     * @return the number of entries applied
+     */
+    synchronized int replay() {
+        int applied = 0;
+        Entry entry;
+        while ((entry = pending.peek()) != null) {
+            if (!manager.isOnline()) {
+                break;
+            }
+            try {
+                if (apply(entry)) {
+                    applied++;
+                }
+            } catch (SQLException e) {
+                if (!isRejected(e)) {
+                    System.err.println("Journal replay paused: " + e.getMessage());
+                    break; // try again later, keeping the order
+                }
+                // The write itself is rejected (bad value, rows gone); it would fail forever
+                System.err.println("⚠️ Dropping journaled write " + entry.key() + " (" + entry.sql() + "): "
+                        + e.getMessage());
+            }
+            pending.poll();
+        }
+
+        if (compactIfApplied() && applied > 0) {
+            pruneAppliedKeys();
+        }
+        if (applied > 0) {
+            System.out.println("✅ Replayed " + applied + " journaled write(s)");
+            for (IntConsumer listener : replayListeners) {
+                listener.accept(applied);
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Data exceptions (SQLState class 22) and constraint violations (23) will
+     * not go away by retrying.
+     */
+    private static boolean isRejected(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("22") || state.startsWith("23"));
+    }
+
+    private void replayQuietly() {
+        try {
+            replay();
+        } catch (RuntimeException e) {
+            System.err.println("Journal replay failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Run the entry's statement and record its key in one transaction on the
+     * user's shard.
+     * @return false if the key was already recorded
+     */
+    private boolean apply(Entry entry) throws SQLException {
+        return manager.getShardRouter().onUserShard(entry.userId(), () -> manager.inTransaction(tx -> {
+            PreparedStatement check = tx.prepare("SELECT 1 FROM journal_applied WHERE idempotency_key = ?");
+            check.setString(1, entry.key());
+            if (check.executeQuery().next()) {
+                return false;
+            }
+
+            PreparedStatement stmt = tx.prepare(entry.sql());
+            for (int i = 0; i < entry.parameters().size(); i++) {
+                stmt.setObject(i + 1, toJdbc(entry.parameters().get(i)));
+            }
+            stmt.executeUpdate();
+
+            PreparedStatement mark = tx.prepare("INSERT INTO journal_applied (idempotency_key) VALUES (?)");
+            mark.setString(1, entry.key());
+            mark.executeUpdate();
+
+            tx.afterCommit(() -> QueryCache.getInstance().invalidate(entry.table(), entry.userId()));
+            return true;
+        }));
+    }
+
+    /**
+     * Write every queued line with one write and one fsync, then complete their appends.
+     */
+    private void flush() {
+        List<Append> batch = new ArrayList<>();
+        synchronized (unflushed) {
+            flushing.addAndGet(unflushed.size());
+            Append append;
+            while ((append = unflushed.poll()) != null) {
+                batch.add(append);
+            }
+            flushScheduled = false;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            writeBatch(batch);
+        } finally {
+            flushing.addAndGet(-batch.size());
+        }
+    }
+
+    private void writeBatch(List<Append> batch) {
+        synchronized (fileLock) {
+            try {
+                int size = batch.stream().mapToInt(append -> append.line.length).sum();
+                ByteBuffer buffer = ByteBuffer.allocate(size);
+                batch.forEach(append -> buffer.put(append.line));
+                buffer.flip();
+
+                FileChannel out = openChannel();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(false);
+                batch.forEach(append -> pending.add(append.entry));
+            } catch (IOException e) {
+                batch.forEach(append -> append.durable.completeExceptionally(e));
+                return;
+            }
+        }
+        batch.forEach(append -> append.durable.complete(null));
+    }
+
+    /**
+     * Empty the file once every entry in it has been applied.
+     * @return whether the file is empty now
+     */
+    private boolean compactIfApplied() {
+        synchronized (fileLock) {
+            if (!pending.isEmpty()) {
+                return false;
+            }
+            if (channel == null && !Files.exists(file)) {
+                return true;
+            }
+            try {
+                FileChannel out = openChannel();
+                if (out.size() > 0) {
+                    out.truncate(0);
+                    out.force(false);
+                }
+                return true;
+            } catch (IOException e) {
+                System.err.println("Could not truncate the journal: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Delete idempotency keys past the retention on every shard. Only keys of
+     * entries still in some journal file are needed, and after that long a
+     * file still holding its entry has been replayed or is gone.
+     */
+    private void pruneAppliedKeys() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(keyRetentionDays));
+        for (String shard : manager.getShardRouter().getShardNames()) {
+            try {
+                int pruned = manager.getShardRouter().onShard(shard, () -> manager.inTransaction(tx -> {
+                    PreparedStatement stmt = tx.prepare("DELETE FROM journal_applied WHERE applied_at < ?");
+                    stmt.setTimestamp(1, cutoff);
+                    return stmt.executeUpdate();
+                }));
+                if (pruned > 0) {
+                    System.out.println("Pruned " + pruned + " old journal key(s) on " + shard);
+                }
+            } catch (SQLException e) {
+                System.err.println("Could not prune journal keys on " + shard + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    /**
+     * Read the entries left by a previous run. A torn or corrupt line ends the
+     * journal; it and anything after it are cut off.
+     */
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        synchronized (fileLock) {
+            try {
+                byte[] content = Files.readAllBytes(file);
+                int start = 0;
+                int validEnd = 0;
+                while (start < content.length) {
+                    int end = indexOf(content, (byte) '\n', start);
+                    Entry entry = end < 0 ? null : decode(new String(content, start, end - start, StandardCharsets.UTF_8));
+                    if (entry == null) {
+                        System.err.println("⚠️ Ignoring damaged journal tail at byte " + start);
+                        break;
+                    }
+                    pending.add(entry);
+                    nextSequence = Math.max(nextSequence, entry.sequence() + 1);
+                    start = end + 1;
+                    validEnd = start;
+                }
+                if (validEnd < content.length) {
+                    try (FileChannel repair = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                        repair.truncate(validEnd);
+                        repair.force(false);
+                    }
+                }
+                if (!pending.isEmpty()) {
+                    System.out.println("Journal has " + pending.size() + " write(s) waiting to be replayed");
+                }
+            } catch (IOException e) {
+                System.err.println("Could not read the journal: " + e.getMessage());
+            }
+        }
+    }
+
+    private static int indexOf(byte[] content, byte value, int from) {
+        for (int i = from; i < content.length; i++) {
+            if (content[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // ---- line format: seq, key, table, userId, sql, parameters..., crc32 (tab separated) ----
+
+    private static byte[] encode(Entry entry) {
+        StringBuilder line = new StringBuilder()
+                .append(entry.sequence()).append(FIELD)
+                .append(entry.key()).append(FIELD)
+                .append(entry.table()).append(FIELD)
+                .append(entry.userId()).append(FIELD)
+                .append(base64(entry.sql()));
+        for (Object parameter : entry.parameters()) {
+            line.append(FIELD).append(encodeValue(parameter));
+        }
+        long crc = crc(line.toString());
+        line.append(FIELD).append(Long.toHexString(crc)).append('\n');
+        return line.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Entry decode(String line) {
+        int crcStart = line.lastIndexOf(FIELD);
+        if (crcStart < 0) {
+            return null;
+        }
+        String body = line.substring(0, crcStart);
+        if (!Long.toHexString(crc(body)).equals(line.substring(crcStart + 1))) {
+            return null;
+        }
+        try {
+            String[] fields = body.split(FIELD, -1);
+            List<Object> parameters = new ArrayList<>();
+            for (int i = 5; i < fields.length; i++) {
+                parameters.add(decodeValue(fields[i]));
+            }
+            return new Entry(Long.parseLong(fields[0]), fields[1], fields[2], Integer.parseInt(fields[3]),
+                    unbase64(fields[4]), parameters);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String encodeValue(Object value) {
+        if (value == null) {
+            return "N";
+        }
+        if (value == REPLAY_TIME) {
+            return "R";
+        }
+        if (value instanceof Integer number) {
+            return "I" + number;
+        }
+        if (value instanceof Long number) {
+            return "L" + number;
+        }
+        if (value instanceof Boolean flag) {
+            return "B" + flag;
+        }
+        if (value instanceof LocalDate date) {
+            return "D" + date;
+        }
+        if (value instanceof Date date) {
+            return "D" + date.toLocalDate();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return "T" + dateTime;
+        }
+        if (value instanceof Timestamp timestamp) {
+            return "T" + timestamp.toLocalDateTime();
+        }
+        if (value instanceof Enum<?> constant) {
+            return "S" + base64(constant.name());
+        }
+        if (value instanceof String text) {
+            return "S" + base64(text);
+        }
+        throw new IllegalArgumentException("Cannot journal a " + value.getClass().getSimpleName());
+    }
+
+    private static Object decodeValue(String field) {
+        String value = field.substring(1);
+        return switch (field.charAt(0)) {
+            case 'N' -> null;
+            case 'R' -> REPLAY_TIME;
+            case 'I' -> Integer.parseInt(value);
+            case 'L' -> Long.parseLong(value);
+            case 'B' -> Boolean.parseBoolean(value);
+            case 'D' -> LocalDate.parse(value);
+            case 'T' -> LocalDateTime.parse(value);
+            case 'S' -> unbase64(value);
+            default -> throw new IllegalArgumentException("Unknown journal value " + field);
+        };
+    }
+
+    private static Object toJdbc(Object value) {
+        if (value == REPLAY_TIME) {
+            return Timestamp.valueOf(LocalDateTime.now());
+        }
+        if (value instanceof LocalDate date) {
+            return Date.valueOf(date);
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return Timestamp.valueOf(dateTime);
+        }
+        return value;
+    }
+
+    private static String base64(String text) {
+        return Base64.getEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String unbase64(String text) {
+        return new String(Base64.getDecoder().decode(text), StandardCharsets.UTF_8);
+    }
+
+    private static long crc(String text) {
+        CRC32 crc = new CRC32();
+        crc.update(text.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Stop the journal thread and close the file (tests).
+     */
+    void close() {
+        writer.shutdownNow();
+        replayer.shutdownNow();
+        synchronized (fileLock) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // Closing anyway
+                }
+                channel = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.focusbuddy.database;
+
+/**
+ * Outcome of a write that may be deferred to the {@link WriteJournal}.
+ */
+public enum WriteResult {
+    /** Written to the database. */
+    SAVED,
+    /** Journaled while offline; applied, and given its generated id, on replay. */
+    QUEUED,
+    FAILED;
+
+    public boolean isSuccess() {
+        return this != FAILED;
+    }
+}
@@ -1,12 +1,15 @@
 package com.focusbuddy.services;
 
 import com.focusbuddy.models.*;
+import com.focusbuddy.database.AccessMode;
 import com.focusbuddy.database.DatabaseManager;
+import com.focusbuddy.database.QueryScope;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class ActivityService {
@@ -64,10 +67,17 @@ public class ActivityService {
         return activities;
     }
 
+    /**
+     * Load recent activities on the DbExecutor. Cancelling the scope cancels the queries.
+     */
+    public CompletableFuture<List<ActivityItem>> getRecentActivitiesAsync(QueryScope scope, int userId, int limit) {
+        return scope.supply(() -> getRecentActivities(userId, limit));
+    }
+
     private List<ActivityItem> getRecentTaskActivities(int userId) {
         List<ActivityItem> activities = new ArrayList<>();
 
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try (Connection conn = DatabaseManager.getInstance().getConnection(AccessMode.READ_ONLY)) {
             // Get recent tasks (created and completed in last 7 days)
             String query = """
                 SELECT id, title, status, created_at, updated_at 
@@ -123,7 +133,7 @@ public class ActivityService {
     private List<ActivityItem> getRecentMoodActivities(int userId) {
         List<ActivityItem> activities = new ArrayList<>();
 
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try (Connection conn = DatabaseManager.getInstance().getConnection(AccessMode.READ_ONLY)) {
             // Get recent mood entries (last 7 days)
             String query = """
                 SELECT mood_level, mood_description, entry_date, created_at 
@@ -172,7 +182,7 @@ public class ActivityService {
     private List<ActivityItem> getRecentNoteActivities(int userId) {
         List<ActivityItem> activities = new ArrayList<>();
 
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try (Connection conn = DatabaseManager.getInstance().getConnection(AccessMode.READ_ONLY)) {
             // Get recent notes (created and updated in last 7 days)
             String query = """
                 SELECT id, title, category, created_at, updated_at 
@@ -231,7 +241,7 @@ public class ActivityService {
     private List<ActivityItem> getRecentGoalActivities(int userId) {
         List<ActivityItem> activities = new ArrayList<>();
 
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try (Connection conn = DatabaseManager.getInstance().getConnection(AccessMode.READ_ONLY)) {
             // Get recent goals (created and completed in last 7 days)
             String query = """
                 SELECT id, title, status, target_value, current_value, goal_type, created_at, updated_at 
@@ -1,15 +1,18 @@
 package com.focusbuddy.services;
 
+import com.focusbuddy.database.DbExecutor;
 import com.focusbuddy.models.Task;
 import com.focusbuddy.models.MoodEntry;
-import com.focusbuddy.models.Note;
 import com.focusbuddy.models.Goal;
 import com.focusbuddy.utils.UserSession;
 
 import java.io.*;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 public class ExportService {
@@ -27,25 +30,25 @@ public class ExportService {
     }
     
     public CompletableFuture<Boolean> exportAllDataToCSV(String directoryPath) {
-        return CompletableFuture.supplyAsync(() -> {
+        return DbExecutor.getInstance().supply(() -> {
             try {
                 int userId = UserSession.getInstance().getCurrentUser().getId();
                 String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
                 
                 // Export tasks
-                exportTasksToCSV(userId, directoryPath + "/tasks_" + timestamp + ".csv");
+                Map<Task.Status, Long> taskCounts = exportTasksToCSV(userId, directoryPath + "/tasks_" + timestamp + ".csv");
                 
                 // Export mood entries
                 exportMoodEntriesToCSV(userId, directoryPath + "/mood_entries_" + timestamp + ".csv");
                 
                 // Export notes
-                exportNotesToCSV(userId, directoryPath + "/notes_" + timestamp + ".csv");
+                long noteCount = exportNotesToCSV(userId, directoryPath + "/notes_" + timestamp + ".csv");
                 
                 // Export goals
                 exportGoalsToCSV(userId, directoryPath + "/goals_" + timestamp + ".csv");
                 
                 // Create summary report
-                createSummaryReport(userId, directoryPath + "/summary_" + timestamp + ".txt");
+                createSummaryReport(userId, directoryPath + "/summary_" + timestamp + ".txt", taskCounts, noteCount);
                 
                 return true;
             } catch (Exception e) {
@@ -55,15 +58,20 @@ public class ExportService {
         });
     }
     
-    private void exportTasksToCSV(int userId, String filePath) throws IOException {
-        List<Task> tasks = taskService.getTasksForUser(userId);
+    /**
+     * Rows are streamed from the database straight into the file.
+     * @return number of exported tasks per status, for the summary report
+     */
+    private Map<Task.Status, Long> exportTasksToCSV(int userId, String filePath) throws IOException, SQLException {
+        Map<Task.Status, Long> counts = new EnumMap<>(Task.Status.class);
         
         try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
             // CSV Header
             writer.println("ID,Title,Description,Priority,Status,Due Date,Created At");
             
             // Data rows
-            for (Task task : tasks) {
+            taskService.forEachTask(userId, task -> {
+                counts.merge(task.getStatus(), 1L, Long::sum);
                 writer.printf("%d,\"%s\",\"%s\",%s,%s,%s,%s%n",
                     task.getId(),
                     escapeCSV(task.getTitle()),
@@ -73,8 +81,9 @@ public class ExportService {
                     task.getDueDate() != null ? task.getDueDate().toString() : "",
                     task.getCreatedAt() != null ? task.getCreatedAt().toString() : ""
                 );
-            }
+            });
         }
+        return counts;
     }
     
     private void exportMoodEntriesToCSV(int userId, String filePath) throws IOException {
@@ -97,15 +106,17 @@ public class ExportService {
         }
     }
     
-    private void exportNotesToCSV(int userId, String filePath) throws IOException {
-        List<Note> notes = notesService.getNotesForUser(userId);
-        
+    /**
+     * Notes are streamed one at a time, so large contents are never all in memory.
+     * @return number of exported notes
+     */
+    private long exportNotesToCSV(int userId, String filePath) throws IOException, SQLException {
         try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
             // CSV Header
             writer.println("ID,Title,Content,Tags,Created At,Updated At");
             
             // Data rows
-            for (Note note : notes) {
+            return notesService.forEachNote(userId, note -> {
                 writer.printf("%d,\"%s\",\"%s\",\"%s\",%s,%s%n",
                     note.getId(),
                     escapeCSV(note.getTitle()),
@@ -114,7 +125,7 @@ public class ExportService {
                     note.getCreatedAt() != null ? note.getCreatedAt().toString() : "",
                     note.getUpdatedAt() != null ? note.getUpdatedAt().toString() : ""
                 );
-            }
+            });
         }
     }
     
@@ -143,7 +154,8 @@ public class ExportService {
         }
     }
     
-    private void createSummaryReport(int userId, String filePath) throws IOException {
+    private void createSummaryReport(int userId, String filePath, Map<Task.Status, Long> taskCounts,
+                                     long noteCount) throws IOException {
         try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
             writer.println("=== FOCUSBUDDY DATA EXPORT SUMMARY ===");
             writer.println("Export Date: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
@@ -151,12 +163,11 @@ public class ExportService {
             writer.println();
             
             // Tasks summary
-            List<Task> tasks = taskService.getTasksForUser(userId);
             writer.println("TASKS SUMMARY:");
-            writer.println("Total Tasks: " + tasks.size());
-            writer.println("Completed: " + tasks.stream().filter(t -> t.getStatus() == Task.Status.COMPLETED).count());
-            writer.println("Pending: " + tasks.stream().filter(t -> t.getStatus() == Task.Status.PENDING).count());
-            writer.println("In Progress: " + tasks.stream().filter(t -> t.getStatus() == Task.Status.IN_PROGRESS).count());
+            writer.println("Total Tasks: " + taskCounts.values().stream().mapToLong(Long::longValue).sum());
+            writer.println("Completed: " + taskCounts.getOrDefault(Task.Status.COMPLETED, 0L));
+            writer.println("Pending: " + taskCounts.getOrDefault(Task.Status.PENDING, 0L));
+            writer.println("In Progress: " + taskCounts.getOrDefault(Task.Status.IN_PROGRESS, 0L));
             writer.println();
             
             // Mood summary
@@ -170,9 +181,8 @@ public class ExportService {
             }
             
             // Notes summary
-            List<Note> notes = notesService.getNotesForUser(userId);
             writer.println("NOTES SUMMARY:");
-            writer.println("Total Notes: " + notes.size());
+            writer.println("Total Notes: " + noteCount);
             writer.println();
             
             // Goals summary
@@ -188,7 +198,7 @@ public class ExportService {
     }
     
     public CompletableFuture<Boolean> backupDatabase(String backupPath) {
-        return CompletableFuture.supplyAsync(() -> {
+        return DbExecutor.getInstance().supply(() -> {
             try {
                 // This would implement database backup functionality
                 // For MySQL, you could use mysqldump command
@@ -1,11 +1,12 @@
 package com.focusbuddy.services;
 
 import com.focusbuddy.database.DatabaseManager;
+import com.focusbuddy.database.QueryCache;
+import com.focusbuddy.database.ResultHandler;
 import com.focusbuddy.models.Goal;
-import com.focusbuddy.models.StudyGoal;
-import com.focusbuddy.models.FocusGoal;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,6 +33,7 @@ public class GoalsService {
                 if (keys.next()) {
                     goal.setId(keys.getInt(1));
                 }
+                QueryCache.getInstance().invalidate("goals", goal.getUserId());
                 return true;
             }
             
@@ -56,7 +58,9 @@ public class GoalsService {
             stmt.setString(7, goal.getColor());
             stmt.setInt(8, goal.getId());
             
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            QueryCache.getInstance().invalidate("goals", goal.getUserId());
+            return updated;
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -70,7 +74,9 @@ public class GoalsService {
             PreparedStatement stmt = conn.prepareStatement(query);
             stmt.setInt(1, goalId);
             
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            QueryCache.getInstance().invalidateTable("goals"); // owner not known here
+            return deleted;
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -81,18 +87,10 @@ public class GoalsService {
     public List<Goal> getGoalsForUser(int userId) {
         List<Goal> goals = new ArrayList<>();
         
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             String query = "SELECT * FROM goals WHERE user_id = ? ORDER BY created_at DESC";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                Goal goal = createGoalFromResultSet(rs);
-                goals.add(goal);
-            }
-            
+            goals.addAll(DatabaseManager.getInstance().query(query,
+                    stmt -> stmt.setInt(1, userId), ResultHandler.list(RowMappers.GOAL)));
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -100,43 +98,11 @@ public class GoalsService {
         return goals;
     }
     
-    private Goal createGoalFromResultSet(ResultSet rs) throws SQLException {
-        Goal.GoalType type = Goal.GoalType.valueOf(rs.getString("goal_type"));
-        
-        Goal goal = switch (type) {
-            case STUDY_HOURS -> new StudyGoal();
-            case FOCUS_SESSIONS -> new FocusGoal();
-            case TASKS_COMPLETED -> new StudyGoal(); // Can create TaskGoal class
-        };
-        
-        goal.setId(rs.getInt("id"));
-        goal.setUserId(rs.getInt("user_id"));
-        goal.setTitle(rs.getString("title"));
-        goal.setDescription(rs.getString("description"));
-        goal.setTargetValue(rs.getInt("target_value"));
-        goal.setCurrentValue(rs.getInt("current_value"));
-        goal.setGoalType(type);
-        goal.setTargetDate(rs.getDate("target_date").toLocalDate());
-        goal.setStatus(Goal.Status.valueOf(rs.getString("status")));
-        
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            goal.setCreatedAt(createdAt.toLocalDateTime());
-        }
-        
-        return goal;
-    }
     
     public int getTotalGoalsCount(int userId) {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             String query = "SELECT COUNT(*) FROM goals WHERE user_id = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-            
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
+            return DatabaseManager.getInstance().cachedQuery("goals", userId, query, ResultHandler.singleInt(), userId);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -144,15 +110,9 @@ public class GoalsService {
     }
     
     public int getCompletedGoalsCount(int userId) {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             String query = "SELECT COUNT(*) FROM goals WHERE user_id = ? AND status = 'COMPLETED'";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-            
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
+            return DatabaseManager.getInstance().cachedQuery("goals", userId, query, ResultHandler.singleInt(), userId);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -160,15 +120,9 @@ public class GoalsService {
     }
     
     public int getActiveGoalsCount(int userId) {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             String query = "SELECT COUNT(*) FROM goals WHERE user_id = ? AND status = 'ACTIVE'";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-            
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
+            return DatabaseManager.getInstance().cachedQuery("goals", userId, query, ResultHandler.singleInt(), userId);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -196,13 +150,11 @@ public class GoalsService {
         }
         
         // Check for streak achievements
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
-            String query = "SELECT COUNT(*) FROM goals WHERE user_id = ? AND status = 'COMPLETED' AND target_date >= DATE_SUB(CURDATE(), INTERVAL 7 DAY)";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-            
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next() && rs.getInt(1) >= 3) {
+        try {
+            String query = "SELECT COUNT(*) FROM goals WHERE user_id = ? AND status = 'COMPLETED' AND target_date >= ?";
+            int completedThisWeek = DatabaseManager.getInstance().cachedQuery("goals", userId, query, ResultHandler.singleInt(),
+                    userId, LocalDate.now().minusDays(7));
+            if (completedThisWeek >= 3) {
                 achievements.add("Weekly Warrior - 3+ Goals This Week");
             }
         } catch (SQLException e) {
@@ -219,7 +171,9 @@ public class GoalsService {
             stmt.setInt(1, increment);
             stmt.setInt(2, goalId);
             
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            QueryCache.getInstance().invalidateTable("goals"); // owner not known here
+            return updated;
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1,6 +1,9 @@
 package com.focusbuddy.services;
 
 import com.focusbuddy.database.DatabaseManager;
+import com.focusbuddy.database.QueryCache;
+import com.focusbuddy.database.ResultHandler;
+import com.focusbuddy.database.WriteJournal;
 import com.focusbuddy.models.MoodEntry;
 
 import java.sql.*;
@@ -11,34 +14,30 @@ import java.util.List;
 public class MoodService {
     
     public boolean saveMoodEntry(MoodEntry entry) {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
-            // Check if entry for today already exists
-            String checkQuery = "SELECT id FROM mood_entries WHERE user_id = ? AND entry_date = ?";
-            PreparedStatement checkStmt = conn.prepareStatement(checkQuery);
-            checkStmt.setInt(1, entry.getUserId());
-            checkStmt.setDate(2, Date.valueOf(entry.getEntryDate()));
-            
-            ResultSet rs = checkStmt.executeQuery();
-            
-            if (rs.next()) {
-                // Update existing entry
-                String updateQuery = "UPDATE mood_entries SET mood_level = ?, mood_description = ? WHERE id = ?";
-                PreparedStatement updateStmt = conn.prepareStatement(updateQuery);
-                updateStmt.setInt(1, entry.getMoodLevel());
-                updateStmt.setString(2, entry.getMoodDescription());
-                updateStmt.setInt(3, rs.getInt("id"));
-                return updateStmt.executeUpdate() > 0;
-            } else {
-                // Insert new entry
-                String insertQuery = "INSERT INTO mood_entries (user_id, mood_level, mood_description, entry_date) VALUES (?, ?, ?, ?)";
-                PreparedStatement insertStmt = conn.prepareStatement(insertQuery);
-                insertStmt.setInt(1, entry.getUserId());
-                insertStmt.setInt(2, entry.getMoodLevel());
-                insertStmt.setString(3, entry.getMoodDescription());
-                insertStmt.setDate(4, Date.valueOf(entry.getEntryDate()));
-                return insertStmt.executeUpdate() > 0;
+        // One entry per day: the unique (user_id, entry_date) key turns a second save into an
+        // update, atomically, so two saves for the same day cannot race
+        String upsert = """
+                INSERT INTO mood_entries (user_id, mood_level, mood_description, entry_date) VALUES (?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE mood_level = VALUES(mood_level), mood_description = VALUES(mood_description)
+                """;
+        WriteJournal journal = WriteJournal.getInstance();
+        try (Connection conn = journal.connectOrDefer()) {
+            if (conn == null) {
+                // Offline: saved locally and applied once the database is back
+                return journal.append("mood_entries", entry.getUserId(), upsert, entry.getUserId(),
+                        entry.getMoodLevel(), entry.getMoodDescription(), entry.getEntryDate());
             }
-            
+
+            PreparedStatement stmt = conn.prepareStatement(upsert);
+            stmt.setInt(1, entry.getUserId());
+            stmt.setInt(2, entry.getMoodLevel());
+            stmt.setString(3, entry.getMoodDescription());
+            stmt.setDate(4, Date.valueOf(entry.getEntryDate()));
+            stmt.executeUpdate();
+
+            QueryCache.getInstance().invalidate("mood_entries", entry.getUserId());
+            return true;
+
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -48,24 +47,12 @@ public class MoodService {
     public List<MoodEntry> getRecentMoodEntries(int userId, int days) {
         List<MoodEntry> entries = new ArrayList<>();
         
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             String query = "SELECT * FROM mood_entries WHERE user_id = ? AND entry_date >= DATE_SUB(CURDATE(), INTERVAL ? DAY) ORDER BY entry_date DESC";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-            stmt.setInt(2, days);
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                MoodEntry entry = new MoodEntry();
-                entry.setId(rs.getInt("id"));
-                entry.setUserId(rs.getInt("user_id"));
-                entry.setMoodLevel(rs.getInt("mood_level"));
-                entry.setMoodDescription(rs.getString("mood_description"));
-                entry.setEntryDate(rs.getDate("entry_date").toLocalDate());
-                entries.add(entry);
-            }
-            
+            entries.addAll(DatabaseManager.getInstance().query(query, stmt -> {
+                stmt.setInt(1, userId);
+                stmt.setInt(2, days);
+            }, ResultHandler.list(RowMappers.MOOD_ENTRY)));
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -76,24 +63,12 @@ public class MoodService {
     public List<MoodEntry> getMoodEntriesForChart(int userId, int days) {
         List<MoodEntry> entries = new ArrayList<>();
         
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             String query = "SELECT * FROM mood_entries WHERE user_id = ? AND entry_date >= DATE_SUB(CURDATE(), INTERVAL ? DAY) ORDER BY entry_date ASC";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-            stmt.setInt(2, days);
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                MoodEntry entry = new MoodEntry();
-                entry.setId(rs.getInt("id"));
-                entry.setUserId(rs.getInt("user_id"));
-                entry.setMoodLevel(rs.getInt("mood_level"));
-                entry.setMoodDescription(rs.getString("mood_description"));
-                entry.setEntryDate(rs.getDate("entry_date").toLocalDate());
-                entries.add(entry);
-            }
-            
+            entries.addAll(DatabaseManager.getInstance().query(query, stmt -> {
+                stmt.setInt(1, userId);
+                stmt.setInt(2, days);
+            }, ResultHandler.list(RowMappers.MOOD_ENTRY)));
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -102,26 +77,23 @@ public class MoodService {
     }
     
     public int getMoodStreak(int userId) {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             String query = """
                 SELECT COUNT(*) as streak FROM (
                     SELECT entry_date, 
                            ROW_NUMBER() OVER (ORDER BY entry_date DESC) as rn,
-                           DATE_SUB(CURDATE(), INTERVAL ROW_NUMBER() OVER (ORDER BY entry_date DESC) - 1 DAY) as expected_date
+                           DATE_SUB(CAST(? AS DATE), INTERVAL ROW_NUMBER() OVER (ORDER BY entry_date DESC) - 1 DAY) as expected_date
                     FROM mood_entries 
-                    WHERE user_id = ? AND entry_date <= CURDATE()
+                    WHERE user_id = ? AND entry_date <= ?
                     ORDER BY entry_date DESC
                 ) t 
                 WHERE entry_date = expected_date
                 """;
             
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-            
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("streak");
-            }
+            // Today is bound, so yesterday's cached streak is not served after midnight
+            LocalDate today = LocalDate.now();
+            return DatabaseManager.getInstance().cachedQuery("mood_entries", userId, query,
+                    ResultHandler.singleInt(), today, userId, today);
             
         } catch (SQLException e) {
             e.printStackTrace();
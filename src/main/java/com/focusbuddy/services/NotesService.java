@@ -1,12 +1,19 @@
 package com.focusbuddy.services;
 
 import com.focusbuddy.database.DatabaseManager;
+import com.focusbuddy.database.QueryCache;
+import com.focusbuddy.database.ResultHandler;
+import com.focusbuddy.database.QueryScope;
+import com.focusbuddy.database.WriteJournal;
 import com.focusbuddy.models.Note;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class NotesService {
 
@@ -36,6 +43,7 @@ public class NotesService {
                 // Set timestamps
                 note.setCreatedAt(now);
                 note.setUpdatedAt(now);
+                QueryCache.getInstance().invalidate("notes", note.getUserId());
                 return true;
             }
 
@@ -48,12 +56,22 @@ public class NotesService {
     }
 
     public boolean updateNote(Note note) {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
-            // Updated query to include category field
-            String query = "UPDATE notes SET title = ?, content = ?, tags = ?, category = ?, updated_at = ? WHERE id = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+        // Updated query to include category field
+        String query = "UPDATE notes SET title = ?, content = ?, tags = ?, category = ?, updated_at = ? WHERE id = ?";
+        LocalDateTime now = LocalDateTime.now();
+        WriteJournal journal = WriteJournal.getInstance();
+        try (Connection conn = journal.connectOrDefer()) {
+            if (conn == null) {
+                // Offline: saved locally and applied once the database is back
+                boolean saved = journal.append("notes", note.getUserId(), query, note.getTitle(), note.getContent(),
+                        note.getTags(), note.getCategory() != null ? note.getCategory() : "General", now, note.getId());
+                if (saved) {
+                    note.setUpdatedAt(now);
+                }
+                return saved;
+            }
 
-            LocalDateTime now = LocalDateTime.now();
+            PreparedStatement stmt = conn.prepareStatement(query);
 
             stmt.setString(1, note.getTitle());
             stmt.setString(2, note.getContent());
@@ -65,6 +83,7 @@ public class NotesService {
             boolean success = stmt.executeUpdate() > 0;
             if (success) {
                 note.setUpdatedAt(now); // Update timestamp in object
+                QueryCache.getInstance().invalidate("notes", note.getUserId());
             }
 
             return success;
@@ -82,7 +101,9 @@ public class NotesService {
             PreparedStatement stmt = conn.prepareStatement(query);
             stmt.setInt(1, noteId);
 
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            QueryCache.getInstance().invalidateTable("notes"); // owner not known here
+            return deleted;
 
         } catch (SQLException e) {
             System.err.println("Error deleting note: " + e.getMessage());
@@ -91,89 +112,109 @@ public class NotesService {
         }
     }
 
+    private static final String NOTES_FOR_USER_QUERY =
+            "SELECT id, user_id, title, content, tags, category, created_at, updated_at FROM notes WHERE user_id = ? ORDER BY updated_at DESC";
+
     public List<Note> getNotesForUser(int userId) {
         List<Note> notes = new ArrayList<>();
 
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             // Updated query to include category field
-            String query = "SELECT id, user_id, title, content, tags, category, created_at, updated_at FROM notes WHERE user_id = ? ORDER BY updated_at DESC";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Note note = new Note();
-                note.setId(rs.getInt("id"));
-                note.setUserId(rs.getInt("user_id"));
-                note.setTitle(rs.getString("title"));
-                note.setContent(rs.getString("content"));
-                note.setTags(rs.getString("tags"));
-                note.setCategory(rs.getString("category")); // Handle category
-
-                Timestamp createdAt = rs.getTimestamp("created_at");
-                if (createdAt != null) {
-                    note.setCreatedAt(createdAt.toLocalDateTime());
-                }
+            notes.addAll(DatabaseManager.getInstance().query(NOTES_FOR_USER_QUERY,
+                    stmt -> stmt.setInt(1, userId), ResultHandler.list(RowMappers.NOTE)));
+        } catch (SQLException e) {
+            System.err.println("Error getting notes for user: " + e.getMessage());
+            e.printStackTrace();
+        }
 
-                Timestamp updatedAt = rs.getTimestamp("updated_at");
-                if (updatedAt != null) {
-                    note.setUpdatedAt(updatedAt.toLocalDateTime());
-                }
+        return notes;
+    }
 
-                notes.add(note);
-            }
+    /**
+     * Pass a user's notes to the consumer one at a time, most recently updated
+     * first. Only the note being handled is in memory, however large the
+     * contents are (for exports).
+     * @return the number of notes read
+     */
+    public long forEachNote(int userId, Consumer<Note> consumer) throws SQLException {
+        return DatabaseManager.getInstance().forEachRow(NOTES_FOR_USER_QUERY,
+                stmt -> stmt.setInt(1, userId), RowMappers.NOTE, consumer);
+    }
+
+    /**
+     * A user's notes as a lazily read stream; close it when done.
+     */
+    public Stream<Note> streamNotesForUser(int userId) throws SQLException {
+        return DatabaseManager.getInstance().stream(NOTES_FOR_USER_QUERY,
+                stmt -> stmt.setInt(1, userId), RowMappers.NOTE);
+    }
 
+    /**
+     * One page of a user's notes, most recently updated first, ordered by (updated_at, id).
+     * @param after cursor from the previous page, or null for the first page
+     */
+    public Page<Note> getNotesPage(int userId, PageCursor after, int pageSize) {
+        List<Note> notes = new ArrayList<>();
+
+        try {
+            String columns = "SELECT id, user_id, title, content, tags, category, created_at, updated_at FROM notes ";
+            String query = after == null
+                    ? columns + "WHERE user_id = ? ORDER BY updated_at DESC, id DESC LIMIT ?"
+                    : columns + "WHERE user_id = ? AND (updated_at < ? OR (updated_at = ? AND id < ?)) "
+                      + "ORDER BY updated_at DESC, id DESC LIMIT ?";
+            notes.addAll(DatabaseManager.getInstance().query(query, stmt -> {
+                int index = 1;
+                stmt.setInt(index++, userId);
+                if (after != null) {
+                    Timestamp updatedAt = Timestamp.valueOf(after.timestamp());
+                    stmt.setTimestamp(index++, updatedAt);
+                    stmt.setTimestamp(index++, updatedAt);
+                    stmt.setInt(index++, after.id());
+                }
+                // One extra row tells whether another page follows
+                stmt.setInt(index, pageSize + 1);
+            }, ResultHandler.list(RowMappers.NOTE)));
         } catch (SQLException e) {
-            System.err.println("Error getting notes for user: " + e.getMessage());
+            System.err.println("Error getting notes page: " + e.getMessage());
             e.printStackTrace();
         }
 
-        return notes;
+        if (notes.size() <= pageSize) {
+            return new Page<>(notes, null);
+        }
+        notes.remove(pageSize);
+        Note last = notes.get(pageSize - 1);
+        return new Page<>(notes, new PageCursor(last.getUpdatedAt(), last.getId()));
+    }
+
+    public CompletableFuture<Page<Note>> getNotesPageAsync(QueryScope scope, int userId, PageCursor after, int pageSize) {
+        return scope.supply(() -> getNotesPage(userId, after, pageSize));
+    }
+
+    /**
+     * Load a user's notes on the DbExecutor. Cancelling the scope cancels the query.
+     */
+    public CompletableFuture<List<Note>> getNotesForUserAsync(QueryScope scope, int userId) {
+        return scope.supply(() -> getNotesForUser(userId));
     }
 
     public List<Note> searchNotes(int userId, String searchText) {
         List<Note> notes = new ArrayList<>();
 
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             // Updated query to include category field in search and select
             String query = "SELECT id, user_id, title, content, tags, category, created_at, updated_at " +
                     "FROM notes WHERE user_id = ? AND " +
                     "(LOWER(title) LIKE LOWER(?) OR LOWER(content) LIKE LOWER(?) OR LOWER(tags) LIKE LOWER(?) OR LOWER(category) LIKE LOWER(?)) " +
                     "ORDER BY updated_at DESC";
-            PreparedStatement stmt = conn.prepareStatement(query);
-
-            String searchPattern = "%" + searchText + "%";
-            stmt.setInt(1, userId);
-            stmt.setString(2, searchPattern);
-            stmt.setString(3, searchPattern);
-            stmt.setString(4, searchPattern);
-            stmt.setString(5, searchPattern); // Search in category field too
-
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Note note = new Note();
-                note.setId(rs.getInt("id"));
-                note.setUserId(rs.getInt("user_id"));
-                note.setTitle(rs.getString("title"));
-                note.setContent(rs.getString("content"));
-                note.setTags(rs.getString("tags"));
-                note.setCategory(rs.getString("category")); // Handle category
-
-                Timestamp createdAt = rs.getTimestamp("created_at");
-                if (createdAt != null) {
-                    note.setCreatedAt(createdAt.toLocalDateTime());
-                }
-
-                Timestamp updatedAt = rs.getTimestamp("updated_at");
-                if (updatedAt != null) {
-                    note.setUpdatedAt(updatedAt.toLocalDateTime());
-                }
-
-                notes.add(note);
-            }
-
+            notes.addAll(DatabaseManager.getInstance().query(query, stmt -> {
+                String searchPattern = "%" + searchText + "%";
+                stmt.setInt(1, userId);
+                stmt.setString(2, searchPattern);
+                stmt.setString(3, searchPattern);
+                stmt.setString(4, searchPattern);
+                stmt.setString(5, searchPattern); // Search in category field too
+            }, ResultHandler.list(RowMappers.NOTE)));
         } catch (SQLException e) {
             System.err.println("Error searching notes: " + e.getMessage());
             e.printStackTrace();
@@ -182,42 +223,21 @@ public class NotesService {
         return notes;
     }
 
+    public CompletableFuture<List<Note>> searchNotesAsync(QueryScope scope, int userId, String searchText) {
+        return scope.supply(() -> searchNotes(userId, searchText));
+    }
+
     // New method: Get notes by category
     public List<Note> getNotesByCategory(int userId, String category) {
         List<Note> notes = new ArrayList<>();
 
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             String query = "SELECT id, user_id, title, content, tags, category, created_at, updated_at " +
                     "FROM notes WHERE user_id = ? AND category = ? ORDER BY updated_at DESC";
-            PreparedStatement stmt = conn.prepareStatement(query);
-
-            stmt.setInt(1, userId);
-            stmt.setString(2, category);
-
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Note note = new Note();
-                note.setId(rs.getInt("id"));
-                note.setUserId(rs.getInt("user_id"));
-                note.setTitle(rs.getString("title"));
-                note.setContent(rs.getString("content"));
-                note.setTags(rs.getString("tags"));
-                note.setCategory(rs.getString("category"));
-
-                Timestamp createdAt = rs.getTimestamp("created_at");
-                if (createdAt != null) {
-                    note.setCreatedAt(createdAt.toLocalDateTime());
-                }
-
-                Timestamp updatedAt = rs.getTimestamp("updated_at");
-                if (updatedAt != null) {
-                    note.setUpdatedAt(updatedAt.toLocalDateTime());
-                }
-
-                notes.add(note);
-            }
-
+            notes.addAll(DatabaseManager.getInstance().query(query, stmt -> {
+                stmt.setInt(1, userId);
+                stmt.setString(2, category);
+            }, ResultHandler.list(RowMappers.NOTE)));
         } catch (SQLException e) {
             System.err.println("Error getting notes by category: " + e.getMessage());
             e.printStackTrace();
@@ -228,43 +248,28 @@ public class NotesService {
 
     // New method: Get all categories for a user
     public List<String> getCategoriesForUser(int userId) {
-        List<String> categories = new ArrayList<>();
-
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             String query = "SELECT DISTINCT category FROM notes WHERE user_id = ? AND category IS NOT NULL ORDER BY category";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                String category = rs.getString("category");
-                if (category != null && !category.trim().isEmpty()) {
-                    categories.add(category);
-                }
-            }
+            List<String> categories = DatabaseManager.getInstance().cachedQuery("notes", userId, query,
+                    ResultHandler.list(rs -> rs.getString("category")), userId);
+            return categories.stream()
+                    .filter(category -> category != null && !category.trim().isEmpty())
+                    .toList();
 
         } catch (SQLException e) {
             System.err.println("Error getting categories for user: " + e.getMessage());
             e.printStackTrace();
         }
 
-        return categories;
+        return new ArrayList<>();
     }
 
     // New method: Get note count by category
     public int getNoteCountByCategory(int userId, String category) {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             String query = "SELECT COUNT(*) as count FROM notes WHERE user_id = ? AND category = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-            stmt.setString(2, category);
-
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
+            return DatabaseManager.getInstance().cachedQuery("notes", userId, query, ResultHandler.singleInt(),
+                    userId, category);
 
         } catch (SQLException e) {
             System.err.println("Error getting note count by category: " + e.getMessage());
@@ -281,6 +286,7 @@ public class NotesService {
             PreparedStatement stmt = conn.prepareStatement(query);
 
             int updated = stmt.executeUpdate();
+            QueryCache.getInstance().invalidateTable("notes");
             System.out.println("✅ Migrated " + updated + " notes to default category 'General'");
 
             return true;
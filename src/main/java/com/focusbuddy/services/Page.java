@@ -0,0 +1,15 @@
+package com.focusbuddy.services;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * @param next where the following page starts, or null if this is the last page
+ */
+public record Page<T>(List<T> items, PageCursor next) {
+
+    public boolean hasMore() {
+        return next != null;
+    }
+}
@@ -0,0 +1,11 @@
+package com.focusbuddy.services;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sort key of the last row on a page. The next page is read with
+ * "WHERE (timestamp, id) &lt; (cursor)" instead of an OFFSET, so every page
+ * costs the same no matter how far the user has scrolled.
+ */
+public record PageCursor(LocalDateTime timestamp, int id) {
+}
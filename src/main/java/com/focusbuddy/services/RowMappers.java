@@ -0,0 +1,165 @@
+package com.focusbuddy.services;
+
+import com.focusbuddy.database.ColumnIndex;
+import com.focusbuddy.database.CompiledRowMapper;
+import com.focusbuddy.database.EnumLookup;
+import com.focusbuddy.models.FocusGoal;
+import com.focusbuddy.models.Goal;
+import com.focusbuddy.models.MoodEntry;
+import com.focusbuddy.models.Note;
+import com.focusbuddy.models.StudyGoal;
+import com.focusbuddy.models.Task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The one row mapper per model shared by every service.
+ *
+ * Columns a query does not select are skipped, and NULL dates or enums keep
+ * the model constructor's defaults.
+ */
+final class RowMappers {
+    private static final EnumLookup<Task.Priority> PRIORITIES = EnumLookup.of(Task.Priority.class);
+    private static final EnumLookup<Task.Status> TASK_STATUSES = EnumLookup.of(Task.Status.class);
+    private static final EnumLookup<Goal.GoalType> GOAL_TYPES = EnumLookup.of(Goal.GoalType.class);
+    private static final EnumLookup<Goal.Status> GOAL_STATUSES = EnumLookup.of(Goal.Status.class);
+
+    private RowMappers() {}
+
+    static final CompiledRowMapper<Task> TASK = new CompiledRowMapper<>(columns -> {
+        int id = columns.of("id");
+        int userId = columns.of("user_id");
+        int title = columns.of("title");
+        int description = columns.of("description");
+        int priority = columns.of("priority");
+        int status = columns.of("status");
+        int dueDate = columns.of("due_date");
+        int createdAt = columns.of("created_at");
+        int updatedAt = columns.of("updated_at");
+
+        return rs -> {
+            Task task = new Task();
+            task.setId(rs.getInt(id));
+            task.setUserId(rs.getInt(userId));
+            task.setTitle(ColumnIndex.getString(rs, title));
+            task.setDescription(ColumnIndex.getString(rs, description));
+
+            Task.Priority priorityValue = PRIORITIES.get(ColumnIndex.getString(rs, priority));
+            if (priorityValue != null) {
+                task.setPriority(priorityValue);
+            }
+            Task.Status statusValue = TASK_STATUSES.get(ColumnIndex.getString(rs, status));
+            if (statusValue != null) {
+                task.setStatus(statusValue);
+            }
+
+            task.setDueDate(ColumnIndex.getLocalDate(rs, dueDate));
+
+            LocalDateTime created = ColumnIndex.getLocalDateTime(rs, createdAt);
+            if (created != null) {
+                task.setCreatedAt(created);
+            }
+            LocalDateTime updated = ColumnIndex.getLocalDateTime(rs, updatedAt);
+            if (updated != null) {
+                task.setUpdatedAt(updated);
+            }
+            return task;
+        };
+    });
+
+    static final CompiledRowMapper<Note> NOTE = new CompiledRowMapper<>(columns -> {
+        int id = columns.of("id");
+        int userId = columns.of("user_id");
+        int title = columns.of("title");
+        int content = columns.of("content");
+        int tags = columns.of("tags");
+        int category = columns.of("category");
+        int createdAt = columns.of("created_at");
+        int updatedAt = columns.of("updated_at");
+
+        return rs -> {
+            Note note = new Note();
+            note.setId(rs.getInt(id));
+            note.setUserId(rs.getInt(userId));
+            note.setTitle(ColumnIndex.getString(rs, title));
+            note.setContent(ColumnIndex.getString(rs, content));
+            note.setTags(ColumnIndex.getString(rs, tags));
+            if (category > 0) {
+                note.setCategory(rs.getString(category));
+            }
+            note.setCreatedAt(ColumnIndex.getLocalDateTime(rs, createdAt));
+            note.setUpdatedAt(ColumnIndex.getLocalDateTime(rs, updatedAt));
+            return note;
+        };
+    });
+
+    static final CompiledRowMapper<MoodEntry> MOOD_ENTRY = new CompiledRowMapper<>(columns -> {
+        int id = columns.of("id");
+        int userId = columns.of("user_id");
+        int moodLevel = columns.of("mood_level");
+        int moodDescription = columns.of("mood_description");
+        int entryDate = columns.of("entry_date");
+        int createdAt = columns.of("created_at");
+
+        return rs -> {
+            MoodEntry entry = new MoodEntry();
+            entry.setId(rs.getInt(id));
+            entry.setUserId(rs.getInt(userId));
+            entry.setMoodLevel(rs.getInt(moodLevel));
+            entry.setMoodDescription(ColumnIndex.getString(rs, moodDescription));
+            LocalDate date = ColumnIndex.getLocalDate(rs, entryDate);
+            if (date != null) {
+                entry.setEntryDate(date);
+            }
+            entry.setCreatedAt(ColumnIndex.getLocalDateTime(rs, createdAt));
+            return entry;
+        };
+    });
+
+    static final CompiledRowMapper<Goal> GOAL = new CompiledRowMapper<>(columns -> {
+        int id = columns.of("id");
+        int userId = columns.of("user_id");
+        int title = columns.of("title");
+        int description = columns.of("description");
+        int targetValue = columns.of("target_value");
+        int currentValue = columns.of("current_value");
+        int goalType = columns.of("goal_type");
+        int targetDate = columns.of("target_date");
+        int status = columns.of("status");
+        int createdAt = columns.of("created_at");
+
+        return rs -> {
+            Goal.GoalType type = GOAL_TYPES.get(ColumnIndex.getString(rs, goalType));
+            if (type == null) {
+                type = Goal.GoalType.STUDY_HOURS; // column default
+            }
+
+            Goal goal = switch (type) {
+                case STUDY_HOURS -> new StudyGoal();
+                case FOCUS_SESSIONS -> new FocusGoal();
+                case TASKS_COMPLETED -> new StudyGoal(); // Can create TaskGoal class
+            };
+
+            goal.setId(rs.getInt(id));
+            goal.setUserId(rs.getInt(userId));
+            goal.setTitle(ColumnIndex.getString(rs, title));
+            goal.setDescription(ColumnIndex.getString(rs, description));
+            goal.setTargetValue(rs.getInt(targetValue));
+            goal.setCurrentValue(rs.getInt(currentValue));
+            goal.setGoalType(type);
+            goal.setTargetDate(ColumnIndex.getLocalDate(rs, targetDate));
+
+            Goal.Status statusValue = GOAL_STATUSES.get(ColumnIndex.getString(rs, status));
+            if (statusValue != null) {
+                goal.setStatus(statusValue);
+            }
+
+            LocalDateTime created = ColumnIndex.getLocalDateTime(rs, createdAt);
+            if (created != null) {
+                goal.setCreatedAt(created);
+            }
+            return goal;
+        };
+    });
+}
@@ -0,0 +1,49 @@
+package com.focusbuddy.services;
+
+import com.focusbuddy.models.Task;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What changed in a user's tasks since an earlier sync point
+ * (see {@link TaskService#getTaskChangesSince}).
+ *
+ * @param changed    tasks created or updated, possibly including some the caller already has
+ * @param deletedIds ids of deleted tasks
+ * @param syncedAt   pass this as "since" to get the next delta
+ */
+public record TaskDelta(List<Task> changed, List<Integer> deletedIds, LocalDateTime syncedAt) {
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && deletedIds.isEmpty();
+    }
+
+    /**
+     * Apply the delta to a loaded list in place: changed tasks replace the
+     * ones with the same id or are appended, deleted ones are removed.
+     */
+    public void mergeInto(List<Task> tasks) {
+        Map<Integer, Integer> positions = new HashMap<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            positions.put(tasks.get(i).getId(), i);
+        }
+        for (Task task : changed) {
+            Integer position = positions.get(task.getId());
+            if (position != null) {
+                tasks.set(position, task);
+            } else {
+                positions.put(task.getId(), tasks.size());
+                tasks.add(task);
+            }
+        }
+        if (!deletedIds.isEmpty()) {
+            Set<Integer> deleted = new HashSet<>(deletedIds);
+            tasks.removeIf(task -> deleted.contains(task.getId()));
+        }
+    }
+}
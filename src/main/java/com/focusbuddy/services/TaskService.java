@@ -1,6 +1,12 @@
 package com.focusbuddy.services;
 
+import com.focusbuddy.database.AccessMode;
 import com.focusbuddy.database.DatabaseManager;
+import com.focusbuddy.database.QueryCache;
+import com.focusbuddy.database.ResultHandler;
+import com.focusbuddy.database.QueryScope;
+import com.focusbuddy.database.WriteJournal;
+import com.focusbuddy.database.WriteResult;
 import com.focusbuddy.models.Task;
 
 import java.sql.*;
@@ -8,59 +14,181 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class TaskService {
 
+    private static final String TASKS_FOR_USER_QUERY = "SELECT * FROM tasks WHERE user_id = ? ORDER BY created_at DESC";
+
+    // Deltas look back this far before the sync point, for changes committed out of
+    // timestamp order and small clock differences between devices
+    private static final long SYNC_OVERLAP_SECONDS = 5;
+    // Deletes are remembered this long; older sync points need a full reload
+    static final int TOMBSTONE_RETENTION_DAYS = 7;
+
     public List<Task> getTasksForUser(int userId) {
         List<Task> tasks = new ArrayList<>();
 
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
-            String query = "SELECT * FROM tasks WHERE user_id = ? ORDER BY created_at DESC";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
+        try {
+            tasks.addAll(DatabaseManager.getInstance().query(TASKS_FOR_USER_QUERY,
+                    stmt -> stmt.setInt(1, userId), ResultHandler.list(RowMappers.TASK)));
+        } catch (SQLException e) {
+            System.err.println("Error getting tasks for user: " + e.getMessage());
+            e.printStackTrace();
+        }
 
-            ResultSet rs = stmt.executeQuery();
+        return tasks;
+    }
 
-            while (rs.next()) {
-                Task task = new Task();
-                task.setId(rs.getInt("id"));
-                task.setUserId(rs.getInt("user_id"));
-                task.setTitle(rs.getString("title"));
-                task.setDescription(rs.getString("description"));
-                task.setPriority(Task.Priority.valueOf(rs.getString("priority")));
-                task.setStatus(Task.Status.valueOf(rs.getString("status")));
-
-                Date dueDate = rs.getDate("due_date");
-                if (dueDate != null) {
-                    task.setDueDate(dueDate.toLocalDate());
-                }
+    /**
+     * Pass a user's tasks to the consumer one at a time, newest first, without
+     * loading them all into memory (for exports and reports).
+     * @return the number of tasks read
+     */
+    public long forEachTask(int userId, Consumer<Task> consumer) throws SQLException {
+        return DatabaseManager.getInstance().forEachRow(TASKS_FOR_USER_QUERY,
+                stmt -> stmt.setInt(1, userId), RowMappers.TASK, consumer);
+    }
 
-                // Handle created_at timestamp
-                Timestamp createdAtTimestamp = rs.getTimestamp("created_at");
-                if (createdAtTimestamp != null) {
-                    task.setCreatedAt(createdAtTimestamp.toLocalDateTime());
-                }
+    /**
+     * A user's tasks as a lazily read stream; close it when done.
+     */
+    public Stream<Task> streamTasksForUser(int userId) throws SQLException {
+        return DatabaseManager.getInstance().stream(TASKS_FOR_USER_QUERY,
+                stmt -> stmt.setInt(1, userId), RowMappers.TASK);
+    }
+
+    /**
+     * Load a user's tasks on the DbExecutor. Cancelling the scope cancels the query.
+     */
+    public CompletableFuture<List<Task>> getTasksForUserAsync(QueryScope scope, int userId) {
+        return scope.supply(() -> getTasksForUser(userId));
+    }
 
-                // Handle updated_at timestamp
-                Timestamp updatedAtTimestamp = rs.getTimestamp("updated_at");
-                if (updatedAtTimestamp != null) {
-                    task.setUpdatedAt(updatedAtTimestamp.toLocalDateTime());
+    /**
+     * One page of a user's tasks, newest first, ordered by (created_at, id).
+     * @param after cursor from the previous page, or null for the first page
+     */
+    public Page<Task> getTasksPage(int userId, PageCursor after, int pageSize) {
+        List<Task> tasks = new ArrayList<>();
+
+        try {
+            String query = after == null
+                    ? "SELECT * FROM tasks WHERE user_id = ? ORDER BY created_at DESC, id DESC LIMIT ?"
+                    : "SELECT * FROM tasks WHERE user_id = ? AND (created_at < ? OR (created_at = ? AND id < ?)) "
+                      + "ORDER BY created_at DESC, id DESC LIMIT ?";
+            tasks.addAll(DatabaseManager.getInstance().query(query, stmt -> {
+                int index = 1;
+                stmt.setInt(index++, userId);
+                if (after != null) {
+                    Timestamp createdAt = Timestamp.valueOf(after.timestamp());
+                    stmt.setTimestamp(index++, createdAt);
+                    stmt.setTimestamp(index++, createdAt);
+                    stmt.setInt(index++, after.id());
                 }
+                // One extra row tells whether another page follows
+                stmt.setInt(index, pageSize + 1);
+            }, ResultHandler.list(RowMappers.TASK)));
+        } catch (SQLException e) {
+            System.err.println("Error getting tasks page: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        if (tasks.size() <= pageSize) {
+            return new Page<>(tasks, null);
+        }
+        tasks.remove(pageSize);
+        Task last = tasks.get(pageSize - 1);
+        return new Page<>(tasks, new PageCursor(last.getCreatedAt(), last.getId()));
+    }
+
+    public CompletableFuture<Page<Task>> getTasksPageAsync(QueryScope scope, int userId, PageCursor after, int pageSize) {
+        return scope.supply(() -> getTasksPage(userId, after, pageSize));
+    }
+
+    /**
+     * Tasks created or updated and tasks deleted since an earlier sync point,
+     * so a loaded list can be brought up to date without reading every task.
+     * Read from the primary: a change missed on a lagging replica would be
+     * missed for good.
+     * @param since {@link TaskDelta#syncedAt()} of the previous delta, or null for every task
+     * @return the changes, or null if since is older than the remembered
+     *         deletes and the caller has to reload everything
+     */
+    public TaskDelta getTaskChangesSince(int userId, LocalDateTime since) {
+        if (since != null && since.isBefore(LocalDateTime.now().minusDays(TOMBSTONE_RETENTION_DAYS))) {
+            return null;
+        }
+
+        try (Connection conn = DatabaseManager.getInstance().getConnection(AccessMode.READ_PRIMARY)) {
+            Timestamp from = since != null ? Timestamp.valueOf(since.minusSeconds(SYNC_OVERLAP_SECONDS)) : null;
+            // The next sync starts from when this one read, even if nothing changed, so an idle
+            // list never ages past the remembered deletes; the overlap above covers writes
+            // that commit with a timestamp just before this point
+            LocalDateTime syncedAt;
+            try (PreparedStatement clock = conn.prepareStatement("SELECT CURRENT_TIMESTAMP");
+                 ResultSet now = clock.executeQuery()) {
+                now.next();
+                syncedAt = now.getTimestamp(1).toLocalDateTime();
+            }
 
-                tasks.add(task);
+            List<Task> changed = new ArrayList<>();
+            PreparedStatement stmt = conn.prepareStatement(from == null
+                    ? "SELECT * FROM tasks WHERE user_id = ?"
+                    : "SELECT * FROM tasks WHERE user_id = ? AND updated_at >= ?");
+            stmt.setInt(1, userId);
+            if (from != null) {
+                stmt.setTimestamp(2, from);
+            }
+            ResultSet rs = stmt.executeQuery();
+            changed.addAll(ResultHandler.list(RowMappers.TASK).handle(rs));
+
+            List<Integer> deletedIds = new ArrayList<>();
+            if (from != null) {
+                PreparedStatement tombstones = conn.prepareStatement(
+                        "SELECT task_id FROM task_tombstones WHERE user_id = ? AND deleted_at >= ?");
+                tombstones.setInt(1, userId);
+                tombstones.setTimestamp(2, from);
+                ResultSet deleted = tombstones.executeQuery();
+                while (deleted.next()) {
+                    deletedIds.add(deleted.getInt("task_id"));
+                }
             }
 
+            return new TaskDelta(changed, deletedIds, syncedAt);
         } catch (SQLException e) {
-            System.err.println("Error getting tasks for user: " + e.getMessage());
+            System.err.println("Error getting task changes: " + e.getMessage());
             e.printStackTrace();
+            // Nothing new; the next sync asks again from the same point
+            return new TaskDelta(List.of(), List.of(), since);
         }
+    }
 
-        return tasks;
+    public CompletableFuture<TaskDelta> getTaskChangesSinceAsync(QueryScope scope, int userId, LocalDateTime since) {
+        return scope.supply(() -> getTaskChangesSince(userId, since));
     }
 
-    public boolean addTask(Task task) {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
-            String query = "INSERT INTO tasks (user_id, title, description, priority, status, due_date, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    /**
+     * Insert a new task and set its generated id.
+     * @return {@link WriteResult#QUEUED} when journaled offline: the task keeps
+     *         id 0 and appears in task lists once replayed
+     */
+    public WriteResult addTask(Task task) {
+        String query = "INSERT INTO tasks (user_id, title, description, priority, status, due_date, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        WriteJournal journal = WriteJournal.getInstance();
+        try (Connection conn = journal.connectOrDefer()) {
+            if (conn == null) {
+                // Offline: saved locally and inserted once the database is back. updated_at is
+                // stamped on replay (by this clock, like every other task stamp), so task deltas
+                // see the task when it actually arrives.
+                boolean queued = journal.append("tasks", task.getUserId(), query, task.getUserId(), task.getTitle(),
+                        task.getDescription(), task.getPriority(), task.getStatus(), task.getDueDate(),
+                        LocalDateTime.now(), WriteJournal.REPLAY_TIME);
+                return queued ? WriteResult.QUEUED : WriteResult.FAILED;
+            }
+
             PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
 
             stmt.setInt(1, task.getUserId());
@@ -89,8 +217,9 @@ public class TaskService {
                         task.setId(generatedKeys.getInt(1));
                     }
                 }
+                QueryCache.getInstance().invalidate("tasks", task.getUserId());
                 System.out.println("✅ Task added successfully: " + task.getTitle());
-                return true;
+                return WriteResult.SAVED;
             }
 
         } catch (SQLException e) {
@@ -98,7 +227,7 @@ public class TaskService {
             e.printStackTrace();
         }
 
-        return false;
+        return WriteResult.FAILED;
     }
 
     public boolean updateTask(Task task) {
@@ -123,6 +252,7 @@ public class TaskService {
             int rowsAffected = stmt.executeUpdate();
 
             if (rowsAffected > 0) {
+                QueryCache.getInstance().invalidate("tasks", task.getUserId());
                 System.out.println("✅ Task updated successfully: " + task.getTitle());
                 return true;
             }
@@ -136,14 +266,39 @@ public class TaskService {
     }
 
     public boolean deleteTask(int taskId) {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
-            String query = "DELETE FROM tasks WHERE id = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, taskId);
-
-            int rowsAffected = stmt.executeUpdate();
-
-            if (rowsAffected > 0) {
+        try {
+            boolean deleted = DatabaseManager.getInstance().inTransaction(tx -> {
+                // focus_sessions is partitioned on MySQL and has no ON DELETE SET NULL there
+                PreparedStatement unlink = tx.prepare("UPDATE focus_sessions SET task_id = NULL WHERE task_id = ?");
+                unlink.setInt(1, taskId);
+                unlink.executeUpdate();
+
+                // Remembered so task deltas can report the delete
+                PreparedStatement tombstone = tx.prepare("""
+                        INSERT INTO task_tombstones (task_id, user_id, deleted_at)
+                        SELECT id, user_id, ? FROM tasks WHERE id = ?
+                        ON DUPLICATE KEY UPDATE deleted_at = VALUES(deleted_at)
+                        """);
+                tombstone.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+                tombstone.setInt(2, taskId);
+                tombstone.executeUpdate();
+
+                // Deltas never look back further than the retention, so older tombstones are dead weight
+                PreparedStatement prune = tx.prepare("""
+                        DELETE FROM task_tombstones
+                        WHERE user_id = (SELECT user_id FROM tasks WHERE id = ?) AND deleted_at < ?
+                        """);
+                prune.setInt(1, taskId);
+                prune.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now().minusDays(TOMBSTONE_RETENTION_DAYS)));
+                prune.executeUpdate();
+
+                PreparedStatement stmt = tx.prepare("DELETE FROM tasks WHERE id = ?");
+                stmt.setInt(1, taskId);
+                return stmt.executeUpdate() > 0;
+            });
+
+            if (deleted) {
+                QueryCache.getInstance().invalidateTable("tasks"); // owner not known here
                 System.out.println("✅ Task deleted successfully, ID: " + taskId);
                 return true;
             }
@@ -159,42 +314,12 @@ public class TaskService {
     public List<Task> getTasksForToday(int userId) {
         List<Task> tasks = new ArrayList<>();
 
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             String query = "SELECT * FROM tasks WHERE user_id = ? AND (due_date = ? OR due_date IS NULL) AND status != 'COMPLETED' ORDER BY priority DESC, created_at ASC";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-            stmt.setDate(2, Date.valueOf(LocalDate.now()));
-
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Task task = new Task();
-                task.setId(rs.getInt("id"));
-                task.setUserId(rs.getInt("user_id"));
-                task.setTitle(rs.getString("title"));
-                task.setDescription(rs.getString("description"));
-                task.setPriority(Task.Priority.valueOf(rs.getString("priority")));
-                task.setStatus(Task.Status.valueOf(rs.getString("status")));
-
-                Date dueDate = rs.getDate("due_date");
-                if (dueDate != null) {
-                    task.setDueDate(dueDate.toLocalDate());
-                }
-
-                // Handle timestamps
-                Timestamp createdAtTimestamp = rs.getTimestamp("created_at");
-                if (createdAtTimestamp != null) {
-                    task.setCreatedAt(createdAtTimestamp.toLocalDateTime());
-                }
-
-                Timestamp updatedAtTimestamp = rs.getTimestamp("updated_at");
-                if (updatedAtTimestamp != null) {
-                    task.setUpdatedAt(updatedAtTimestamp.toLocalDateTime());
-                }
-
-                tasks.add(task);
-            }
-
+            tasks.addAll(DatabaseManager.getInstance().query(query, stmt -> {
+                stmt.setInt(1, userId);
+                stmt.setDate(2, Date.valueOf(LocalDate.now()));
+            }, ResultHandler.list(RowMappers.TASK)));
         } catch (SQLException e) {
             System.err.println("Error getting today's tasks: " + e.getMessage());
             e.printStackTrace();
@@ -206,42 +331,12 @@ public class TaskService {
     public List<Task> getOverdueTasks(int userId) {
         List<Task> tasks = new ArrayList<>();
 
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             String query = "SELECT * FROM tasks WHERE user_id = ? AND due_date < ? AND status != 'COMPLETED' ORDER BY due_date ASC";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-            stmt.setDate(2, Date.valueOf(LocalDate.now()));
-
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Task task = new Task();
-                task.setId(rs.getInt("id"));
-                task.setUserId(rs.getInt("user_id"));
-                task.setTitle(rs.getString("title"));
-                task.setDescription(rs.getString("description"));
-                task.setPriority(Task.Priority.valueOf(rs.getString("priority")));
-                task.setStatus(Task.Status.valueOf(rs.getString("status")));
-
-                Date dueDate = rs.getDate("due_date");
-                if (dueDate != null) {
-                    task.setDueDate(dueDate.toLocalDate());
-                }
-
-                // Handle timestamps
-                Timestamp createdAtTimestamp = rs.getTimestamp("created_at");
-                if (createdAtTimestamp != null) {
-                    task.setCreatedAt(createdAtTimestamp.toLocalDateTime());
-                }
-
-                Timestamp updatedAtTimestamp = rs.getTimestamp("updated_at");
-                if (updatedAtTimestamp != null) {
-                    task.setUpdatedAt(updatedAtTimestamp.toLocalDateTime());
-                }
-
-                tasks.add(task);
-            }
-
+            tasks.addAll(DatabaseManager.getInstance().query(query, stmt -> {
+                stmt.setInt(1, userId);
+                stmt.setDate(2, Date.valueOf(LocalDate.now()));
+            }, ResultHandler.list(RowMappers.TASK)));
         } catch (SQLException e) {
             System.err.println("Error getting overdue tasks: " + e.getMessage());
             e.printStackTrace();
@@ -251,15 +346,9 @@ public class TaskService {
     }
 
     public int getTaskCount(int userId) {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             String query = "SELECT COUNT(*) FROM tasks WHERE user_id = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
+            return DatabaseManager.getInstance().cachedQuery("tasks", userId, query, ResultHandler.singleInt(), userId);
 
         } catch (SQLException e) {
             System.err.println("Error getting task count: " + e.getMessage());
@@ -270,15 +359,9 @@ public class TaskService {
     }
 
     public int getCompletedTaskCount(int userId) {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+        try {
             String query = "SELECT COUNT(*) FROM tasks WHERE user_id = ? AND status = 'COMPLETED'";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
+            return DatabaseManager.getInstance().cachedQuery("tasks", userId, query, ResultHandler.singleInt(), userId);
 
         } catch (SQLException e) {
             System.err.println("Error getting completed task count: " + e.getMessage());
@@ -287,4 +370,65 @@ public class TaskService {
 
         return 0;
     }
-}
\ No newline at end of file
+
+    public int getTaskCountByStatus(int userId, Task.Status status) {
+        try {
+            String query = "SELECT COUNT(*) FROM tasks WHERE user_id = ? AND status = ?";
+            return DatabaseManager.getInstance().cachedQuery("tasks", userId, query, ResultHandler.singleInt(), userId, status.name());
+
+        } catch (SQLException e) {
+            System.err.println("Error getting task count by status: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return 0;
+    }
+
+    public int getOverdueTaskCount(int userId) {
+        try {
+            // Today is bound rather than CURDATE(), so a count cached before midnight is not served after it
+            String query = "SELECT COUNT(*) FROM tasks WHERE user_id = ? AND due_date < ? AND status != 'COMPLETED'";
+            return DatabaseManager.getInstance().cachedQuery("tasks", userId, query, ResultHandler.singleInt(),
+                    userId, LocalDate.now());
+
+        } catch (SQLException e) {
+            System.err.println("Error getting overdue task count: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Every count the task views show, in one pass over the user's tasks.
+     * Today's date is a parameter, so it is part of the cache key.
+     */
+    public TaskStats getTaskStats(int userId) {
+        try {
+            String query = """
+                    SELECT COUNT(*),
+                           SUM(CASE WHEN status = 'PENDING' THEN 1 ELSE 0 END),
+                           SUM(CASE WHEN status = 'COMPLETED' THEN 1 ELSE 0 END),
+                           SUM(CASE WHEN status != 'COMPLETED' AND due_date < ? THEN 1 ELSE 0 END),
+                           SUM(CASE WHEN created_at >= ? THEN 1 ELSE 0 END),
+                           SUM(CASE WHEN created_at >= ? AND status = 'COMPLETED' THEN 1 ELSE 0 END)
+                    FROM tasks WHERE user_id = ?
+                    """;
+            LocalDate today = LocalDate.now();
+            // SUM over no rows is NULL, which getInt reads as 0
+            return DatabaseManager.getInstance().cachedQuery("tasks", userId, query, rs -> rs.next()
+                    ? new TaskStats(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5), rs.getInt(6))
+                    : TaskStats.EMPTY, today, today, today, userId);
+
+        } catch (SQLException e) {
+            System.err.println("Error getting task stats: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return TaskStats.EMPTY;
+    }
+
+    public CompletableFuture<TaskStats> getTaskStatsAsync(QueryScope scope, int userId) {
+        return scope.supply(() -> getTaskStats(userId));
+    }
+}
@@ -0,0 +1,27 @@
+package com.focusbuddy.services;
+
+/**
+ * Counts over all of a user's tasks (see {@link TaskService#getTaskStats}).
+ *
+ * @param overdue        not completed and due before today
+ * @param today          created today
+ * @param todayCompleted created today and completed
+ */
+public record TaskStats(int total, int pending, int completed, int overdue, int today, int todayCompleted) {
+
+    public static final TaskStats EMPTY = new TaskStats(0, 0, 0, 0, 0, 0);
+
+    /**
+     * Share of all tasks that are completed, 0 without tasks.
+     */
+    public double completionRate() {
+        return total > 0 ? (double) completed / total : 0.0;
+    }
+
+    /**
+     * Share of today's tasks that are completed, 0 without any.
+     */
+    public double todayCompletionRate() {
+        return today > 0 ? (double) todayCompleted / today : 0.0;
+    }
+}
@@ -39,10 +39,49 @@ public class ConfigManager {
         properties.setProperty("db.url", "jdbc:mysql://localhost:3306/focusbuddy");
         properties.setProperty("db.username", "root");
         properties.setProperty("db.password", "");
+        properties.setProperty("db.backend", "mysql");
+        properties.setProperty("db.h2.path", "./data/focusbuddy");
         properties.setProperty("app.theme", "LIGHT");
         properties.setProperty("timer.focus.duration", "25");
         properties.setProperty("timer.break.duration", "5");
         properties.setProperty("notifications.enabled", "true");
+        properties.setProperty("db.pool.minSize", "2");
+        properties.setProperty("db.pool.maxSize", "10");
+        properties.setProperty("db.pool.idleTimeoutMs", "300000");
+        properties.setProperty("db.pool.borrowTimeoutMs", "10000");
+        properties.setProperty("db.pool.leakDetectionMs", "60000");
+        properties.setProperty("db.pool.statementCacheSize", "64");
+        properties.setProperty("db.pool.validation", "IDLE");
+        properties.setProperty("db.pool.validationIdleMs", "30000");
+        properties.setProperty("db.pool.keepaliveMs", "120000");
+        properties.setProperty("db.metrics.enabled", "true");
+        properties.setProperty("db.metrics.slowQueryMs", "200");
+        properties.setProperty("db.batch.size", "500");
+        properties.setProperty("db.stream.fetchSize", "500");
+        properties.setProperty("db.cache.enabled", "true");
+        properties.setProperty("db.cache.maxEntries", "1000");
+        properties.setProperty("db.cache.ttlSeconds", "60");
+        properties.setProperty("db.breaker.failureThreshold", "3");
+        properties.setProperty("db.breaker.probeIntervalMs", "5000");
+        properties.setProperty("db.retry.maxAttempts", "3");
+        properties.setProperty("db.retry.baseDelayMs", "50");
+        properties.setProperty("db.retry.maxDelayMs", "1000");
+        properties.setProperty("db.shards", "");
+        properties.setProperty("db.shards.virtualNodes", "64");
+        properties.setProperty("db.replicas", "");
+        properties.setProperty("db.replicas.readYourWritesMs", "2000");
+        properties.setProperty("db.journal.enabled", "true");
+        properties.setProperty("db.journal.path", "./data/focusbuddy_journal.log");
+        properties.setProperty("db.journal.flushDelayMs", "5");
+        properties.setProperty("db.journal.replayIntervalMs", "5000");
+        properties.setProperty("db.health.enabled", "true");
+        properties.setProperty("db.health.sampleIntervalMs", "1000");
+        properties.setProperty("db.health.samples", "600");
+        properties.setProperty("db.partitions.enabled", "true");
+        properties.setProperty("db.partitions.monthsAhead", "3");
+        properties.setProperty("db.partitions.retentionMonths", "0");
+        properties.setProperty("db.partitions.archive", "true");
+        properties.setProperty("db.partitions.intervalHours", "24");
     }
     
     public void saveConfig() {
@@ -73,6 +112,14 @@ public class ConfigManager {
         }
     }
     
+    public long getLongProperty(String key, long defaultValue) {
+        try {
+            return Long.parseLong(properties.getProperty(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+    
     public boolean getBooleanProperty(String key, boolean defaultValue) {
         return Boolean.parseBoolean(properties.getProperty(key, String.valueOf(defaultValue)));
     }
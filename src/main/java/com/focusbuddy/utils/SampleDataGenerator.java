@@ -1,64 +1,113 @@
 package com.focusbuddy.utils;
 
+import com.focusbuddy.database.BatchResult;
+import com.focusbuddy.database.BatchWriter;
 import com.focusbuddy.database.DatabaseManager;
+import com.focusbuddy.database.UnitOfWork;
 import com.focusbuddy.models.Task;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
 
 public class SampleDataGenerator {
     
     public static void generateSampleData() {
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
-            
-            // Create sample user if not exists
-            String userQuery = "INSERT IGNORE INTO users (username, password, email, full_name) VALUES (?, ?, ?, ?)";
-            PreparedStatement userStmt = conn.prepareStatement(userQuery);
-            userStmt.setString(1, "demo");
-            userStmt.setString(2, "demo123");
-            userStmt.setString(3, "demo@focusbuddy.com");
-            userStmt.setString(4, "Demo User");
-            userStmt.executeUpdate();
-            
-            // Create sample tasks
-            String[] sampleTasks = {
-                "Complete Java OOP Assignment",
-                "Study for Database Exam", 
-                "Prepare Presentation Slides",
-                "Review Design Patterns",
-                "Practice Coding Problems"
-            };
-            
-            String[] descriptions = {
-                "Implement inheritance and polymorphism concepts",
-                "Focus on SQL queries and normalization",
-                "Create slides for software engineering project",
-                "Study Singleton, Factory, and Observer patterns",
-                "Solve algorithmic challenges on coding platforms"
-            };
-            
-            Task.Priority[] priorities = {
-                Task.Priority.HIGH, Task.Priority.MEDIUM, Task.Priority.HIGH,
-                Task.Priority.LOW, Task.Priority.MEDIUM
-            };
-            
-            String taskQuery = "INSERT IGNORE INTO tasks (user_id, title, description, priority, status, due_date) VALUES (1, ?, ?, ?, 'PENDING', ?)";
-            
-            for (int i = 0; i < sampleTasks.length; i++) {
-                PreparedStatement taskStmt = conn.prepareStatement(taskQuery);
-                taskStmt.setString(1, sampleTasks[i]);
-                taskStmt.setString(2, descriptions[i]);
-                taskStmt.setString(3, priorities[i].name());
-                taskStmt.setDate(4, java.sql.Date.valueOf(LocalDate.now().plusDays(i + 1)));
-                taskStmt.executeUpdate();
-            }
+        try {
+            // Demo users are created on the primary database and their rows stay there
+            BatchResult result = DatabaseManager.getInstance().inDirectoryTransaction(tx -> {
+                int demoUserId = ensureDemoUser(tx);
+
+                // Create sample tasks
+                String[] sampleTasks = {
+                    "Complete Java OOP Assignment",
+                    "Study for Database Exam", 
+                    "Prepare Presentation Slides",
+                    "Review Design Patterns",
+                    "Practice Coding Problems"
+                };
+                
+                String[] descriptions = {
+                    "Implement inheritance and polymorphism concepts",
+                    "Focus on SQL queries and normalization",
+                    "Create slides for software engineering project",
+                    "Study Singleton, Factory, and Observer patterns",
+                    "Solve algorithmic challenges on coding platforms"
+                };
+                
+                Task.Priority[] priorities = {
+                    Task.Priority.HIGH, Task.Priority.MEDIUM, Task.Priority.HIGH,
+                    Task.Priority.LOW, Task.Priority.MEDIUM
+                };
+                
+                BatchWriter writer = new BatchWriter(tx);
+                BatchWriter.Table tasks = writer.insertIgnore("tasks",
+                        "user_id", "title", "description", "priority", "status", "due_date");
+                for (int i = 0; i < sampleTasks.length; i++) {
+                    tasks.add(demoUserId, sampleTasks[i], descriptions[i], priorities[i],
+                            Task.Status.PENDING, LocalDate.now().plusDays(i + 1));
+                }
+                return writer.finish();
+            });
             
-            System.out.println("Sample data generated successfully!");
+            System.out.println("Sample data generated successfully! " + result);
             
         } catch (Exception e) {
             System.err.println("Failed to generate sample data: " + e.getMessage());
             e.printStackTrace();
         }
     }
+
+    /**
+     * Seed a large volume of tasks and notes for one user, e.g. to try the app
+     * with a realistic amount of data. Rows are written in JDBC batches within
+     * a single transaction.
+     */
+    public static BatchResult generateBulkData(int userId, int taskCount, int noteCount) throws SQLException {
+        DatabaseManager manager = DatabaseManager.getInstance();
+        BatchResult result = manager.getShardRouter().onUserShard(userId, () -> manager.inTransaction(tx -> {
+            BatchWriter writer = new BatchWriter(tx);
+            Task.Priority[] priorities = Task.Priority.values();
+            Task.Status[] statuses = Task.Status.values();
+            LocalDate today = LocalDate.now();
+
+            BatchWriter.Table tasks = writer.insert("tasks",
+                    "user_id", "title", "description", "priority", "status", "due_date");
+            for (int i = 1; i <= taskCount; i++) {
+                tasks.add(userId, "Generated task #" + i, "Bulk generated task",
+                        priorities[i % priorities.length], statuses[i % statuses.length],
+                        today.plusDays(i % 60 - 30));
+            }
+
+            BatchWriter.Table notes = writer.insert("notes", "user_id", "title", "content", "category");
+            for (int i = 1; i <= noteCount; i++) {
+                notes.add(userId, "Generated note #" + i, "<p>Bulk generated note " + i + "</p>",
+                        i % 3 == 0 ? "Study" : "General");
+            }
+            return writer.finish();
+        }));
+
+        System.out.println("✅ Bulk data generated: " + result);
+        return result;
+    }
+
+    private static int ensureDemoUser(UnitOfWork tx) throws SQLException {
+        // Create sample user if not exists
+        String userQuery = "INSERT IGNORE INTO users (username, password, email, full_name) VALUES (?, ?, ?, ?)";
+        PreparedStatement userStmt = tx.prepare(userQuery);
+        userStmt.setString(1, "demo");
+        userStmt.setString(2, "demo123");
+        userStmt.setString(3, "demo@focusbuddy.com");
+        userStmt.setString(4, "Demo User");
+        userStmt.executeUpdate();
+
+        PreparedStatement idStmt = tx.prepare("SELECT id FROM users WHERE username = ?");
+        idStmt.setString(1, "demo");
+        ResultSet rs = idStmt.executeQuery();
+        if (!rs.next()) {
+            throw new SQLException("Demo user could not be created");
+        }
+        return rs.getInt("id");
+    }
 }
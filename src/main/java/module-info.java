@@ -4,6 +4,7 @@ module focusbuddy {
     requires javafx.web;
     requires java.sql;
     requires java.desktop;
+    requires java.management;
     
     opens com.focusbuddy to javafx.fxml;
     opens com.focusbuddy.controllers to javafx.fxml;
@@ -18,4 +19,5 @@ module focusbuddy {
     exports com.focusbuddy.services;
     exports com.focusbuddy.utils;
     exports com.focusbuddy.observers;
+    exports com.focusbuddy.database to java.management;
 }
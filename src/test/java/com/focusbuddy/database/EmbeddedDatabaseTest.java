@@ -0,0 +1,560 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.models.MoodEntry;
+import com.focusbuddy.models.Note;
+import com.focusbuddy.models.Task;
+import com.focusbuddy.services.MoodService;
+import com.focusbuddy.services.NotesService;
+import com.focusbuddy.services.TaskService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the schema and the services against an in-memory H2 database,
+ * so the embedded backend is checked without a MySQL server.
+ */
+public class EmbeddedDatabaseTest {
+    private static int userId;
+
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        DatabaseManager manager = DatabaseManager.getInstance();
+        manager.useSettings(DatabaseSettings.embedded(H2Dialect.memoryUrl("focusbuddy_test")));
+        manager.initializeDatabase();
+
+        try (Connection conn = manager.getConnection()) {
+            PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO users (username, password) VALUES (?, ?)", PreparedStatement.RETURN_GENERATED_KEYS);
+            stmt.setString(1, "embedded");
+            stmt.setString(2, "secret");
+            stmt.executeUpdate();
+            ResultSet keys = stmt.getGeneratedKeys();
+            assertTrue(keys.next());
+            userId = keys.getInt(1);
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        DatabaseManager.getInstance().closeConnections();
+    }
+
+    @Test
+    public void testDialectRewritesMySqlOnlySyntax() {
+        H2Dialect dialect = new H2Dialect();
+        assertEquals("SELECT DATEADD(DAY, -(?), CURDATE())",
+                dialect.translate("SELECT DATE_SUB(CURDATE(), INTERVAL ? DAY)"));
+        assertEquals("CREATE TABLE notes (id INT, INDEX notes_idx_user_id (user_id))",
+                dialect.translate("CREATE TABLE notes (id INT, INDEX idx_user_id (user_id), FULLTEXT KEY ft (title, content))"));
+        assertEquals("SELECT 1", dialect.translate("SELECT 1"));
+    }
+
+    @Test
+    public void testCompiledRowMapperResolvesColumnsOncePerShape() throws SQLException {
+        java.util.concurrent.atomic.AtomicInteger compilations = new java.util.concurrent.atomic.AtomicInteger();
+        EnumLookup<Task.Priority> priorities = EnumLookup.of(Task.Priority.class);
+        CompiledRowMapper<String> mapper = new CompiledRowMapper<>(columns -> {
+            compilations.incrementAndGet();
+            int username = columns.of("USERNAME");
+            int email = columns.of("email");
+            return rs -> rs.getString(username) + "/" + ColumnIndex.getString(rs, email);
+        });
+
+        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+            for (int i = 0; i < 3; i++) {
+                ResultSet rs = conn.createStatement().executeQuery("SELECT username FROM users WHERE id = " + userId);
+                assertEquals(List.of("embedded/null"), mapper.mapAll(rs));
+            }
+            assertEquals(1, compilations.get());
+
+            ResultSet wider = conn.createStatement().executeQuery("SELECT username, email FROM users WHERE id = " + userId);
+            assertEquals(1, mapper.mapAll(wider).size());
+            assertEquals(2, compilations.get());
+        }
+
+        assertEquals(Task.Priority.HIGH, priorities.get("HIGH"));
+        assertNull(priorities.get(null));
+        assertThrows(IllegalArgumentException.class, () -> priorities.get("URGENT"));
+    }
+
+    @Test
+    public void testTasksRoundTrip() {
+        TaskService taskService = new TaskService();
+        Task task = new Task("Write report", "Embedded backend", Task.Priority.HIGH, LocalDate.now());
+        task.setUserId(userId);
+        assertEquals(WriteResult.SAVED, taskService.addTask(task));
+
+        List<Task> tasks = taskService.getTasksForUser(userId);
+        assertTrue(tasks.stream().anyMatch(t -> t.getTitle().equals("Write report")));
+        assertTrue(taskService.getTaskCount(userId) >= 1);
+        assertFalse(taskService.getTasksForToday(userId).isEmpty());
+    }
+
+    @Test
+    public void testKeysetPagesCoverEveryTaskOnce() throws SQLException {
+        DatabaseManager manager = DatabaseManager.getInstance();
+        int pagedUserId = manager.inTransaction(tx -> {
+            PreparedStatement stmt = tx.getConnection().prepareStatement(
+                    "INSERT INTO users (username, password) VALUES (?, ?)", PreparedStatement.RETURN_GENERATED_KEYS);
+            stmt.setString(1, "pager");
+            stmt.setString(2, "secret");
+            stmt.executeUpdate();
+            ResultSet keys = stmt.getGeneratedKeys();
+            assertTrue(keys.next());
+            int id = keys.getInt(1);
+
+            // Inserted in one batch, so most rows share a created_at and only the id breaks the tie
+            BatchWriter writer = new BatchWriter(tx);
+            BatchWriter.Table tasks = writer.insert("tasks", "user_id", "title");
+            for (int i = 0; i < 7; i++) {
+                tasks.add(id, "Paged task " + i);
+            }
+            writer.finish();
+            return id;
+        });
+
+        TaskService taskService = new TaskService();
+        List<Integer> seen = new java.util.ArrayList<>();
+        List<Integer> pageSizes = new java.util.ArrayList<>();
+        com.focusbuddy.services.PageCursor cursor = null;
+        do {
+            com.focusbuddy.services.Page<Task> page = taskService.getTasksPage(pagedUserId, cursor, 3);
+            page.items().forEach(task -> seen.add(task.getId()));
+            pageSizes.add(page.items().size());
+            cursor = page.next();
+        } while (cursor != null);
+
+        assertEquals(List.of(3, 3, 1), pageSizes);
+        assertEquals(7, new java.util.HashSet<>(seen).size());
+        assertEquals(taskService.getTasksForUser(pagedUserId).stream().map(Task::getId).sorted().toList(),
+                seen.stream().sorted().toList());
+    }
+
+    @Test
+    public void testTaskDeltasCarryUpdatesAndDeletes() throws SQLException {
+        DatabaseManager manager = DatabaseManager.getInstance();
+        int syncUserId = manager.inTransaction(tx -> {
+            PreparedStatement stmt = tx.getConnection().prepareStatement(
+                    "INSERT INTO users (username, password) VALUES (?, ?)", PreparedStatement.RETURN_GENERATED_KEYS);
+            stmt.setString(1, "syncer");
+            stmt.setString(2, "secret");
+            stmt.executeUpdate();
+            ResultSet keys = stmt.getGeneratedKeys();
+            assertTrue(keys.next());
+            return keys.getInt(1);
+        });
+
+        TaskService taskService = new TaskService();
+        for (String title : List.of("Kept", "Edited", "Removed")) {
+            Task task = new Task(title, "", Task.Priority.LOW, LocalDate.now());
+            task.setUserId(syncUserId);
+            assertEquals(WriteResult.SAVED, taskService.addTask(task));
+        }
+        // Age the rows so the overlap window in front of the sync point is clear of them
+        try (Connection conn = manager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("UPDATE tasks SET updated_at = ? WHERE user_id = ?")) {
+            stmt.setTimestamp(1, java.sql.Timestamp.valueOf(LocalDateTime.now().minusHours(1)));
+            stmt.setInt(2, syncUserId);
+            stmt.executeUpdate();
+        }
+
+        com.focusbuddy.services.TaskDelta full = taskService.getTaskChangesSince(syncUserId, null);
+        assertEquals(3, full.changed().size());
+        List<Task> tasks = new java.util.ArrayList<>(full.changed());
+
+        Task edited = tasks.stream().filter(t -> t.getTitle().equals("Edited")).findFirst().orElseThrow();
+        Task removed = tasks.stream().filter(t -> t.getTitle().equals("Removed")).findFirst().orElseThrow();
+        edited.setTitle("Edited again");
+        assertTrue(taskService.updateTask(edited));
+        assertTrue(taskService.deleteTask(removed.getId()));
+
+        com.focusbuddy.services.TaskDelta delta =
+                taskService.getTaskChangesSince(syncUserId, LocalDateTime.now().minusMinutes(30));
+        assertEquals(List.of(edited.getId()), delta.changed().stream().map(Task::getId).toList());
+        assertEquals(List.of(removed.getId()), delta.deletedIds());
+        assertTrue(delta.syncedAt().isAfter(LocalDateTime.now().minusMinutes(30)));
+
+        delta.mergeInto(tasks);
+        assertEquals(List.of("Edited again", "Kept"), tasks.stream().map(Task::getTitle).sorted().toList());
+
+        assertNull(taskService.getTaskChangesSince(syncUserId, LocalDateTime.now().minusDays(30)),
+                "Deletes that old are forgotten, so the caller has to reload");
+    }
+
+    @Test
+    public void testTaskSyncPointMovesForwardWithoutChanges() {
+        TaskService taskService = new TaskService();
+        int idleUserId = userId + 1000;  // never has any tasks
+
+        LocalDateTime since = LocalDateTime.now().minusDays(6);
+        com.focusbuddy.services.TaskDelta delta = taskService.getTaskChangesSince(idleUserId, since);
+        assertTrue(delta.isEmpty());
+        assertTrue(delta.syncedAt().isAfter(LocalDateTime.now().minusMinutes(1)),
+                "The sync point moves to the time of the read, not the last change");
+
+        com.focusbuddy.services.TaskDelta next = taskService.getTaskChangesSince(idleUserId, delta.syncedAt());
+        assertNotNull(next, "An idle list never falls behind the remembered deletes");
+        assertTrue(next.isEmpty());
+    }
+
+    @Test
+    public void testTaskStatsMatchTheSeparateCounts() {
+        TaskService taskService = new TaskService();
+        Task overdue = new Task("Late task", "", Task.Priority.MEDIUM, LocalDate.now().minusDays(3));
+        overdue.setUserId(userId);
+        assertEquals(WriteResult.SAVED, taskService.addTask(overdue));
+        Task done = new Task("Done task", "", Task.Priority.MEDIUM, LocalDate.now());
+        done.setUserId(userId);
+        done.setStatus(Task.Status.COMPLETED);
+        assertEquals(WriteResult.SAVED, taskService.addTask(done));
+
+        com.focusbuddy.services.TaskStats stats = taskService.getTaskStats(userId);
+        assertEquals(taskService.getTaskCount(userId), stats.total());
+        assertEquals(taskService.getTaskCountByStatus(userId, Task.Status.PENDING), stats.pending());
+        assertEquals(taskService.getCompletedTaskCount(userId), stats.completed());
+        assertEquals(taskService.getOverdueTaskCount(userId), stats.overdue());
+        assertTrue(stats.overdue() >= 1);
+        assertTrue(stats.todayCompleted() >= 1 && stats.today() >= stats.todayCompleted());
+
+        assertEquals(com.focusbuddy.services.TaskStats.EMPTY, taskService.getTaskStats(-1));
+    }
+
+    @Test
+    public void testNotesSearch() {
+        NotesService notesService = new NotesService();
+        Note note = new Note("Embedded notes", "Stored in H2", "General");
+        note.setUserId(userId);
+        assertTrue(notesService.createNote(note));
+
+        assertEquals(1, notesService.searchNotes(userId, "H2").size());
+        assertTrue(notesService.getCategoriesForUser(userId).contains("General"));
+    }
+
+    @Test
+    public void testStreamingReadsReleaseTheConnection() throws SQLException {
+        NotesService notesService = new NotesService();
+        for (int i = 0; i < 3; i++) {
+            Note note = new Note("Streamed note " + i, "<p>body " + i + "</p>", "General");
+            note.setUserId(userId);
+            assertTrue(notesService.createNote(note));
+        }
+        DatabaseManager manager = DatabaseManager.getInstance();
+
+        List<String> titles = new java.util.ArrayList<>();
+        long read = notesService.forEachNote(userId, note -> titles.add(note.getTitle()));
+        assertEquals(notesService.getNotesForUser(userId).size(), read);
+        assertEquals(read, titles.size());
+        assertEquals(0, manager.getPoolStats().activeConnections());
+
+        // Stopping a stream early must still give the connection back
+        try (java.util.stream.Stream<Note> notes = notesService.streamNotesForUser(userId)) {
+            assertEquals(1, notes.limit(1).count());
+            assertEquals(1, manager.getPoolStats().activeConnections());
+        }
+        assertEquals(0, manager.getPoolStats().activeConnections());
+    }
+
+    @Test
+    public void testMoodEntriesUseTranslatedDateArithmetic() {
+        MoodService moodService = new MoodService();
+        assertTrue(moodService.saveMoodEntry(new MoodEntry(userId, 4, "Good")));
+        assertTrue(moodService.saveMoodEntry(new MoodEntry(userId, 5, "Great")));
+
+        List<MoodEntry> recent = moodService.getRecentMoodEntries(userId, 7);
+        assertEquals(1, recent.size());
+        assertEquals(5, recent.get(0).getMoodLevel());
+        assertEquals(1, moodService.getMoodStreak(userId));
+    }
+
+    @Test
+    public void testCancellingScopeAbortsRunningQuery() throws Exception {
+        QueryScope scope = new QueryScope("test view");
+        CompletableFuture<String> load = scope.supply(() -> {
+            try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+                Statement stmt = conn.createStatement();
+                stmt.executeQuery("SELECT SUM(X) FROM SYSTEM_RANGE(1, 50000000000)");
+                return "finished";
+            } catch (SQLException e) {
+                return "cancelled";
+            }
+        });
+
+        // Wait until the query is running, then replace the "view"
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (DatabaseManager.getInstance().getPoolStats().activeConnections() == 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+        scope.cancel();
+
+        assertTrue(load.isCancelled());
+        assertTrue(scope.supply(() -> "late").isCompletedExceptionally());
+
+        // Statement.cancel() lets the query give its connection back promptly
+        deadline = System.currentTimeMillis() + 5_000;
+        while (DatabaseManager.getInstance().getPoolStats().activeConnections() > 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, DatabaseManager.getInstance().getPoolStats().activeConnections());
+    }
+
+    @Test
+    public void testTransactionCommitsBatchedWritesOrRollsBackTogether() throws SQLException {
+        DatabaseManager manager = DatabaseManager.getInstance();
+        String insert = "INSERT INTO goals (user_id, title, target_value) VALUES (?, ?, ?)";
+
+        int inserted = manager.inTransaction(tx -> {
+            for (int i = 1; i <= 3; i++) {
+                int target = i;
+                tx.batch(insert, stmt -> {
+                    stmt.setInt(1, userId);
+                    stmt.setString(2, "Batched goal " + target);
+                    stmt.setInt(3, target);
+                });
+            }
+            return tx.flush();
+        });
+        assertEquals(3, inserted);
+
+        assertThrows(SQLException.class, () -> manager.inTransaction(tx -> {
+            tx.batch(insert, stmt -> {
+                stmt.setInt(1, userId);
+                stmt.setString(2, "Rolled back goal");
+                stmt.setInt(3, 1);
+            });
+            tx.flush();
+            throw new SQLException("Simulated failure after the write");
+        }));
+
+        try (Connection conn = manager.getConnection()) {
+            PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM goals WHERE user_id = ? AND title LIKE ?");
+            stmt.setInt(1, userId);
+            stmt.setString(2, "%goal%");
+            ResultSet rs = stmt.executeQuery();
+            assertTrue(rs.next());
+            assertEquals(3, rs.getInt(1));
+        }
+    }
+
+    @Test
+    public void testRolledBackBatchDoesNotRunWithTheNextTransaction() throws SQLException {
+        DatabaseManager manager = DatabaseManager.getInstance();
+        String insert = "INSERT INTO goals (user_id, title, target_value) VALUES (?, ?, ?)";
+
+        // Queued but never sent: the statement goes back to the cache with the row still batched
+        assertThrows(SQLException.class, () -> manager.inTransaction(tx -> {
+            tx.batch(insert, stmt -> {
+                stmt.setInt(1, userId);
+                stmt.setString(2, "Ghost batch");
+                stmt.setInt(3, 1);
+            });
+            throw new SQLException("Simulated failure before the flush");
+        }));
+        manager.inTransaction(tx -> {
+            tx.batch(insert, stmt -> {
+                stmt.setInt(1, userId);
+                stmt.setString(2, "Real batch");
+                stmt.setInt(3, 1);
+            });
+            return tx.flush();
+        });
+
+        try (Connection conn = manager.getConnection()) {
+            PreparedStatement stmt = conn.prepareStatement("SELECT title FROM goals WHERE user_id = ? AND title LIKE ?");
+            stmt.setInt(1, userId);
+            stmt.setString(2, "% batch");
+            ResultSet rs = stmt.executeQuery();
+            List<String> titles = new java.util.ArrayList<>();
+            while (rs.next()) {
+                titles.add(rs.getString(1));
+            }
+            assertEquals(List.of("Real batch"), titles);
+        }
+    }
+
+    @Test
+    public void testBatchWriterLoadsRowsInChunks() throws SQLException {
+        DatabaseManager manager = DatabaseManager.getInstance();
+        int bulkUserId = manager.inTransaction(tx -> {
+            PreparedStatement stmt = tx.getConnection().prepareStatement("INSERT INTO users (username, password) VALUES (?, ?)",
+                    PreparedStatement.RETURN_GENERATED_KEYS);
+            stmt.setString(1, "bulk");
+            stmt.setString(2, "secret");
+            stmt.executeUpdate();
+            ResultSet keys = stmt.getGeneratedKeys();
+            assertTrue(keys.next());
+            return keys.getInt(1);
+        });
+
+        BatchResult result = manager.inTransaction(tx -> {
+            BatchWriter writer = new BatchWriter(tx, 1000);
+            BatchWriter.Table tasks = writer.insert("tasks", "user_id", "title", "priority", "status", "due_date");
+            for (int i = 0; i < 20_000; i++) {
+                tasks.add(bulkUserId, "Bulk task " + i, Task.Priority.LOW, Task.Status.PENDING, LocalDate.now());
+            }
+            return writer.finish();
+        });
+
+        assertEquals(20_000, result.rows());
+        assertEquals(20, result.batches());
+        assertEquals(20_000L, result.rowsPerTable().get("tasks"));
+        assertTrue(result.rowsPerSecond() > 0);
+        assertEquals(20_000, new TaskService().getTaskCount(bulkUserId));
+    }
+
+    @Test
+    public void testMigrationsRunOnceAndAdoptLegacyHistory() throws SQLException {
+        DatabaseSettings settings = DatabaseSettings.embedded(H2Dialect.memoryUrl("focusbuddy_migrations_test"));
+        ConnectionPool pool = new ConnectionPool(settings, PoolConfig.fromConfig());
+        try (Connection conn = pool.getConnection()) {
+            // A database set up by the old inline runMigrations()
+            Statement stmt = conn.createStatement();
+            stmt.execute("CREATE TABLE migrations (id INT AUTO_INCREMENT PRIMARY KEY, migration_name VARCHAR(255))");
+            stmt.execute("INSERT INTO migrations (migration_name) VALUES ('add_salt_column')");
+
+            MigrationRunner runner = new MigrationRunner(settings.getDialect());
+            assertEquals(runner.getLatestVersion(), runner.migrate(conn));
+            assertEquals(0, runner.migrate(conn));
+
+            ResultSet rs = stmt.executeQuery("SELECT COUNT(*), MAX(version) FROM schema_migrations");
+            assertTrue(rs.next());
+            assertEquals(runner.getLatestVersion(), rs.getInt(1));
+            assertEquals(runner.getLatestVersion(), rs.getInt(2));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testQueryMetricsGroupByNormalizedSql() {
+        QueryMetrics metrics = QueryMetrics.getInstance();
+        String query = "SELECT * FROM tasks WHERE user_id = ? AND due_date < ? AND status != 'COMPLETED' ORDER BY due_date ASC";
+        QueryStats before = metrics.getStats(query);
+        long previousCount = before != null ? before.count() : 0;
+
+        // Not a cached query, so both calls reach the database
+        TaskService taskService = new TaskService();
+        taskService.getOverdueTasks(userId);
+        taskService.getOverdueTasks(userId);
+
+        QueryStats after = metrics.getStats(query);
+        assertNotNull(after);
+        assertEquals(previousCount + 2, after.count());
+        assertEquals(after.count(), java.util.Arrays.stream(after.buckets()).sum());
+        assertTrue(after.p99Ms() <= after.maxMs());
+
+        assertEquals(metrics.normalize("SELECT * FROM notes WHERE id = ? AND title = ?"),
+                metrics.normalize("SELECT *   FROM notes\n WHERE id = 42 AND title = 'x'"));
+    }
+
+    @Test
+    public void testQueryCacheServesRepeatsUntilAWriteInvalidatesIt() {
+        NotesService notesService = new NotesService();
+        QueryCache cache = QueryCache.getInstance();
+
+        List<String> categories = notesService.getCategoriesForUser(userId);
+        QueryCacheStats afterLoad = cache.getStats();
+        assertEquals(categories, notesService.getCategoriesForUser(userId));
+        assertEquals(afterLoad.hits() + 1, cache.getStats().hits());
+        assertEquals(afterLoad.misses(), cache.getStats().misses());
+
+        Note note = new Note("Cache buster", "New category", "Cached");
+        note.setUserId(userId);
+        assertTrue(notesService.createNote(note));
+
+        assertTrue(notesService.getCategoriesForUser(userId).contains("Cached"));
+        assertTrue(cache.getStats().invalidations() > afterLoad.invalidations());
+        assertTrue(cache.getStats().hitRate() > 0);
+    }
+
+    @Test
+    public void testCircuitBreakerFailsFastUntilProbeSucceeds() throws Exception {
+        java.util.concurrent.atomic.AtomicBoolean reachable = new java.util.concurrent.atomic.AtomicBoolean();
+        java.util.concurrent.BlockingQueue<CircuitBreaker.State> changes = new java.util.concurrent.LinkedBlockingQueue<>();
+        CircuitBreaker breaker = new CircuitBreaker(2, 20, reachable::get);
+        breaker.addListener(changes::add);
+
+        // A bad query is not a connection problem
+        breaker.recordFailure(new SQLException("Syntax error", "42000"));
+        breaker.recordFailure(new SQLException("Syntax error", "42000"));
+        breaker.checkAllowed();
+
+        breaker.recordFailure(new SQLException("Communications link failure", "08S01"));
+        breaker.recordSuccess();
+        breaker.recordFailure(new SQLException("Communications link failure", "08S01"));
+        breaker.checkAllowed();
+        breaker.recordFailure(new SQLException("Communications link failure", "08S01"));
+
+        assertEquals(CircuitBreaker.State.OPEN, changes.poll(1, java.util.concurrent.TimeUnit.SECONDS));
+        assertThrows(DatabaseUnavailableException.class, breaker::checkAllowed);
+
+        reachable.set(true);
+        assertEquals(CircuitBreaker.State.CLOSED, changes.poll(2, java.util.concurrent.TimeUnit.SECONDS));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.checkAllowed();
+    }
+
+    @Test
+    public void testTransientFailuresAreRetriedAndCounted() throws SQLException {
+        String sql = "SELECT 1 FROM retry_probe";
+        RetryPolicy policy = new RetryPolicy(3, 1, 5);
+        int[] attempts = {0};
+        int result = policy.execute(sql, () -> {
+            if (++attempts[0] < 3) {
+                throw new SQLException("Deadlock found when trying to get lock", "40001", 1213);
+            }
+            return 42;
+        });
+        assertEquals(42, result);
+        assertEquals(3, attempts[0]);
+        assertEquals(2, QueryMetrics.getInstance().getStats(sql).retries());
+
+        // Not transient, or not safe to repeat: thrown at once
+        attempts[0] = 0;
+        assertThrows(SQLException.class, () -> policy.execute(sql, () -> {
+            attempts[0]++;
+            throw new SQLException("Syntax error", "42000");
+        }));
+        assertThrows(SQLException.class, () -> policy.execute(sql, () -> {
+            attempts[0]++;
+            throw new SQLException("Communications link failure", "08S01");
+        }, () -> false));
+        assertEquals(2, attempts[0]);
+        assertFalse(RetryPolicy.isTransient(new DatabaseUnavailableException("breaker open")));
+
+        // A rolled-back transaction runs again as a whole
+        int[] runs = {0};
+        int inserted = DatabaseManager.getInstance().inTransaction(tx -> {
+            PreparedStatement insert = tx.prepare("INSERT INTO tasks (user_id, title) VALUES (?, ?)");
+            insert.setInt(1, userId);
+            insert.setString(2, "Retried task");
+            insert.executeUpdate();
+            if (++runs[0] == 1) {
+                throw new SQLException("Lock wait timeout exceeded", "HY000", 1205);
+            }
+            return runs[0];
+        });
+        assertEquals(2, inserted);
+        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
+            ResultSet rs = conn.createStatement().executeQuery(
+                    "SELECT COUNT(*) FROM tasks WHERE title = 'Retried task' AND user_id = " + userId);
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+}
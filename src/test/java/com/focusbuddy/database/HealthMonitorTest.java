@@ -0,0 +1,82 @@
+package com.focusbuddy.database;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.management.StandardMBean;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Samples an in-memory H2 pool by hand instead of on the monitor thread.
+ */
+public class HealthMonitorTest {
+    private static DatabaseManager manager;
+
+    @BeforeAll
+    public static void setUp() {
+        manager = DatabaseManager.getInstance();
+        manager.useSettings(DatabaseSettings.embedded(H2Dialect.memoryUrl("focusbuddy_health")));
+        assertTrue(manager.initializeDatabase());
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        manager.closeConnections();
+    }
+
+    @Test
+    public void testSamplesCountWhatHappenedInTheirInterval() throws SQLException {
+        HealthMonitor monitor = new HealthMonitor(manager, true, 3, 1000);
+        monitor.sample();
+
+        try (Connection held = manager.getConnection()) {
+            for (int i = 0; i < 4; i++) {
+                try (Connection conn = manager.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement("SELECT 1")) {
+                    stmt.executeQuery();
+                }
+            }
+            HealthSample sample = monitor.sample();
+            assertEquals(1, sample.activeConnections(), "Only the held connection is borrowed");
+            assertEquals(5, sample.borrows());
+            assertEquals(4, sample.queries());
+            assertEquals(0.0, sample.errorRate());
+            assertTrue(sample.poolUtilization() > 0);
+            assertEquals("CLOSED", sample.circuitState());
+        }
+
+        assertEquals(0, monitor.sample().borrows(), "Nothing was borrowed since the last sample");
+    }
+
+    @Test
+    public void testRingBufferKeepsTheNewestSamples() {
+        HealthMonitor monitor = new HealthMonitor(manager, true, 3, 1000);
+        HealthSample first = monitor.sample();
+        for (int i = 0; i < 4; i++) {
+            monitor.sample();
+        }
+        HealthSample last = monitor.sample();
+
+        List<HealthSample> samples = monitor.getSamples();
+        assertEquals(3, samples.size());
+        assertFalse(samples.contains(first));
+        assertSame(last, samples.get(2));
+        assertSame(last, monitor.getLatest());
+        assertEquals(3, monitor.getRecentSamples().length);
+    }
+
+    @Test
+    public void testIsAValidMXBean() throws Exception {
+        HealthMonitor monitor = new HealthMonitor(manager, true, 3, 1000);
+        monitor.sample();
+        StandardMBean bean = new StandardMBean(monitor, HealthMonitorMXBean.class, true);
+        assertEquals("CLOSED", bean.getAttribute("CircuitState"));
+        assertEquals(1, bean.getAttribute("SampleCount"));
+    }
+}
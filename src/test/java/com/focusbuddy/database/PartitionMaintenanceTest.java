@@ -0,0 +1,69 @@
+package com.focusbuddy.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plans partition changes for the layout created by migration 9. The
+ * statements themselves need MySQL and are not run here.
+ */
+public class PartitionMaintenanceTest {
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+    private static PartitionMaintenance.Partition partition(String name, String upperBound) {
+        return new PartitionMaintenance.Partition(name, upperBound != null ? LocalDate.parse(upperBound) : null);
+    }
+
+    @Test
+    public void testSplitsFutureIntoMonthsAhead() {
+        List<PartitionMaintenance.Partition> partitions = List.of(
+                partition("p202609", "2026-10-01"),
+                partition("p202610", "2026-11-01"),
+                partition("p_future", null));
+
+        List<String> plan = PartitionMaintenance.plan("mood_entries", partitions, TODAY, 2, 0, true);
+
+        assertEquals(List.of("ALTER TABLE mood_entries REORGANIZE PARTITION p_future INTO ("
+                + "PARTITION p202611 VALUES LESS THAN ('2026-12-01'), "
+                + "PARTITION p202612 VALUES LESS THAN ('2027-01-01'), "
+                + "PARTITION p_future VALUES LESS THAN (MAXVALUE))"), plan);
+    }
+
+    @Test
+    public void testNothingToDoWhenCurrent() {
+        List<PartitionMaintenance.Partition> partitions = List.of(
+                partition("p202610", "2026-11-01"),
+                partition("p202611", "2026-12-01"),
+                partition("p_future", null));
+
+        assertTrue(PartitionMaintenance.plan("focus_sessions", partitions, TODAY, 1, 0, true).isEmpty());
+        assertTrue(PartitionMaintenance.plan("focus_sessions", List.of(), TODAY, 1, 0, true).isEmpty(),
+                "Unpartitioned tables are left alone");
+    }
+
+    @Test
+    public void testArchivesThenDropsExpiredMonths() {
+        List<PartitionMaintenance.Partition> partitions = List.of(
+                partition("p_history", "2025-01-01"),
+                partition("p202501", "2025-02-01"),
+                partition("p202502", "2025-03-01"),
+                partition("p202503", "2025-04-01"),
+                partition("p202610", "2026-11-01"),
+                partition("p202611", "2026-12-01"),
+                partition("p_future", null));
+
+        // Keep 19 months: everything before 2025-03 expires
+        List<String> plan = PartitionMaintenance.plan("mood_entries", partitions, TODAY, 1, 19, true);
+
+        assertEquals(List.of(
+                "INSERT IGNORE INTO mood_entries_archive SELECT * FROM mood_entries PARTITION (p_history, p202501, p202502)",
+                "ALTER TABLE mood_entries DROP PARTITION p_history, p202501, p202502"), plan);
+
+        List<String> dropOnly = PartitionMaintenance.plan("mood_entries", partitions, TODAY, 1, 19, false);
+        assertEquals(List.of("ALTER TABLE mood_entries DROP PARTITION p_history, p202501, p202502"), dropOnly);
+    }
+}
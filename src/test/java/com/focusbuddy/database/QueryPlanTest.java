@@ -0,0 +1,218 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.models.Task;
+import com.focusbuddy.services.ActivityService;
+import com.focusbuddy.services.GoalsService;
+import com.focusbuddy.services.MoodService;
+import com.focusbuddy.services.NotesService;
+import com.focusbuddy.services.ProfileService;
+import com.focusbuddy.services.TaskService;
+import com.focusbuddy.utils.SampleDataGenerator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs every read query of the services against a seeded database and checks
+ * its EXPLAIN output, so a query that loses its index is caught in the build.
+ *
+ * The queries are not listed here: the service methods are called with a
+ * {@link QueryCapture} active and each captured SELECT is explained with the
+ * values it was executed with.
+ *
+ * H2 picks indexes differently from MySQL and does not report sorts, so
+ * -Dfocusbuddy.test.mysqlUrl (with .mysqlUser and .mysqlPassword) runs the
+ * same checks against a scratch MySQL database instead; there a sort pass
+ * ("Using filesort" in the Extra column) fails the build too.
+ */
+public class QueryPlanTest {
+    private static final String MYSQL_URL = System.getProperty("focusbuddy.test.mysqlUrl");
+    private static final int USERS = 3;
+    private static final int TASKS_PER_USER = 400;
+    private static final int NOTES_PER_USER = 200;
+
+    private static int userId;
+
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        DatabaseManager manager = DatabaseManager.getInstance();
+        manager.useSettings(MYSQL_URL != null
+                ? new DatabaseSettings(MYSQL_URL, System.getProperty("focusbuddy.test.mysqlUser", "root"),
+                        System.getProperty("focusbuddy.test.mysqlPassword", ""), new MySqlDialect())
+                : DatabaseSettings.embedded(H2Dialect.memoryUrl("focusbuddy_plans")));
+        assertTrue(manager.initializeDatabase());
+        // A MySQL database outlives the run, so earlier runs' users are still there
+        String run = MYSQL_URL != null ? "_" + System.currentTimeMillis() : "";
+
+        List<Integer> users = manager.inTransaction(tx -> {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                var stmt = tx.getConnection().prepareStatement(
+                        "INSERT INTO users (username, password) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS);
+                stmt.setString(1, "planner" + i + run);
+                stmt.setString(2, "secret");
+                stmt.executeUpdate();
+                var keys = stmt.getGeneratedKeys();
+                assertTrue(keys.next());
+                ids.add(keys.getInt(1));
+            }
+            return ids;
+        });
+
+        for (int id : users) {
+            SampleDataGenerator.generateBulkData(id, TASKS_PER_USER, NOTES_PER_USER);
+            manager.inTransaction(tx -> {
+                BatchWriter writer = new BatchWriter(tx);
+                BatchWriter.Table goals = writer.insert("goals", "user_id", "title", "target_value", "target_date", "status");
+                BatchWriter.Table moods = writer.insert("mood_entries", "user_id", "mood_level", "entry_date");
+                BatchWriter.Table sessions = writer.insert("focus_sessions",
+                        "user_id", "session_type", "duration_minutes", "session_date");
+                LocalDate today = LocalDate.now();
+                for (int day = 0; day < 60; day++) {
+                    goals.add(id, "Goal " + day, 10, today.minusDays(day), day % 2 == 0 ? "COMPLETED" : "ACTIVE");
+                    moods.add(id, day % 5 + 1, today.minusDays(day));
+                    sessions.add(id, "FOCUS", 25, today.minusDays(day));
+                }
+                return writer.finish();
+            });
+        }
+        userId = users.get(0);
+
+        try (Connection conn = manager.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute(MYSQL_URL != null
+                    ? "ANALYZE TABLE tasks, notes, goals, mood_entries, focus_sessions"
+                    : "ANALYZE");
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        DatabaseManager.getInstance().closeConnections();
+    }
+
+    @Test
+    public void testServiceQueriesUseAnIndex() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        for (QueryPlan plan : explainServiceReads()) {
+            if (!plan.isIndexed()) {
+                problems.add(plan.toString());
+            }
+        }
+        assertTrue(problems.isEmpty(), "Queries without a usable index:\n" + String.join("\n", problems));
+    }
+
+    @Test
+    public void testOrderedReadsComeOutOfAnIndexOnMySql() throws SQLException {
+        assumeTrue(MYSQL_URL != null, "Set -Dfocusbuddy.test.mysqlUrl to check sorts on MySQL");
+        List<String> sorted = new ArrayList<>();
+        int ordered = 0;
+        for (QueryPlan plan : explainServiceReads()) {
+            if (plan.sql().toUpperCase(Locale.ROOT).contains("ORDER BY")) {
+                ordered++;
+                if (plan.filesort()) {
+                    sorted.add(plan.toString());
+                }
+            }
+        }
+        assertTrue(ordered > 0, "Expected ordered service reads");
+        assertTrue(sorted.isEmpty(), "Reads sorted after the fact:\n" + String.join("\n", sorted));
+    }
+
+    @Test
+    public void testExplainReportsFullScans() throws SQLException {
+        DatabaseManager manager = DatabaseManager.getInstance();
+        try (Connection conn = manager.getConnection()) {
+            QueryPlan plan = manager.getDialect().explain(conn,
+                    "SELECT * FROM notes WHERE title = ?", List.of("Generated note #1"));
+            assertTrue(plan.fullScan(), plan.toString());
+        }
+    }
+
+    /**
+     * Run the service reads and explain each distinct SELECT once: the same
+     * SQL with different values has the same plan shape.
+     */
+    private static List<QueryPlan> explainServiceReads() throws SQLException {
+        QueryCache.getInstance().clear();
+        QueryCapture capture = QueryCapture.start();
+        try {
+            runServiceReads();
+        } finally {
+            capture.stop();
+        }
+
+        Map<String, List<Object>> selects = new LinkedHashMap<>();
+        for (QueryCapture.Captured query : capture.stop()) {
+            if (query.sql().trim().toUpperCase(Locale.ROOT).startsWith("SELECT")) {
+                selects.putIfAbsent(query.sql(), query.parameters());
+            }
+        }
+        assertTrue(selects.size() >= 25, "Expected the service reads to be captured, got " + selects.size());
+
+        DatabaseManager manager = DatabaseManager.getInstance();
+        SqlDialect dialect = manager.getDialect();
+        List<QueryPlan> plans = new ArrayList<>();
+        try (Connection conn = manager.getConnection()) {
+            for (Map.Entry<String, List<Object>> select : selects.entrySet()) {
+                plans.add(dialect.explain(conn, select.getKey(), select.getValue()));
+            }
+        }
+        return plans;
+    }
+
+    private static void runServiceReads() {
+        TaskService tasks = new TaskService();
+        tasks.getTasksForUser(userId);
+        var taskPage = tasks.getTasksPage(userId, null, 50);
+        tasks.getTasksPage(userId, taskPage.next(), 50);
+        tasks.getTasksForToday(userId);
+        tasks.getOverdueTasks(userId);
+        tasks.getTaskCount(userId);
+        tasks.getCompletedTaskCount(userId);
+        tasks.getTaskCountByStatus(userId, Task.Status.IN_PROGRESS);
+        tasks.getOverdueTaskCount(userId);
+
+        NotesService notes = new NotesService();
+        notes.getNotesForUser(userId);
+        var notePage = notes.getNotesPage(userId, null, 30);
+        notes.getNotesPage(userId, notePage.next(), 30);
+        notes.searchNotes(userId, "note 1");
+        notes.getNotesByCategory(userId, "Study");
+        notes.getCategoriesForUser(userId);
+        notes.getNoteCountByCategory(userId, "General");
+
+        GoalsService goals = new GoalsService();
+        goals.getGoalsForUser(userId);
+        goals.getTotalGoalsCount(userId);
+        goals.getCompletedGoalsCount(userId);
+        goals.getActiveGoalsCount(userId);
+        goals.getUserAchievements(userId);
+
+        MoodService moods = new MoodService();
+        moods.getRecentMoodEntries(userId, 7);
+        moods.getMoodEntriesForChart(userId, 30);
+        moods.getMoodStreak(userId);
+
+        ActivityService activity = new ActivityService();
+        activity.getRecentActivities(userId, 20);
+        activity.getActivityCount(userId, 7);
+        activity.getMostActiveDay(userId);
+
+        ProfileService profiles = new ProfileService();
+        profiles.getProfileData(userId);
+        profiles.getProfileStatistics(userId);
+    }
+}
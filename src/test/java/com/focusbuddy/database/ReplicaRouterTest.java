@@ -0,0 +1,112 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.models.Mahasiswa;
+import com.focusbuddy.models.Task;
+import com.focusbuddy.services.TaskService;
+import com.focusbuddy.utils.UserSession;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Splits reads and writes between two in-memory H2 databases. Nothing
+ * replicates between them, so the replica stands for one that has not
+ * caught up yet and shows which database answered a read.
+ */
+public class ReplicaRouterTest {
+    private static final int USER_ID = 1;
+
+    private static DatabaseManager manager;
+    private static ReplicaRouter router;
+
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        manager = DatabaseManager.getInstance();
+        manager.useSettings(DatabaseSettings.embedded(H2Dialect.memoryUrl("focusbuddy_rw_primary")));
+        assertTrue(manager.initializeDatabase());
+
+        DatabaseSettings replica = DatabaseSettings.embedded(H2Dialect.memoryUrl("focusbuddy_rw_replica"));
+        ConnectionPool replicaSetup = new ConnectionPool(replica, PoolConfig.fromConfig());
+        try (Connection conn = replicaSetup.getConnection()) {
+            new MigrationRunner(replica.getDialect()).migrate(conn);
+            insertUser(conn);
+        } finally {
+            replicaSetup.shutdown();
+        }
+        try (Connection conn = manager.getConnection()) {
+            insertUser(conn);
+        }
+
+        router = manager.getReplicaRouter();
+        router.addReplica("replica", replica);
+
+        Mahasiswa user = new Mahasiswa();
+        user.setId(USER_ID);
+        UserSession.getInstance().setCurrentUser(user);
+    }
+
+    private static void insertUser(Connection conn) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement("INSERT INTO users (id, username, password) VALUES (?, ?, ?)");
+        stmt.setInt(1, USER_ID);
+        stmt.setString(2, "reader");
+        stmt.setString(3, "secret");
+        stmt.executeUpdate();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        UserSession.getInstance().logout();
+        router.setReadYourWritesMs(ReplicaRouter.DEFAULT_READ_YOUR_WRITES_MS);
+        router.setRetryAfterMs(ReplicaRouter.DEFAULT_RETRY_AFTER_MS);
+        manager.closeConnections();
+    }
+
+    @Test
+    public void testReadsFollowOwnWritesThenMoveToTheReplica() throws SQLException {
+        TaskService tasks = new TaskService();
+        router.setReadYourWritesMs(60_000);
+
+        Task task = new Task("Written to primary", "", Task.Priority.MEDIUM, LocalDate.now());
+        task.setUserId(USER_ID);
+        assertEquals(WriteResult.SAVED, tasks.addTask(task));
+
+        long primaryReads = router.getPrimaryReads();
+        assertEquals(1, tasks.getTasksForUser(USER_ID).size(), "Own write must be visible right away");
+        assertTrue(router.getPrimaryReads() > primaryReads);
+
+        // Once the window has passed, reads go to the (lagging) replica
+        router.setReadYourWritesMs(0);
+        QueryCache.getInstance().clear();
+        long replicaReads = router.getReplicaReads();
+        assertEquals(0, tasks.getTasksForUser(USER_ID).size());
+        assertTrue(router.getReplicaReads() > replicaReads);
+
+        // Writes never go to a replica
+        try (Connection conn = manager.getConnection(AccessMode.READ_WRITE)) {
+            assertTrue(conn.getMetaData().getURL().startsWith("jdbc:h2:mem:focusbuddy_rw_primary"));
+        }
+    }
+
+    @Test
+    public void testUnreachableReplicaFallsBackToTheNextOne() throws SQLException {
+        router.addReplica("missing", DatabaseSettings.embedded("jdbc:h2:mem:focusbuddy_rw_missing;IFEXISTS=TRUE"));
+        router.setReadYourWritesMs(0);
+
+        router.setRetryAfterMs(60_000);
+
+        long fallbacks = router.getFallbacks();
+        for (int i = 0; i < 4; i++) {
+            try (Connection conn = manager.getConnection(AccessMode.READ_ONLY)) {
+                assertTrue(conn.isValid(1));
+            }
+        }
+        assertEquals(fallbacks + 1, router.getFallbacks(), "A failed replica is skipped until its backoff ends");
+    }
+}
@@ -0,0 +1,260 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.models.Mahasiswa;
+import com.focusbuddy.models.Task;
+import com.focusbuddy.services.TaskService;
+import com.focusbuddy.utils.SampleDataGenerator;
+import com.focusbuddy.utils.UserSession;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes users over three in-memory H2 databases standing in for shards.
+ */
+public class ShardRouterTest {
+    private static DatabaseManager manager;
+    private static ShardRouter router;
+
+    @BeforeAll
+    public static void setUp() {
+        manager = DatabaseManager.getInstance();
+        manager.useSettings(DatabaseSettings.embedded(H2Dialect.memoryUrl("focusbuddy_shard_primary")));
+        router = manager.getShardRouter();
+        router.addShard("east", DatabaseSettings.embedded(H2Dialect.memoryUrl("focusbuddy_shard_east")));
+        router.addShard("west", DatabaseSettings.embedded(H2Dialect.memoryUrl("focusbuddy_shard_west")));
+        assertTrue(manager.initializeDatabase());
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        UserSession.getInstance().logout();
+        manager.closeConnections();
+    }
+
+    @Test
+    public void testRingSpreadsUsersAndAddingAShardMovesOnlyItsShare() {
+        ShardRouter ring = new ShardRouter(() -> null);
+        ring.addShard("b", DatabaseSettings.embedded(H2Dialect.memoryUrl("unused_b")));
+        ring.addShard("c", DatabaseSettings.embedded(H2Dialect.memoryUrl("unused_c")));
+
+        Map<Integer, String> before = new HashMap<>();
+        Map<String, Integer> perShard = new HashMap<>();
+        for (int userId = 1; userId <= 3000; userId++) {
+            String shard = ring.ringShardFor(userId);
+            before.put(userId, shard);
+            perShard.merge(shard, 1, Integer::sum);
+        }
+        for (String shard : ring.getShardNames()) {
+            assertTrue(perShard.getOrDefault(shard, 0) > 600, "Uneven spread: " + perShard);
+        }
+
+        ring.addShard("d", DatabaseSettings.embedded(H2Dialect.memoryUrl("unused_d")));
+        int moved = 0;
+        for (int userId = 1; userId <= 3000; userId++) {
+            String shard = ring.ringShardFor(userId);
+            if (!shard.equals(before.get(userId))) {
+                assertEquals("d", shard, "Users may only move to the new shard");
+                moved++;
+            }
+        }
+        assertTrue(moved > 300 && moved < 1200, "Expected about a quarter of the users to move, got " + moved);
+    }
+
+    @Test
+    public void testServicesFollowTheSessionUserAndMovesKeepRowsTogether() throws SQLException {
+        int userId = -1;
+        for (int i = 0; userId < 0; i++) {
+            int candidate = insertUser("sharded" + i);
+            if (!ShardRouter.PRIMARY.equals(router.ringShardFor(candidate))) {
+                userId = candidate;
+            }
+        }
+        String home = router.assignNewUser(userId);
+        assertEquals(router.ringShardFor(userId), home);
+
+        Mahasiswa user = new Mahasiswa();
+        user.setId(userId);
+        UserSession.getInstance().setCurrentUser(user);
+        try {
+            TaskService tasks = new TaskService();
+            Task first = new Task("Sharded task", "lives on " + home, Task.Priority.HIGH, LocalDate.now());
+            first.setUserId(userId);
+            assertEquals(WriteResult.SAVED, tasks.addTask(first));
+            Task second = new Task("Second task", "", Task.Priority.LOW, null);
+            second.setUserId(userId);
+            assertEquals(WriteResult.SAVED, tasks.addTask(second));
+            try (Connection conn = manager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(
+                         "INSERT INTO focus_sessions (user_id, task_id, session_type, duration_minutes, session_date) VALUES (?, ?, 'FOCUS', 25, ?)")) {
+                stmt.setInt(1, userId);
+                stmt.setInt(2, second.getId());
+                stmt.setObject(3, LocalDate.now());
+                stmt.executeUpdate();
+            }
+
+            assertEquals(0, count(ShardRouter.PRIMARY, "SELECT COUNT(*) FROM tasks WHERE user_id = ?", userId));
+            assertEquals(2, count(home, "SELECT COUNT(*) FROM tasks WHERE user_id = ?", userId));
+            assertEquals(2, tasks.getTasksForUser(userId).size());
+
+            String target = home.equals("east") ? "west" : "east";
+            assertEquals(3, new ShardRebalancer(manager).moveUser(userId, target));
+
+            assertEquals(target, router.shardOf(userId));
+            assertEquals(0, count(home, "SELECT COUNT(*) FROM tasks WHERE user_id = ?", userId));
+            assertEquals(0, count(home, "SELECT COUNT(*) FROM users WHERE id = ?", userId));
+            assertEquals(2, count(target, "SELECT COUNT(*) FROM tasks WHERE user_id = ?", userId));
+            // The session now points at a task copied with the target's own id
+            assertEquals(1, count(target, """
+                    SELECT COUNT(*) FROM focus_sessions f JOIN tasks t ON t.id = f.task_id
+                    WHERE f.user_id = ? AND t.title = 'Second task'
+                    """, userId));
+            assertEquals(2, tasks.getTasksForUser(userId).size());
+        } finally {
+            UserSession.getInstance().logout();
+        }
+    }
+
+    @Test
+    public void testRebalanceMovesUnplacedUsersToTheirRingShard() throws SQLException {
+        List<Integer> users = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            int userId = insertUser("legacy" + i);
+            SampleDataGenerator.generateBulkData(userId, 5, 3); // unplaced, so written to primary
+            users.add(userId);
+        }
+
+        ShardRebalancer rebalancer = new ShardRebalancer(manager);
+        rebalancer.rebalance();
+        for (int userId : users) {
+            String shard = router.ringShardFor(userId);
+            assertEquals(shard, router.shardOf(userId));
+            assertEquals(5, count(shard, "SELECT COUNT(*) FROM tasks WHERE user_id = ?", userId));
+            assertEquals(3, count(shard, "SELECT COUNT(*) FROM notes WHERE user_id = ?", userId));
+        }
+        assertEquals(0, rebalancer.rebalance());
+    }
+
+    @Test
+    public void testPlacementCommitsWithTheUsersRowAndUnknownShardsAreRejected() throws SQLException {
+        int userId = manager.inDirectoryTransaction(tx -> {
+            PreparedStatement stmt = tx.getConnection().prepareStatement(
+                    "INSERT INTO users (username, password) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS);
+            stmt.setString(1, "registered");
+            stmt.setString(2, "secret");
+            stmt.executeUpdate();
+            ResultSet keys = stmt.getGeneratedKeys();
+            assertTrue(keys.next());
+            router.assignNewUser(tx, keys.getInt(1), "registered");
+            return keys.getInt(1);
+        });
+        String home = router.ringShardFor(userId);
+        assertEquals(home, router.shardOf(userId));
+        assertEquals(1, count(home, "SELECT COUNT(*) FROM users WHERE id = ?", userId));
+
+        int misplaced = insertUser("misplaced");
+        try (Connection conn = manager.getDirectoryConnection();
+             PreparedStatement stmt = conn.prepareStatement("INSERT INTO user_shards (user_id, shard) VALUES (?, 'gone')")) {
+            stmt.setInt(1, misplaced);
+            stmt.executeUpdate();
+        }
+        try {
+            assertThrows(SQLException.class, () -> router.shardOf(misplaced));
+        } finally {
+            // The cascade drops the placement, which would otherwise stop the rebalance test
+            try (Connection conn = manager.getDirectoryConnection();
+                 PreparedStatement stmt = conn.prepareStatement("DELETE FROM users WHERE id = ?")) {
+                stmt.setInt(1, misplaced);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    @Test
+    public void testArchivedRowsMoveWithTheUserAndAreRemovedWithThem() throws SQLException {
+        // Migration 9 only creates the archives on MySQL; stand one in on every database
+        for (String shard : List.of(ShardRouter.PRIMARY, "east", "west")) {
+            router.onShard(shard, () -> {
+                try (Connection conn = manager.getConnection();
+                     Statement stmt = conn.createStatement()) {
+                    stmt.execute("CREATE TABLE IF NOT EXISTS mood_entries_archive "
+                            + "(id INT AUTO_INCREMENT PRIMARY KEY, user_id INT NOT NULL, mood_level INT, entry_date DATE)");
+                }
+                return null;
+            });
+        }
+        try {
+            int userId = -1;
+            for (int i = 0; userId < 0; i++) {
+                int candidate = insertUser("archived" + i);
+                if (!ShardRouter.PRIMARY.equals(router.ringShardFor(candidate))) {
+                    userId = candidate;
+                }
+            }
+            try (Connection conn = manager.getDirectoryConnection();
+                 PreparedStatement stmt = conn.prepareStatement(
+                         "INSERT INTO mood_entries_archive (user_id, mood_level, entry_date) VALUES (?, 3, ?)")) {
+                stmt.setInt(1, userId);
+                stmt.setObject(2, LocalDate.now().minusYears(2));
+                stmt.executeUpdate();
+            }
+
+            String home = router.ringShardFor(userId);
+            new ShardRebalancer(manager).moveUser(userId, home);
+            String archived = "SELECT COUNT(*) FROM mood_entries_archive WHERE user_id = ?";
+            assertEquals(0, count(ShardRouter.PRIMARY, archived, userId));
+            assertEquals(1, count(home, archived, userId));
+
+            router.removeUser(userId);
+            assertEquals(0, count(home, archived, userId));
+        } finally {
+            for (String shard : List.of(ShardRouter.PRIMARY, "east", "west")) {
+                router.onShard(shard, () -> {
+                    try (Connection conn = manager.getConnection();
+                         Statement stmt = conn.createStatement()) {
+                        stmt.execute("DROP TABLE mood_entries_archive");
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    private static int insertUser(String username) throws SQLException {
+        try (Connection conn = manager.getDirectoryConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT INTO users (username, password) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, username);
+            stmt.setString(2, "secret");
+            stmt.executeUpdate();
+            ResultSet keys = stmt.getGeneratedKeys();
+            assertTrue(keys.next());
+            return keys.getInt(1);
+        }
+    }
+
+    private static int count(String shard, String sql, int userId) throws SQLException {
+        return router.onShard(shard, () -> {
+            try (Connection conn = manager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, userId);
+                ResultSet rs = stmt.executeQuery();
+                assertTrue(rs.next());
+                return rs.getInt(1);
+            }
+        });
+    }
+}
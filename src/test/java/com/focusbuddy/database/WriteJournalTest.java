@@ -0,0 +1,185 @@
+package com.focusbuddy.database;
+
+import com.focusbuddy.models.Task;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Journals writes to a temporary file and replays them into an in-memory H2 database.
+ */
+public class WriteJournalTest {
+    private static final String ADD_TASK =
+            "INSERT INTO tasks (user_id, title, priority, due_date, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String SAVE_MOOD = """
+            INSERT INTO mood_entries (user_id, mood_level, mood_description, entry_date) VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE mood_level = VALUES(mood_level), mood_description = VALUES(mood_description)
+            """;
+
+    private static DatabaseManager manager;
+    private static int userId;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        manager = DatabaseManager.getInstance();
+        manager.useSettings(DatabaseSettings.embedded(H2Dialect.memoryUrl("focusbuddy_journal")));
+        assertTrue(manager.initializeDatabase());
+        try (Connection conn = manager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT INTO users (username, password) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, "offline");
+            stmt.setString(2, "secret");
+            stmt.executeUpdate();
+            ResultSet keys = stmt.getGeneratedKeys();
+            assertTrue(keys.next());
+            userId = keys.getInt(1);
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        manager.closeConnections();
+    }
+
+    @Test
+    public void testEntriesSurviveRestartAndApplyOnceInOrder() throws Exception {
+        Path file = dir.resolve("journal.log");
+        WriteJournal journal = new WriteJournal(file, manager, true, 0);
+        assertTrue(journal.append("tasks", userId, ADD_TASK, userId, "Written offline", Task.Priority.HIGH,
+                LocalDate.now(), LocalDateTime.now()));
+        assertTrue(journal.append("tasks", userId, ADD_TASK, userId, "Tab\tand\nnewline", Task.Priority.LOW,
+                null, LocalDateTime.now()));
+        assertTrue(journal.append("mood_entries", userId, SAVE_MOOD, userId, 2, "Meh", LocalDate.now()));
+        assertTrue(journal.append("mood_entries", userId, SAVE_MOOD, userId, 5, "Better", LocalDate.now()));
+        journal.close();
+
+        Path copy = dir.resolve("copy.log");
+        Files.copy(file, copy);
+        // A crash in the middle of a write leaves a torn last line
+        Files.writeString(file, "5\tdeadbeef\ttasks", StandardOpenOption.APPEND);
+
+        WriteJournal restarted = new WriteJournal(file, manager, true, 0);
+        assertEquals(4, restarted.getPendingCount());
+        assertEquals(4, restarted.replay());
+        assertFalse(restarted.hasPending());
+        assertEquals(0, Files.size(file), "Applied entries are removed from the file");
+        restarted.close();
+
+        assertEquals(2, count("SELECT COUNT(*) FROM tasks WHERE user_id = ? AND title NOT LIKE 'Concurrent %'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM tasks WHERE user_id = ? AND title = 'Tab\tand\nnewline'"));
+        assertEquals(5, count("SELECT mood_level FROM mood_entries WHERE user_id = ?"), "Replayed in order");
+
+        // The same entries again are skipped by their idempotency keys
+        WriteJournal again = new WriteJournal(copy, manager, true, 0);
+        assertEquals(0, again.replay());
+        again.close();
+        assertEquals(2, count("SELECT COUNT(*) FROM tasks WHERE user_id = ? AND title NOT LIKE 'Concurrent %'"));
+    }
+
+    @Test
+    public void testConcurrentAppendsAreGroupCommitted() throws Exception {
+        WriteJournal journal = new WriteJournal(dir.resolve("group.log"), manager, true, 20);
+        List<CompletableFuture<Boolean>> appends = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String title = "Concurrent " + i;
+            appends.add(CompletableFuture.supplyAsync(() -> journal.append("tasks", userId, ADD_TASK,
+                    userId, title, Task.Priority.MEDIUM, null, LocalDateTime.now())));
+        }
+        for (CompletableFuture<Boolean> append : appends) {
+            assertTrue(append.get());
+        }
+
+        assertEquals(20, journal.getPendingCount());
+        assertEquals(20, Files.readAllLines(dir.resolve("group.log")).size());
+        assertEquals(20, journal.replay());
+        assertEquals(20, count("SELECT COUNT(*) FROM tasks WHERE user_id = ? AND title LIKE 'Concurrent %'"));
+        journal.close();
+    }
+
+    @Test
+    public void testReplayTimeIsBoundWhenTheEntryIsApplied() throws Exception {
+        WriteJournal journal = new WriteJournal(dir.resolve("stamp.log"), manager, true, 0);
+        LocalDateTime written = LocalDateTime.now().minusHours(1).withNano(0);
+        assertTrue(journal.append("tasks", userId,
+                "INSERT INTO tasks (user_id, title, priority, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+                userId, "Stamped on replay", Task.Priority.LOW, written, WriteJournal.REPLAY_TIME));
+        journal.close();
+
+        WriteJournal restarted = new WriteJournal(dir.resolve("stamp.log"), manager, true, 0);
+        LocalDateTime beforeReplay = LocalDateTime.now().withNano(0);
+        assertEquals(1, restarted.replay());
+        restarted.close();
+
+        try (Connection conn = manager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT created_at, updated_at FROM tasks WHERE user_id = ? AND title = 'Stamped on replay'")) {
+            stmt.setInt(1, userId);
+            ResultSet rs = stmt.executeQuery();
+            assertTrue(rs.next());
+            assertEquals(written, rs.getTimestamp(1).toLocalDateTime());
+            assertFalse(rs.getTimestamp(2).toLocalDateTime().isBefore(beforeReplay));
+        }
+        try (Connection conn = manager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            // Keep the other tests' task counts for this user as they expect them
+            stmt.executeUpdate("DELETE FROM tasks WHERE title = 'Stamped on replay'");
+        }
+    }
+
+    @Test
+    public void testOldAppliedKeysArePrunedOnceTheJournalIsEmpty() throws Exception {
+        try (Connection conn = manager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT INTO journal_applied (idempotency_key, applied_at) VALUES ('expired-key', ?)")) {
+            stmt.setTimestamp(1, java.sql.Timestamp.valueOf(LocalDateTime.now().minusDays(30)));
+            stmt.executeUpdate();
+        }
+
+        WriteJournal journal = new WriteJournal(dir.resolve("prune.log"), manager, true, 0);
+        assertTrue(journal.append("mood_entries", userId, SAVE_MOOD, userId, 4, "Pruned", LocalDate.now().minusDays(1)));
+        assertEquals(1, journal.replay());
+        journal.close();
+
+        try (Connection conn = manager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            ResultSet rs = stmt.executeQuery("SELECT idempotency_key FROM journal_applied");
+            List<String> keys = new ArrayList<>();
+            while (rs.next()) {
+                keys.add(rs.getString(1));
+            }
+            assertFalse(keys.contains("expired-key"));
+            assertFalse(keys.isEmpty(), "Keys within the retention are kept");
+            stmt.executeUpdate("DELETE FROM mood_entries WHERE mood_description = 'Pruned'");
+        }
+    }
+
+    private static int count(String sql) throws SQLException {
+        try (Connection conn = manager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            ResultSet rs = stmt.executeQuery();
+            assertTrue(rs.next());
+            return rs.getInt(1);
+        }
+    }
+}